@@ -0,0 +1,139 @@
+package ch.ethz.vppserver.ippclient;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Open addressing hash table from primitive enum values to enum names.
+ * <p>
+ * It is filled once when the attribute list is loaded and only read
+ * afterwards, so lookups need neither boxing nor synchronization.
+ * </p>
+ */
+final class EnumNameTable {
+
+    private int[] values;
+    private String[] names;
+    private int size = 0;
+    // set if the attribute has an attribute value without set-of-enum
+    private boolean incomplete = false;
+
+    EnumNameTable() {
+        this(16);
+    }
+
+    private EnumNameTable(int capacity) {
+        values = new int[capacity];
+        names = new String[capacity];
+    }
+
+    private static int indexOf(int value, int mask) {
+        int h = value * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Adds the name for the given value unless there is already one.
+     *
+     * @param value enum value
+     * @param name  enum name
+     */
+    void putIfAbsent(int value, String name) {
+        if ((size + 1) * 2 > names.length) {
+            rehash(names.length * 2);
+        }
+        int mask = names.length - 1;
+        int i = indexOf(value, mask);
+        while (names[i] != null) {
+            if (values[i] == value) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        values[i] = value;
+        names[i] = name;
+        size++;
+    }
+
+    /**
+     * @param value enum value
+     * @return name of the value or null if it is unknown
+     */
+    String get(int value) {
+        int mask = names.length - 1;
+        int i = indexOf(value, mask);
+        while (names[i] != null) {
+            if (values[i] == value) {
+                return names[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    boolean isIncomplete() {
+        return incomplete;
+    }
+
+    void setIncomplete() {
+        this.incomplete = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Writes the table in the format of {@link IppAttributeRegistry}.
+     *
+     * @param out output
+     * @throws IOException in case of I/O errors
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(incomplete);
+        out.writeInt(size);
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null) {
+                out.writeInt(values[i]);
+                out.writeUTF(names[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in input
+     * @return table
+     * @throws IOException in case of I/O errors
+     */
+    static EnumNameTable readFrom(DataInput in) throws IOException {
+        boolean incomplete = in.readBoolean();
+        int size = in.readInt();
+        int capacity = 16;
+        while (capacity < size * 2 + 2) {
+            capacity *= 2;
+        }
+        EnumNameTable table = new EnumNameTable(capacity);
+        for (int i = 0; i < size; i++) {
+            table.putIfAbsent(in.readInt(), in.readUTF());
+        }
+        table.incomplete = incomplete;
+        return table;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldValues = values;
+        String[] oldNames = names;
+        values = new int[capacity];
+        names = new String[capacity];
+        size = 0;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                putIfAbsent(oldValues[i], oldNames[i]);
+            }
+        }
+    }
+
+}
@@ -23,8 +23,30 @@ import java.util.List;
 public interface IIppAttributeProvider {
     String TAG_LIST_FILENAME = "config/ippclient/ipp-list-of-tag.xml";
     String ATTRIBUTE_LIST_FILENAME = "config/ippclient/ipp-list-of-attributes.xml";
+    // compiled from the XML lists at build time
+    String TAG_REGISTRY_FILENAME = "config/ippclient/ipp-tags.bin";
+    String ENUM_REGISTRY_FILENAME = "config/ippclient/ipp-enums.bin";
 
     List<Tag> getTagList();
 
     List<AttributeGroup> getAttributeGroupList();
+
+    /**
+     * @param tag tag value with marker, e.g. '0x21'
+     * @return name of the tag
+     */
+    String getTagName(String tag);
+
+    /**
+     * @param tag tag byte
+     * @return name of the tag
+     */
+    String getTagName(byte tag);
+
+    /**
+     * @param value           enum value
+     * @param nameOfAttribute name of the attribute the enum belongs to
+     * @return name of the enum value
+     */
+    String getEnumName(int value, String nameOfAttribute);
 }
@@ -15,43 +15,125 @@ package ch.ethz.vppserver.ippclient;
  * <http://www.gnu.org/licenses/>.
  */
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.cups4j.ipp.attributes.AttributeGroup;
-import org.cups4j.ipp.attributes.AttributeList;
 import org.cups4j.ipp.attributes.Tag;
-import org.cups4j.ipp.attributes.TagList;
 
-import java.io.InputStream;
+import java.io.IOException;
 import java.util.List;
 
-@Getter
+/**
+ * Provides the names of tags and enums from the {@link IppAttributeRegistry}.
+ * Only the tag names and the status codes are loaded with the provider, the
+ * enums of the other attributes are loaded when the first one is decoded.
+ * The complete XML lists are only parsed if {@link #getTagList()} or
+ * {@link #getAttributeGroupList()} is called.
+ */
+@Slf4j
 public class IppAttributeProvider implements IIppAttributeProvider {
 
     private static final IppAttributeProvider INSTANCE = new IppAttributeProvider();
 
-    private final List<Tag> tagList;
+    // tag names and status codes
+    private final IppAttributeRegistry registry;
+
+    // parsed on first use, guarded by this
+    private List<Tag> tagList;
 
-    private final List<AttributeGroup> attributeGroupList;
+    private List<AttributeGroup> attributeGroupList;
 
     private IppAttributeProvider() {
-        try {
-            InputStream tagListStream = IIppAttributeProvider.class.getClassLoader().getResourceAsStream(TAG_LIST_FILENAME);
-            InputStream attListStream = IIppAttributeProvider.class.getClassLoader().getResourceAsStream(ATTRIBUTE_LIST_FILENAME);
-
-            XmlMapper xmlMapper = new XmlMapper();
-            TagList tList = xmlMapper.readValue(tagListStream, TagList.class);
-            tagList = tList.getTags();
-
-            AttributeList aList = xmlMapper.readValue(attListStream, AttributeList.class);
-            attributeGroupList = aList.getAttributeGroups();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        registry = IppAttributeRegistry.loadTags();
     }
 
     public static IppAttributeProvider getInstance() {
         return INSTANCE;
     }
 
+    @Override
+    public synchronized List<Tag> getTagList() {
+        if (tagList == null) {
+            try {
+                tagList = IppAttributeXml.readTagList().getTags();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return tagList;
+    }
+
+    @Override
+    public synchronized List<AttributeGroup> getAttributeGroupList() {
+        if (attributeGroupList == null) {
+            try {
+                attributeGroupList = IppAttributeXml.readAttributeList().getAttributeGroups();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return attributeGroupList;
+    }
+
+    /**
+     * @param tag tag value with marker, e.g. '0x21'
+     * @return name of the tag
+     */
+    @Override
+    public String getTagName(String tag) {
+        if (tag == null) {
+            log.error("IppAttributeProvider.getTagName(): no tag given");
+            return null;
+        }
+        String name = registry.getTagName(IppAttributeRegistry.parseNumber(tag));
+        return (name == null) ? "no name found for tag:" + tag : name;
+    }
+
+    /**
+     * @param tag tag byte
+     * @return name of the tag
+     */
+    @Override
+    public String getTagName(byte tag) {
+        String name = registry.getTagName(tag & 0xff);
+        return (name == null) ? "no name found for tag:" + IppUtil.toHexWithMarker(tag) : name;
+    }
+
+    /**
+     * @param value           enum value
+     * @param nameOfAttribute name of the attribute the enum belongs to
+     * @return name of the enum value
+     */
+    @Override
+    public String getEnumName(int value, String nameOfAttribute) {
+        if (nameOfAttribute == null) {
+            log.error("IppAttributeProvider.getEnumName(int,String): nameOfAttribute is null");
+            return null;
+        }
+        EnumNameTable table = registry.getEnumNames(nameOfAttribute);
+        if (table == null) {
+            table = EnumRegistryHolder.ENUMS.getEnumNames(nameOfAttribute);
+        }
+        if (table != null) {
+            String name = table.get(value);
+            if (name != null) {
+                return name;
+            }
+            if (table.isIncomplete()) {
+                log.error("IppAttributeProvider.getEnumName(): " + "set-of-enum is null for attribute " + nameOfAttribute
+                        + ". Please control " + "the enumeration list in the XML file");
+                return null;
+            }
+        }
+        return "enum name not found in IANA list: " + value;
+    }
+
+    /**
+     * Loads the enums on first use (initialization-on-demand holder).
+     */
+    private static final class EnumRegistryHolder {
+
+        private static final IppAttributeRegistry ENUMS = IppAttributeRegistry.loadEnums();
+
+    }
+
 }
@@ -0,0 +1,286 @@
+package ch.ethz.vppserver.ippclient;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
+import org.cups4j.ipp.attributes.Enum;
+import org.cups4j.ipp.attributes.SetOfEnum;
+import org.cups4j.ipp.attributes.Tag;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup tables for tag names and enum names.
+ * <p>
+ * The tables are compiled from the XML lists at build time (see the
+ * exec-maven-plugin in pom.xml, which calls {@link #main(String[])}) into two
+ * binary resources: {@link IIppAttributeProvider#TAG_REGISTRY_FILENAME} with
+ * the tags and the status codes, which every response needs, and
+ * {@link IIppAttributeProvider#ENUM_REGISTRY_FILENAME} with the enums of all
+ * other attributes, which is only loaded when the first enum is decoded. At
+ * runtime the tables are read from there, which is much faster than parsing
+ * the XML and does not need Jackson. The XML lists are only parsed if a
+ * binary resource is missing, e.g. if the classes were not built by Maven.
+ * </p>
+ * <p>
+ * Format: magic, version, the tags (value, name) and the enum tables per
+ * attribute, written with {@link DataOutputStream}.
+ * </p>
+ */
+@Slf4j
+public final class IppAttributeRegistry {
+
+    private static final int MAGIC = 0x43344a41; // "C4JA"
+    private static final int VERSION = 1;
+    // enums of the tag part, the status code is decoded from every response
+    private static final String STATUS_CODE = "status-code";
+
+    // tag names indexed by the (unsigned) tag byte
+    private final String[] tagNames = new String[256];
+    // enum names per attribute name
+    private final Map<String, EnumNameTable> enumNames = new HashMap<>();
+
+    private IppAttributeRegistry() {
+    }
+
+    /**
+     * Compiles the XML lists into the binary tag and enum registries.
+     *
+     * @param args directory of the binary files to be written
+     * @throws IOException if the XML lists cannot be read or the files
+     *                     cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: IppAttributeRegistry <output directory>");
+        }
+        Path directory = Files.createDirectories(Paths.get(args[0]));
+        IppAttributeRegistry registry = fromXml();
+        write(registry.tagPart(), directory.resolve(fileName(IIppAttributeProvider.TAG_REGISTRY_FILENAME)));
+        write(registry.enumPart(), directory.resolve(fileName(IIppAttributeProvider.ENUM_REGISTRY_FILENAME)));
+    }
+
+    private static String fileName(String resource) {
+        return resource.substring(resource.lastIndexOf('/') + 1);
+    }
+
+    private static void write(IppAttributeRegistry registry, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            registry.write(out);
+        }
+    }
+
+    /**
+     * Loads the tag names and the status codes.
+     *
+     * @return registry without the enums of the other attributes
+     */
+    static IppAttributeRegistry loadTags() {
+        IppAttributeRegistry registry = load(IIppAttributeProvider.TAG_REGISTRY_FILENAME);
+        return (registry == null) ? fromXmlOrFail().tagPart() : registry;
+    }
+
+    /**
+     * Loads the enums of all attributes except the status codes.
+     *
+     * @return registry without tag names
+     */
+    static IppAttributeRegistry loadEnums() {
+        IppAttributeRegistry registry = load(IIppAttributeProvider.ENUM_REGISTRY_FILENAME);
+        return (registry == null) ? fromXmlOrFail().enumPart() : registry;
+    }
+
+    /**
+     * @param resource binary resource
+     * @return registry or null if the resource is missing or unreadable
+     */
+    private static IppAttributeRegistry load(String resource) {
+        try (InputStream in = IIppAttributeProvider.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                return read(in);
+            }
+            log.debug("{} not found, falling back to the XML lists.", resource);
+        } catch (IOException ex) {
+            log.warn("Cannot read {}, falling back to the XML lists.", resource, ex);
+        }
+        return null;
+    }
+
+    private static IppAttributeRegistry fromXmlOrFail() {
+        try {
+            return fromXml();
+        } catch (IOException ex) {
+            throw new IllegalStateException("cannot load IPP attribute lists", ex);
+        }
+    }
+
+    static IppAttributeRegistry fromXml() throws IOException {
+        return fromXml(IppAttributeXml.readTagList().getTags(),
+                IppAttributeXml.readAttributeList().getAttributeGroups());
+    }
+
+    /**
+     * Builds the tables in the order of the XML lists. The first name found
+     * for a value wins. An attribute value without set-of-enum ends the
+     * search for the attribute, so later enums of the same attribute are
+     * ignored.
+     *
+     * @param tagList            tags
+     * @param attributeGroupList attribute groups
+     * @return registry
+     */
+    static IppAttributeRegistry fromXml(List<Tag> tagList, List<AttributeGroup> attributeGroupList) {
+        IppAttributeRegistry registry = new IppAttributeRegistry();
+        for (Tag tag : tagList) {
+            int value = parseNumber(tag.getValue());
+            if ((value >= 0) && (value < registry.tagNames.length) && (registry.tagNames[value] == null)) {
+                registry.tagNames[value] = tag.getName();
+            }
+        }
+        for (AttributeGroup attributeGroup : attributeGroupList) {
+            for (Attribute attribute : attributeGroup.getAttributes()) {
+                String attributeName = attribute.getName();
+                if (attributeName == null) {
+                    continue;
+                }
+                EnumNameTable table = registry.enumNames.computeIfAbsent(attributeName, k -> new EnumNameTable());
+                for (AttributeValue attributeValue : attribute.getAttributeValues()) {
+                    if (table.isIncomplete()) {
+                        break;
+                    }
+                    SetOfEnum setOfEnum = attributeValue.getSetOfEnum();
+                    if (setOfEnum == null) {
+                        table.setIncomplete();
+                        break;
+                    }
+                    for (Enum enumEntry : setOfEnum.getEnums()) {
+                        int value = parseNumber(enumEntry.getValue());
+                        if (value >= 0) {
+                            table.putIfAbsent(value, enumEntry.getName());
+                        }
+                    }
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * @return registry with the tag names and the status codes
+     */
+    IppAttributeRegistry tagPart() {
+        IppAttributeRegistry part = new IppAttributeRegistry();
+        System.arraycopy(tagNames, 0, part.tagNames, 0, tagNames.length);
+        EnumNameTable statusCodes = enumNames.get(STATUS_CODE);
+        if (statusCodes != null) {
+            part.enumNames.put(STATUS_CODE, statusCodes);
+        }
+        return part;
+    }
+
+    /**
+     * @return registry with the enums of all attributes except the status
+     * codes
+     */
+    IppAttributeRegistry enumPart() {
+        IppAttributeRegistry part = new IppAttributeRegistry();
+        part.enumNames.putAll(enumNames);
+        part.enumNames.remove(STATUS_CODE);
+        return part;
+    }
+
+    /**
+     * Reads a registry written by {@link #write(OutputStream)}.
+     *
+     * @param stream input
+     * @return registry
+     * @throws IOException if the input is no registry of this version
+     */
+    static IppAttributeRegistry read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not an IPP attribute registry of version " + VERSION);
+        }
+        IppAttributeRegistry registry = new IppAttributeRegistry();
+        int tags = in.readInt();
+        for (int i = 0; i < tags; i++) {
+            registry.tagNames[in.readUnsignedByte()] = in.readUTF();
+        }
+        int attributes = in.readInt();
+        for (int i = 0; i < attributes; i++) {
+            registry.enumNames.put(in.readUTF(), EnumNameTable.readFrom(in));
+        }
+        return registry;
+    }
+
+    /**
+     * @param stream output
+     * @throws IOException in case of I/O errors
+     */
+    void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        int tags = 0;
+        for (String name : tagNames) {
+            if (name != null) {
+                tags++;
+            }
+        }
+        out.writeInt(tags);
+        for (int value = 0; value < tagNames.length; value++) {
+            if (tagNames[value] != null) {
+                out.writeByte(value);
+                out.writeUTF(tagNames[value]);
+            }
+        }
+        out.writeInt(enumNames.size());
+        for (Map.Entry<String, EnumNameTable> entry : enumNames.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * @param tag tag byte
+     * @return name of the tag or null
+     */
+    String getTagName(int tag) {
+        return ((tag >= 0) && (tag < tagNames.length)) ? tagNames[tag] : null;
+    }
+
+    /**
+     * @param attributeName name of an attribute
+     * @return enum table of the attribute or null
+     */
+    EnumNameTable getEnumNames(String attributeName) {
+        return enumNames.get(attributeName);
+    }
+
+    /**
+     * Some IPP enumerations are in hex, other decimal, see
+     * http://www.iana.org/assignments/ipp-registrations for reference.
+     *
+     * @param value value from the XML file, e.g. '0x21' or '3'
+     * @return parsed value or -1 if the value is no number
+     */
+    static int parseNumber(String value) {
+        try {
+            if (value.contains("0x")) {
+                return Integer.parseInt(value.replace("0x", ""), 16);
+            }
+            return Integer.parseInt(value, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package ch.ethz.vppserver.ippclient;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import lombok.experimental.UtilityClass;
+import org.cups4j.ipp.attributes.AttributeList;
+import org.cups4j.ipp.attributes.TagList;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the XML lists of tags and attributes. Only this class refers to
+ * Jackson, so Jackson is not loaded as long as the
+ * {@link IppAttributeRegistry} is read from its binary resource.
+ */
+@UtilityClass
+class IppAttributeXml {
+
+    static TagList readTagList() throws IOException {
+        return read(IIppAttributeProvider.TAG_LIST_FILENAME, TagList.class);
+    }
+
+    static AttributeList readAttributeList() throws IOException {
+        return read(IIppAttributeProvider.ATTRIBUTE_LIST_FILENAME, AttributeList.class);
+    }
+
+    private static <T> T read(String resource, Class<T> type) throws IOException {
+        try (InputStream stream = IIppAttributeProvider.class.getClassLoader().getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IOException("resource " + resource + " not found");
+            }
+            return new XmlMapper().readValue(stream, type);
+        }
+    }
+
+}
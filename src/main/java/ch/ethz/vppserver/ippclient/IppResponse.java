@@ -1,7 +1,6 @@
 package ch.ethz.vppserver.ippclient;
 
 import lombok.extern.slf4j.Slf4j;
-import org.cups4j.ipp.attributes.Enum;
 import org.cups4j.ipp.attributes.*;
 
 import java.io.IOException;
@@ -9,7 +8,6 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Copyright (C) 2008 ITS of ETH Zurich, Switzerland, Sarah Windler Burri
@@ -31,24 +29,23 @@ import java.util.Set;
 public class IppResponse {
     private final static String CRLF = "\r\n";
     private static final int BYTEBUFFER_CAPACITY = 8192;
-    // Saved list of elements of 'TAG_LIST_FILENAME' and 'ATTRIBUTE_LIST_FILENAME'
-    private final List<Tag> _tagList;
-    private final List<AttributeGroup> _attributeGroupList;
-    private final List<AttributeGroup> _result;
-    // read IPP response in global buffer
-    ByteBuffer _buf;
-    // Saved response of printer
-    private AttributeGroup _attributeGroupResult = null;
-    private Attribute _attributeResult = null;
+    private static final IppResponse INSTANCE = new IppResponse();
+    // Provides the elements of 'TAG_LIST_FILENAME' and 'ATTRIBUTE_LIST_FILENAME'
+    private final IIppAttributeProvider _ippAttributeProvider;
 
+    /**
+     * The decoder keeps no state between calls, the parse state lives in a
+     * {@link ParseContext} per call. Consider {@link #getInstance()} instead.
+     */
     public IppResponse() {
-        IIppAttributeProvider ippAttributeProvider = IppAttributeProviderFactory.createIppAttributeProvider();
-
-        _tagList = ippAttributeProvider.getTagList();
-        _attributeGroupList = ippAttributeProvider.getAttributeGroupList();
+        _ippAttributeProvider = IppAttributeProviderFactory.createIppAttributeProvider();
+    }
 
-        _result = new ArrayList<>();
-        _buf = ByteBuffer.allocate(BYTEBUFFER_CAPACITY);
+    /**
+     * @return shared decoder, it can be used by any number of threads
+     */
+    public static IppResponse getInstance() {
+        return INSTANCE;
     }
 
     /**
@@ -62,12 +59,7 @@ public class IppResponse {
             return null;
         }
 
-        _buf.clear();
-
-        _attributeGroupResult = null;
-        _attributeResult = null;
-        _result.clear();
-
+        ParseContext ctx = new ParseContext();
         IppResult result = new IppResult();
         boolean httpResponse = false;
         boolean ippHeaderResponse = false;
@@ -82,15 +74,15 @@ public class IppResponse {
             tmpBuffer.flip();
             // read HTTP header
             if ((!httpResponse) && (tmpBuffer.hasRemaining())) {
-                _buf = tmpBuffer;
-                result.setHttpStatusResponse(getHTTPHeader());
+                ctx.buf = tmpBuffer;
+                result.setHttpStatusResponse(getHTTPHeader(ctx));
                 httpResponse = true;
             }
 
             // read IPP header
             if ((!ippHeaderResponse) && (tmpBuffer.hasRemaining())) {
-                _buf = tmpBuffer;
-                result.setIppStatusResponse(getIPPHeader());
+                ctx.buf = tmpBuffer;
+                result.setIppStatusResponse(getIPPHeader(ctx, result));
                 ippHeaderResponse = true;
             }
 
@@ -101,48 +93,44 @@ public class IppResponse {
             tmpBuffer = ByteBuffer.allocate(BYTEBUFFER_CAPACITY);
         }
 
-        _buf = concatenateBytebuffers(bufferList);
+        ctx.buf = concatenateBytebuffers(bufferList);
         // read attribute group list with attributes
-        getAttributeGroupList();
+        getAttributeGroupList(ctx);
 
-        closeAttributeGroup();
-        result.setAttributeGroupList(_result);
+        closeAttributeGroup(ctx);
+        result.setAttributeGroupList(ctx.groups);
         return result;
     }
 
     /**
-     * @param channel
-     * @return
+     * Decodes the response from the given buffer, which is read from its
+     * position on. The buffer is neither copied nor kept.
+     *
+     * @param buffer IPP response (read mode)
+     * @return result
      * @throws IOException
      */
     public IppResult getResponse(ByteBuffer buffer) throws IOException {
-
-        _buf.clear();
-
-        _attributeGroupResult = null;
-        _attributeResult = null;
-        _result.clear();
-
+        ParseContext ctx = new ParseContext();
+        ctx.buf = buffer;
         IppResult result = new IppResult();
 
         // be careful: HTTP and IPP could be transmitted in different set of buffers.
         // see RFC2910, http://www.ietf.org/rfc/rfc2910, page 19
         // read IPP header
         if (buffer.hasRemaining()) {
-            _buf = buffer;
             if (buffer.get(0) > 0x20) {
-                return parseErrorText();
+                return parseErrorText(ctx);
             } else {
-                result.setIppStatusResponse(getIPPHeader());
+                result.setIppStatusResponse(getIPPHeader(ctx, result));
             }
         }
 
-        _buf = buffer;
         // read attribute group list with attributes
-        getAttributeGroupList();
+        getAttributeGroupList(ctx);
 
-        closeAttributeGroup();
-        result.setAttributeGroupList(_result);
+        closeAttributeGroup(ctx);
+        result.setAttributeGroupList(ctx.groups);
         return result;
     }
 
@@ -171,11 +159,11 @@ public class IppResponse {
     /**
      * @return
      */
-    private String getHTTPHeader() {
+    private String getHTTPHeader(ParseContext ctx) {
         String endOf = CRLF + CRLF;
         StringBuilder sb = new StringBuilder();
         while (sb.indexOf(endOf) == -1) {
-            int b = _buf.get();
+            int b = ctx.buf.get();
             int ival = b & 0xff;
             char c = (char) ival;
             sb.append(c);
@@ -187,17 +175,22 @@ public class IppResponse {
     }
 
     /**
+     * @param result result to take the request id
      * @return
      */
-    private String getIPPHeader() {
+    private String getIPPHeader(ParseContext ctx, IppResult result) {
         StringBuilder sb = new StringBuilder();
-        sb.append("Major Version:").append(IppUtil.toHexWithMarker(_buf.get()));
-        sb.append(" Minor Version:").append(IppUtil.toHexWithMarker(_buf.get()));
+        sb.append("Major Version:").append(IppUtil.toHexWithMarker(ctx.buf.get()));
+        sb.append(" Minor Version:").append(IppUtil.toHexWithMarker(ctx.buf.get()));
 
-        String statusCode = IppUtil.toHexWithMarker(_buf.get()) + IppUtil.toHex(_buf.get());
-        String statusMessage = getEnumName(statusCode, "status-code");
+        byte statusHigh = ctx.buf.get();
+        byte statusLow = ctx.buf.get();
+        String statusCode = IppUtil.toHexWithMarker(statusHigh) + IppUtil.toHex(statusLow);
+        String statusMessage = getEnumName(IppUtil.toShort(statusHigh, statusLow), "status-code");
 
-        sb.append(" Request Id:").append(_buf.getInt()).append("\n");
+        int requestId = ctx.buf.getInt();
+        result.setRequestId(requestId);
+        sb.append(" Request Id:").append(requestId).append("\n");
         sb.append("Status Code:").append(statusCode).append("(").append(statusMessage).append(")");
 
         if (sb.length() != 0) {
@@ -206,10 +199,10 @@ public class IppResponse {
         return null;
     }
 
-    private IppResult parseErrorText() {
+    private IppResult parseErrorText(ParseContext ctx) {
         IppResult result = new IppResult();
-        byte[] buffer = new byte[_buf.capacity() - _buf.position()];
-        _buf.get(buffer);
+        byte[] buffer = new byte[ctx.buf.remaining()];
+        ctx.buf.get(buffer);
         String errorText = new String(buffer);
         if (errorText.contains("Unauthorized")) {
             result.setIppStatusResponse("client-error-not-authorized (0x403)");
@@ -222,99 +215,99 @@ public class IppResponse {
 
     /**
      * <p>
-     * <strong>Note:</strong> Global variables <code>_attributeGroupResult</code>,
-     * <code>_attributeResult</code>, <code>_result</code> are filled by local
-     * 'tag' methods.<br />
+     * <strong>Note:</strong> The variables <code>group</code>,
+     * <code>attribute</code>, <code>groups</code> of the context are filled by
+     * local 'tag' methods.<br />
      * Decision for this programming solution is based on the structure of IPP tag
      * sequences to clarify the attribute structure with its values.
      * </p>
      *
      * @return list of attributes group
      */
-    private List<AttributeGroup> getAttributeGroupList() {
-        while (_buf.hasRemaining()) {
+    private List<AttributeGroup> getAttributeGroupList(ParseContext ctx) {
+        while (ctx.buf.hasRemaining()) {
 
-            byte tag = _buf.get();
+            byte tag = ctx.buf.get();
             switch (tag) {
                 case 0x00:
-                    setAttributeGroup(tag); // reserved
+                    setAttributeGroup(ctx, tag); // reserved
                     continue;
                 case 0x01:
-                    setAttributeGroup(tag); // operation-attributes
+                    setAttributeGroup(ctx, tag); // operation-attributes
                     continue;
                 case 0x02:
-                    setAttributeGroup(tag); // job-attributes
+                    setAttributeGroup(ctx, tag); // job-attributes
                     continue;
                 case 0x03:
-                    return _result; // end-attributes
+                    return ctx.groups; // end-attributes
                 case 0x04:
-                    setAttributeGroup(tag); // printer-attributes
+                    setAttributeGroup(ctx, tag); // printer-attributes
                     continue;
                 case 0x05:
-                    setAttributeGroup(tag); // unsupported-attributes
+                    setAttributeGroup(ctx, tag); // unsupported-attributes
                     continue;
                 case 0x06:
-                    setAttributeGroup(tag); // subscription-attributes
+                    setAttributeGroup(ctx, tag); // subscription-attributes
                     continue;
                 case 0x07:
-                    setAttributeGroup(tag); // event-notification-attributes
+                    setAttributeGroup(ctx, tag); // event-notification-attributes
                     continue;
                 case 0x13:
-                    setNoValueAttribute(); // no-value
+                    setNoValueAttribute(ctx); // no-value
                     continue;
                 case 0x21:
-                    setIntegerAttribute(tag); // integer
+                    setIntegerAttribute(ctx, tag); // integer
                     continue;
                 case 0x22:
-                    setBooleanAttribute(tag); // boolean
+                    setBooleanAttribute(ctx, tag); // boolean
                     continue;
                 case 0x23:
-                    setEnumAttribute(tag); // enumeration
+                    setEnumAttribute(ctx, tag); // enumeration
                     continue;
                 case 0x30:
-                    setTextAttribute(tag); // octetString;
+                    setTextAttribute(ctx, tag); // octetString;
                     continue;
                 case 0x31:
-                    setDateTimeAttribute(tag);// datetime
+                    setDateTimeAttribute(ctx, tag);// datetime
                     continue;
                 case 0x32:
-                    setResolutionAttribute(tag);// resolution
+                    setResolutionAttribute(ctx, tag);// resolution
                     continue;
                 case 0x33:
-                    setRangeOfIntegerAttribute(tag);// rangeOfInteger
+                    setRangeOfIntegerAttribute(ctx, tag);// rangeOfInteger
                     continue;
                 case 0x35:
-                    setTextWithLanguageAttribute(tag); // textWithLanguage
+                    setTextWithLanguageAttribute(ctx, tag); // textWithLanguage
                     continue;
                 case 0x36:
-                    setNameWithLanguageAttribute(tag); // nameWithLanguage
+                    setNameWithLanguageAttribute(ctx, tag); // nameWithLanguage
                     continue;
                 case 0x41:
-                    setTextAttribute(tag); // textWithoutLanguage
+                    setTextAttribute(ctx, tag); // textWithoutLanguage
                     continue;
                 case 0x42:
-                    setTextAttribute(tag); // nameWithoutLanguage
+                    setTextAttribute(ctx, tag); // nameWithoutLanguage
                     continue;
                 case 0x44:
-                    setTextAttribute(tag); // keyword
+                    setTextAttribute(ctx, tag); // keyword
                     continue;
                 case 0x45:
-                    setTextAttribute(tag); // uri
+                    setTextAttribute(ctx, tag); // uri
                     continue;
                 case 0x46:
-                    setTextAttribute(tag); // uriScheme
+                    setTextAttribute(ctx, tag); // uriScheme
                     continue;
                 case 0x47:
-                    setTextAttribute(tag); // charset
+                    setTextAttribute(ctx, tag); // charset
                     continue;
                 case 0x48:
-                    setTextAttribute(tag); // naturalLanguage
+                    setTextAttribute(ctx, tag); // naturalLanguage
                     continue;
                 case 0x49:
-                    setTextAttribute(tag); // mimeMediaType
+                    setTextAttribute(ctx, tag); // mimeMediaType
                     continue;
                 default:
-                    return _result; // not defined
+                    return ctx.groups; // not defined
             }
         }
         return null;
@@ -323,58 +316,54 @@ public class IppResponse {
     /**
      * @param tag
      */
-    private void setAttributeGroup(byte tag) {
-        if (_attributeGroupResult != null) {
-            if (_attributeResult != null) {
-                _attributeGroupResult.getAttributes().add(_attributeResult);
+    private void setAttributeGroup(ParseContext ctx, byte tag) {
+        if (ctx.group != null) {
+            if (ctx.attribute != null) {
+                ctx.group.getAttributes().add(ctx.attribute);
             }
-            _result.add(_attributeGroupResult);
+            ctx.groups.add(ctx.group);
         }
-        _attributeResult = null;
+        ctx.attribute = null;
 
-        _attributeGroupResult = new AttributeGroup();
-        _attributeGroupResult.setTagName(getTagName(IppUtil.toHexWithMarker(tag)));
+        ctx.group = new AttributeGroup();
+        ctx.group.setTagName(getTagName(tag));
     }
 
     /**
      *
      */
-    private void closeAttributeGroup() {
-        if (_attributeGroupResult != null) {
-            if (_attributeResult != null) {
-                _attributeGroupResult.getAttributes().add(_attributeResult);
+    private void closeAttributeGroup(ParseContext ctx) {
+        if (ctx.group != null) {
+            if (ctx.attribute != null) {
+                ctx.group.getAttributes().add(ctx.attribute);
             }
-            _result.add(_attributeGroupResult);
+            ctx.groups.add(ctx.group);
         }
-        _attributeResult = null;
-        _attributeGroupResult = null;
+        ctx.attribute = null;
+        ctx.group = null;
     }
 
     /**
      * @param tag
      */
-    private void setTextAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setTextAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
             byte[] dst = new byte[length];
-            _buf.get(dst);
+            ctx.buf.get(dst);
             String value = IppUtil.toString(dst);
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
+            AttributeValue attrValue = new AttributeValue(tag, getTagName(tag));
             attrValue.setValue(value);
-            _attributeResult.getAttributeValues().add(attrValue);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
 
     }
@@ -384,40 +373,36 @@ public class IppResponse {
      *
      * @param tag
      */
-    private void setTextWithLanguageAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setTextWithLanguageAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set natural-language and attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
 
         // set tag, tag name, natural-language
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
             byte[] dst = new byte[length];
-            _buf.get(dst);
+            ctx.buf.get(dst);
             String value = IppUtil.toString(dst);
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
+            AttributeValue attrValue = new AttributeValue(tag, getTagName(tag));
             attrValue.setValue(value);
-            _attributeResult.getAttributeValues().add(attrValue);
+            ctx.attribute.getAttributeValues().add(attrValue);
 
             // set value
-            length = _buf.getShort();
-            if ((length != 0) && (_buf.remaining() >= length)) {
+            length = ctx.buf.getShort();
+            if ((length != 0) && (ctx.buf.remaining() >= length)) {
                 dst = new byte[length];
-                _buf.get(dst);
+                ctx.buf.get(dst);
                 value = IppUtil.toString(dst);
                 attrValue = new AttributeValue();
                 attrValue.setValue(value);
-                _attributeResult.getAttributeValues().add(attrValue);
+                ctx.attribute.getAttributeValues().add(attrValue);
             }
         }
     }
@@ -427,40 +412,36 @@ public class IppResponse {
      *
      * @param tag
      */
-    private void setNameWithLanguageAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setNameWithLanguageAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set natural-language and attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
 
         // set tag, tag name, natural-language
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
             byte[] dst = new byte[length];
-            _buf.get(dst);
+            ctx.buf.get(dst);
             String value = IppUtil.toString(dst);
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
+            AttributeValue attrValue = new AttributeValue(tag, getTagName(tag));
             attrValue.setValue(value);
-            _attributeResult.getAttributeValues().add(attrValue);
+            ctx.attribute.getAttributeValues().add(attrValue);
 
             // set value
-            length = _buf.getShort();
-            if ((length != 0) && (_buf.remaining() >= length)) {
+            length = ctx.buf.getShort();
+            if ((length != 0) && (ctx.buf.remaining() >= length)) {
                 dst = new byte[length];
-                _buf.get(dst);
+                ctx.buf.get(dst);
                 value = IppUtil.toString(dst);
                 attrValue = new AttributeValue();
                 attrValue.setValue(value);
-                _attributeResult.getAttributeValues().add(attrValue);
+                ctx.attribute.getAttributeValues().add(attrValue);
             }
         }
     }
@@ -468,286 +449,197 @@ public class IppResponse {
     /**
      * @param tag
      */
-    private void setBooleanAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setBooleanAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            byte value = _buf.get();
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
-            attrValue.setValue(IppUtil.toBoolean(value));
-            _attributeResult.getAttributeValues().add(attrValue);
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            byte value = ctx.buf.get();
+            AttributeValue attrValue = new BooleanValue(tag, getTagName(tag), value != 0);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
     }
 
     /**
      * @param tag
      */
-    private void setDateTimeAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setDateTimeAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
             byte[] dst = new byte[length];
-            _buf.get(dst, 0, length);
-            String value = IppUtil.toDateTime(dst);
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
-            attrValue.setValue(value);
-            _attributeResult.getAttributeValues().add(attrValue);
+            ctx.buf.get(dst, 0, length);
+            AttributeValue attrValue = new DateTimeValue(tag, getTagName(tag), dst);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
     }
 
     /**
      * @param tag
      */
-    private void setIntegerAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setIntegerAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            int value = _buf.getInt();
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
-            attrValue.setValue(Integer.toString(value));
-            _attributeResult.getAttributeValues().add(attrValue);
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            int value = ctx.buf.getInt();
+            AttributeValue attrValue = new IntegerValue(tag, getTagName(tag), value);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
     }
 
     /**
      *
      */
-    private void setNoValueAttribute() {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setNoValueAttribute(ParseContext ctx) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
     }
 
     /**
      * @param tag
      */
-    private void setRangeOfIntegerAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setRangeOfIntegerAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            int value1 = _buf.getInt();
-            int value2 = _buf.getInt();
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
-            attrValue.setValue(value1 + "," + value2);
-            _attributeResult.getAttributeValues().add(attrValue);
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            int value1 = ctx.buf.getInt();
+            int value2 = ctx.buf.getInt();
+            AttributeValue attrValue = new RangeOfIntegerValue(tag, getTagName(tag), value1, value2);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
     }
 
     /**
      * @param tag
      */
-    private void setResolutionAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setResolutionAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            int value1 = _buf.getInt();
-            int value2 = _buf.getInt();
-            byte value3 = _buf.get();
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
-            attrValue.setValue(value1 + "," + value2 + "," + Integer.toString(value3));
-            _attributeResult.getAttributeValues().add(attrValue);
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            int value1 = ctx.buf.getInt();
+            int value2 = ctx.buf.getInt();
+            byte value3 = ctx.buf.get();
+            AttributeValue attrValue = new ResolutionValue(tag, getTagName(tag), value1, value2, value3);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
     }
 
     /**
      * @param tag
      */
-    private void setEnumAttribute(byte tag) {
-        short length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            setAttributeName(length);
+    private void setEnumAttribute(ParseContext ctx, byte tag) {
+        short length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            setAttributeName(ctx, length);
         }
 
         // set attribute value
-        if (!_buf.hasRemaining()) {
+        if (!ctx.buf.hasRemaining()) {
             return;
         }
 
-        length = _buf.getShort();
-        if ((length != 0) && (_buf.remaining() >= length)) {
-            String hex = IppUtil.toHexWithMarker(tag);
-            AttributeValue attrValue = new AttributeValue();
-            attrValue.setTag(hex);
-            String tagName = getTagName(hex);
-            attrValue.setTagName(tagName);
-
-            int value = _buf.getInt();
-            if (_attributeResult != null) {
-                String enumName = getEnumName(value, _attributeResult.getName());
-                attrValue.setValue(enumName);
+        length = ctx.buf.getShort();
+        if ((length != 0) && (ctx.buf.remaining() >= length)) {
+            int value = ctx.buf.getInt();
+            String enumName;
+            if (ctx.attribute != null) {
+                enumName = getEnumName(value, ctx.attribute.getName());
             } else {
-                _attributeResult = new Attribute();
-                _attributeResult.setName("no attribute name given:");
-                attrValue.setValue(Integer.toString(value));
+                ctx.attribute = new Attribute();
+                ctx.attribute.setName("no attribute name given:");
+                enumName = Integer.toString(value);
             }
+            AttributeValue attrValue = new EnumValue(tag, getTagName(tag), value, enumName);
 
-            _attributeResult.getAttributeValues().add(attrValue);
+            ctx.attribute.getAttributeValues().add(attrValue);
         }
     }
 
     /**
      * @param length
      */
-    private void setAttributeName(short length) {
-        if ((length == 0) || (_buf.remaining() < length)) {
+    private void setAttributeName(ParseContext ctx, short length) {
+        if ((length == 0) || (ctx.buf.remaining() < length)) {
             return;
         }
         byte[] dst = new byte[length];
-        _buf.get(dst);
+        ctx.buf.get(dst);
         String name = IppUtil.toString(dst);
-        if (_attributeResult != null) {
-            _attributeGroupResult.getAttributes().add(_attributeResult);
+        if (ctx.attribute != null) {
+            ctx.group.getAttributes().add(ctx.attribute);
         }
-        _attributeResult = new Attribute();
-        _attributeResult.setName(name);
+        ctx.attribute = new Attribute();
+        ctx.attribute.setName(name);
     }
 
     /**
      * @param tag
      * @return
      */
-    private String getTagName(String tag) {
-        if (tag == null) {
-            log.error("IppResponse.getTagName(): no tag given");
-            return null;
-        }
-        for (Tag value : _tagList) {
-            if (tag.equals(value.getValue())) {
-                return value.getName();
-            }
-        }
-        return "no name found for tag:" + tag;
+    private String getTagName(byte tag) {
+        return _ippAttributeProvider.getTagName(tag);
     }
 
     /**
      * @param value
-     * @param nameOfAttribute
      * @return
+     * @nameOfAttribute
      */
-    private String getEnumName(String value, String nameOfAttribute) {
-        if (value == null) {
-            log.error("IppResponse.getEnumName(String,String): value is null");
-            return null;
-        }
-        if (nameOfAttribute == null) {
-            log.error("IppResponse.getEnumName(String,String): nameOfAttribute is null");
-            return null;
-        }
-
-        int enumValue;
-        if (value.contains("0x")) {
-            value = value.replace("0x", "");
-            enumValue = Integer.parseInt(value, 16);
-        } else {
-            enumValue = Integer.parseInt(value, 10);
-        }
-        return getEnumName(enumValue, nameOfAttribute);
+    private String getEnumName(int value, String nameOfAttribute) {
+        return _ippAttributeProvider.getEnumName(value, nameOfAttribute);
     }
 
     /**
-     * @param value
-     * @return
-     * @nameOfAttribute
+     * Parse state of a single {@link #getResponse(ByteBuffer)} call.
      */
-    private String getEnumName(int value, String nameOfAttribute) {
-        if (nameOfAttribute == null) {
-            log.error("IppResponse.getEnumName(int,String): nameOfAttribute is null");
-            return null;
-        }
-        for (AttributeGroup attributeGroup : _attributeGroupList) {
-            List<Attribute> attributeList = attributeGroup.getAttributes();
-            for (Attribute attribute : attributeList) {
-                String attributeName = attribute.getName();
-                if ((attributeName != null) && (attributeName.equals(nameOfAttribute))) {
-                    List<AttributeValue> attributeValueList = attribute.getAttributeValues();
-                    for (AttributeValue attributeValue : attributeValueList) {
-                        if (attributeValue.getSetOfEnum() != null) {
-                            SetOfEnum setOfEnum = attributeValue.getSetOfEnum();
-                            Set<Enum> enumList = setOfEnum.getEnums();
-                            for (org.cups4j.ipp.attributes.Enum enumEntry : enumList) {
-                                String enumValueString = enumEntry.getValue();
-                                int enumValue;
-                                // some IPP enumerations are in hex, other decimal
-                                // see http://www.iana.org/assignments/ipp-registrations for
-                                // reference
-                                if (enumValueString.contains("0x")) {
-                                    enumValueString = enumValueString.replace("0x", "");
-                                    enumValue = Integer.parseInt(enumValueString, 16);
-                                } else {
-                                    enumValue = Integer.parseInt(enumValueString, 10);
-                                }
-                                if (value == enumValue) {
-                                    return enumEntry.getName();
-                                }
-                            }
-                        } else {
-                            log.error("IPPResponse.getEnumName(): " + "set-of-enum is null for attribute " + attributeName
-                                    + ". Please control " + "the enumeration list in the XML file");
-                            return null;
-                        }
-                    }
-                }
-            }
-        }
-        return "enum name not found in IANA list: " + value;
+    private static final class ParseContext {
+
+        private final List<AttributeGroup> groups = new ArrayList<>();
+        // buffer the response is read from
+        private ByteBuffer buf;
+        // group and attribute which are currently filled
+        private AttributeGroup group = null;
+        private Attribute attribute = null;
+
     }
+
 }
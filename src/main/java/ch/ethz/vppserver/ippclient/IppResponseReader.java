@@ -0,0 +1,308 @@
+package ch.ethz.vppserver.ippclient;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cups4j.ipp.attributes.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull parser for IPP responses.
+ * <p>
+ * In contrast to {@link IppResponse} the response is not buffered completely.
+ * It is decoded tag by tag from the given stream through a small window which
+ * is reused for every value. The caller asks for one attribute group after the
+ * other with {@link #nextAttributeGroup()} and can drop each group as soon as
+ * it is processed.
+ * </p>
+ * <p>
+ * Usage:
+ * </p>
+ * <pre>
+ * try (IppResponseReader reader = new IppResponseReader(stream)) {
+ *     IppResult result = reader.readHeader();
+ *     for (AttributeGroup group = reader.nextAttributeGroup(); group != null; group = reader.nextAttributeGroup()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+@Slf4j
+public class IppResponseReader implements Closeable {
+
+    private static final int WINDOW_CAPACITY = 8192;
+    // tags up to 0x0f are delimiter tags (RFC 8010, 3.5.1)
+    private static final int MAX_DELIMITER_TAG = 0x0f;
+    private static final int END_OF_ATTRIBUTES_TAG = 0x03;
+    private static final int MAX_OUT_OF_BAND_TAG = 0x1f;
+    private static final int NO_GROUP_TAG = -1;
+
+    private final InputStream in;
+    private final IIppAttributeProvider ippAttributeProvider;
+    private byte[] window = new byte[WINDOW_CAPACITY];
+    private int position = 0;
+    private int limit = 0;
+    // delimiter tag of the next group, read while finishing the previous one
+    private int pendingGroupTag = NO_GROUP_TAG;
+    private boolean finished = false;
+
+    public IppResponseReader(InputStream in) {
+        this.in = in;
+        this.ippAttributeProvider = IppAttributeProviderFactory.createIppAttributeProvider();
+    }
+
+    /**
+     * Reads the IPP header (version, status code and request id). It must be
+     * called once before the attribute groups are read.
+     *
+     * @return result with the IPP status response but without attribute groups
+     * @throws IOException in case of read errors
+     */
+    public IppResult readHeader() throws IOException {
+        IppResult result = new IppResult();
+        if (!fill(1)) {
+            finished = true;
+            return result;
+        }
+        if (window[position] > 0x20) {
+            result.setIppStatusResponse(readErrorText());
+            finished = true;
+            return result;
+        }
+
+        require(8);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Major Version:").append(IppUtil.toHexWithMarker(readByte()));
+        sb.append(" Minor Version:").append(IppUtil.toHexWithMarker(readByte()));
+
+        byte statusHigh = readByte();
+        byte statusLow = readByte();
+        String statusCode = IppUtil.toHexWithMarker(statusHigh) + IppUtil.toHex(statusLow);
+        String statusMessage = ippAttributeProvider.getEnumName(IppUtil.toShort(statusHigh, statusLow), "status-code");
+
+        int requestId = readInt();
+        result.setRequestId(requestId);
+        sb.append(" Request Id:").append(requestId).append("\n");
+        sb.append("Status Code:").append(statusCode).append("(").append(statusMessage).append(")");
+        result.setIppStatusResponse(sb.toString());
+        return result;
+    }
+
+    /**
+     * Reads the next attribute group of the response.
+     *
+     * @return the next attribute group or null if the end of the attributes is reached
+     * @throws IOException in case of read errors
+     */
+    public AttributeGroup nextAttributeGroup() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int groupTag = (pendingGroupTag == NO_GROUP_TAG) ? nextTag() : pendingGroupTag;
+        pendingGroupTag = NO_GROUP_TAG;
+        if ((groupTag == NO_GROUP_TAG) || (groupTag == END_OF_ATTRIBUTES_TAG)) {
+            finished = true;
+            return null;
+        }
+        if (groupTag > MAX_DELIMITER_TAG) {
+            log.error("IppResponseReader.nextAttributeGroup(): value tag {} outside of an attribute group",
+                    IppUtil.toHexWithMarker((byte) groupTag));
+            finished = true;
+            return null;
+        }
+
+        AttributeGroup group = new AttributeGroup();
+        group.setTagName(getTagName(groupTag));
+        Attribute attribute = null;
+        while (true) {
+            int tag = nextTag();
+            if (tag == NO_GROUP_TAG) {
+                finished = true;
+                break;
+            }
+            if (tag <= MAX_DELIMITER_TAG) {
+                if (tag == END_OF_ATTRIBUTES_TAG) {
+                    finished = true;
+                } else {
+                    pendingGroupTag = tag;
+                }
+                break;
+            }
+
+            // an empty name marks an additional value of the previous attribute
+            int nameLength = readLength();
+            if (nameLength > 0) {
+                attribute = new Attribute();
+                attribute.setName(readString(nameLength));
+                group.getAttributes().add(attribute);
+            }
+            int valueLength = readLength();
+            require(valueLength);
+            if (attribute != null) {
+                readValue((byte) tag, valueLength, attribute);
+            }
+            position += valueLength;
+        }
+        return group;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Decodes the value at the current window position. The position itself is
+     * not moved.
+     */
+    private void readValue(byte tag, int length, Attribute attribute) {
+        if ((length == 0) || (tag <= MAX_OUT_OF_BAND_TAG)) {
+            // out-of-band values like 'no-value' or 'unknown' have no content
+            return;
+        }
+        String tagName = ippAttributeProvider.getTagName(tag);
+        AttributeValue attrValue;
+        switch (tag) {
+            case 0x21: // integer
+                attrValue = new IntegerValue(tag, tagName, getInt(position));
+                break;
+            case 0x22: // boolean
+                attrValue = new BooleanValue(tag, tagName, window[position] != 0);
+                break;
+            case 0x23: // enumeration
+                int enumValue = getInt(position);
+                attrValue = new EnumValue(tag, tagName, enumValue,
+                        ippAttributeProvider.getEnumName(enumValue, attribute.getName()));
+                break;
+            case 0x31: // dateTime
+                byte[] dst = new byte[length];
+                System.arraycopy(window, position, dst, 0, length);
+                attrValue = new DateTimeValue(tag, tagName, dst);
+                break;
+            case 0x32: // resolution
+                attrValue = new ResolutionValue(tag, tagName, getInt(position), getInt(position + 4), window[position + 8]);
+                break;
+            case 0x33: // rangeOfInteger
+                attrValue = new RangeOfIntegerValue(tag, tagName, getInt(position), getInt(position + 4));
+                break;
+            case 0x35: // textWithLanguage
+            case 0x36: // nameWithLanguage
+                // natural-language is not considered in reporting
+                int languageLength = getLength(position);
+                int textLength = getLength(position + 2 + languageLength);
+                attrValue = new AttributeValue(tag, tagName);
+                attrValue.setValue(getString(position + 4 + languageLength, textLength));
+                break;
+            default: // octetString, text, name, keyword, uri, ...
+                attrValue = new AttributeValue(tag, tagName);
+                attrValue.setValue(getString(position, length));
+                break;
+        }
+        attribute.getAttributeValues().add(attrValue);
+    }
+
+    private String getTagName(int tag) {
+        return ippAttributeProvider.getTagName((byte) tag);
+    }
+
+    private String readErrorText() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (fill(1)) {
+            sb.append(getString(position, limit - position));
+            position = limit;
+        }
+        String errorText = sb.toString();
+        log.warn(errorText);
+        if (errorText.contains("Unauthorized")) {
+            return "client-error-not-authorized (0x403)";
+        } else {
+            return "unknown";
+        }
+    }
+
+    private int nextTag() throws IOException {
+        if (!fill(1)) {
+            return NO_GROUP_TAG;
+        }
+        return readByte() & 0xff;
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+        return window[position++];
+    }
+
+    private int readLength() throws IOException {
+        require(2);
+        int length = getLength(position);
+        position += 2;
+        return length;
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+        int value = getInt(position);
+        position += 4;
+        return value;
+    }
+
+    private String readString(int length) throws IOException {
+        require(length);
+        String value = getString(position, length);
+        position += length;
+        return value;
+    }
+
+    private int getLength(int offset) {
+        return ((window[offset] & 0xff) << 8) | (window[offset + 1] & 0xff);
+    }
+
+    private int getInt(int offset) {
+        return ((window[offset] & 0xff) << 24) | ((window[offset + 1] & 0xff) << 16)
+                | ((window[offset + 2] & 0xff) << 8) | (window[offset + 3] & 0xff);
+    }
+
+    private String getString(int offset, int length) {
+        // same byte to char mapping as IppUtil.toString(byte[])
+        return new String(window, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private void require(int n) throws IOException {
+        if (!fill(n)) {
+            throw new EOFException("unexpected end of IPP response (" + n + " bytes expected)");
+        }
+    }
+
+    /**
+     * Makes sure that at least n bytes are available in the window.
+     *
+     * @param n number of bytes
+     * @return false if the stream ends before
+     */
+    private boolean fill(int n) throws IOException {
+        if (limit - position >= n) {
+            return true;
+        }
+        if (n > window.length) {
+            byte[] larger = new byte[Math.max(n, 2 * window.length)];
+            System.arraycopy(window, position, larger, 0, limit - position);
+            window = larger;
+        } else {
+            System.arraycopy(window, position, window, 0, limit - position);
+        }
+        limit -= position;
+        position = 0;
+        while (limit < n) {
+            int count = in.read(window, limit, window.length - limit);
+            if (count < 0) {
+                return false;
+            }
+            limit += count;
+        }
+        return true;
+    }
+
+}
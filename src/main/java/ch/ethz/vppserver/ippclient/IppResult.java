@@ -31,6 +31,7 @@ public class IppResult {
     private String ippStatusResponse = null;
     private List<AttributeGroup> attributeGroupList = new ArrayList<>();
     private int httpStatusCode;
+    private int requestId;
 
     public AttributeGroup getAttributeGroup(String tagName) {
         for (AttributeGroup group : attributeGroupList) {
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Copyright (C) 2008 ITS of ETH Zurich, Switzerland, Sarah Windler Burri
@@ -62,7 +63,11 @@ public class IppTag {
 
     private final static short NULL_LENGTH = 0;
 
-    private static int requestID = 0; // required attribute within operations (will increase with every request)
+    // enough for the tag, the length fields and the largest fixed-size value
+    private final static int MIN_FREE_CAPACITY = 16;
+
+    // fallback for callers without own request ids (will increase with every request)
+    private static final AtomicInteger requestID = new AtomicInteger();
 
     /**
      * @param ippBuf
@@ -74,6 +79,18 @@ public class IppTag {
         return getOperation(ippBuf, operation, null, null);
     }
 
+    /**
+     * @param ippBuf
+     * @param operation
+     * @param requestId request id of the operation
+     * @return
+     * @throws UnsupportedEncodingException
+     */
+    public static ByteBuffer getOperation(ByteBuffer ippBuf, short operation, int requestId)
+            throws UnsupportedEncodingException {
+        return getOperation(ippBuf, operation, null, null, requestId);
+    }
+
     /**
      * @param ippBuf
      * @param operation
@@ -84,10 +101,26 @@ public class IppTag {
      */
     public static ByteBuffer getOperation(ByteBuffer ippBuf, short operation, String charset, String naturalLanguage)
             throws UnsupportedEncodingException {
+        int requestId = requestID.updateAndGet(id -> (id == Integer.MAX_VALUE) ? 1 : id + 1);
+        return getOperation(ippBuf, operation, charset, naturalLanguage, requestId);
+    }
+
+    /**
+     * @param ippBuf
+     * @param operation
+     * @param charset
+     * @param naturalLanguage
+     * @param requestId       request id of the operation
+     * @return
+     * @throws UnsupportedEncodingException
+     */
+    public static ByteBuffer getOperation(ByteBuffer ippBuf, short operation, String charset, String naturalLanguage,
+                                          int requestId) throws UnsupportedEncodingException {
         if (ippBuf == null) {
             log.error("IppTag.getOperation(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         if (charset == null) {
             charset = ATTRIBUTES_CHARSET_VALUE;
         }
@@ -97,7 +130,7 @@ public class IppTag {
         ippBuf.put(MAJOR_VERSION);
         ippBuf.put(MINOR_VERSION);
         ippBuf.putShort(operation);
-        ippBuf.putInt(++requestID);
+        ippBuf.putInt(requestId);
         ippBuf.put(OPERATION_ATTRIBUTES_TAG);
 
         ippBuf = getCharset(ippBuf, ATTRIBUTES_CHARSET, charset);
@@ -114,6 +147,7 @@ public class IppTag {
             log.error("IppTag.getOperationAttributesTag(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(OPERATION_ATTRIBUTES_TAG);
         return ippBuf;
     }
@@ -127,6 +161,7 @@ public class IppTag {
             log.error("IppTag.getJobAttributesTag(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(JOB_ATTRIBUTES_TAG);
         return ippBuf;
     }
@@ -140,6 +175,7 @@ public class IppTag {
             log.error("IppTag.getSubscriptionAttributesTag(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(SUBSCRIPTION_ATTRIBUTES_TAG);
         return ippBuf;
     }
@@ -153,6 +189,7 @@ public class IppTag {
             log.error("IppTag.getEventNotificationAttributesTag(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(EVENT_NOTIFICATION_ATTRIBUTES_TAG);
         return ippBuf;
     }
@@ -166,6 +203,7 @@ public class IppTag {
             log.error("IppTag.getUnsupportedAttributesTag(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(UNSUPPORTED_ATTRIBUTES_TAG);
         return ippBuf;
     }
@@ -179,6 +217,7 @@ public class IppTag {
             log.error("IppTag.getPrinterAttributesTag(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(PRINTER_ATTRIBUTES_TAG);
         return ippBuf;
     }
@@ -321,17 +360,18 @@ public class IppTag {
             log.error("IppTag.getNameWithoutLanguage(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(NAME_WITHOUT_LANGUAGE_TAG);
 
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
 
         if (value != null) {
-            putAttName(ippBuf, value);
+            ippBuf = putAttName(ippBuf, value);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -351,17 +391,18 @@ public class IppTag {
             log.error("IppTag.getTextWithoutLanguage(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(TEXT_WITHOUT_LANGUAGE_TAG);
 
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
 
         if (value != null) {
-            putAttName(ippBuf, value);
+            ippBuf = putAttName(ippBuf, value);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -388,10 +429,11 @@ public class IppTag {
             log.error("IppTag.getInteger(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(INTEGER_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -414,10 +456,11 @@ public class IppTag {
             log.error("IppTag.getInteger(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(INTEGER_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -447,10 +490,11 @@ public class IppTag {
             log.error("IppTag.getBoolean(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(BOOLEAN_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -472,10 +516,11 @@ public class IppTag {
             log.error("IppTag.getBoolean(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(BOOLEAN_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -509,10 +554,11 @@ public class IppTag {
             log.error("IppTag.getEnum(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(ENUM_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -533,10 +579,11 @@ public class IppTag {
             log.error("IppTag.getEnum(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(ENUM_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -565,10 +612,11 @@ public class IppTag {
             log.error("IppTag.getResolution(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(RESOLUTION_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -591,10 +639,11 @@ public class IppTag {
             log.error("IppTag.getResolution(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(RESOLUTION_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -626,10 +675,11 @@ public class IppTag {
             log.error("IppTag.getRangeOfInteger(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(RANGE_OF_INTEGER_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -651,10 +701,11 @@ public class IppTag {
             log.error("IppTag.getRangeOfInteger(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(RANGE_OF_INTEGER_TAG);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -735,14 +786,37 @@ public class IppTag {
             log.error("IppTag.getEnd(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
         ippBuf.put(END_OF_ATTRIBUTES_TAG);
         return ippBuf;
     }
 
-    private static void putAttName(ByteBuffer ippBuf, String attributeName) throws UnsupportedEncodingException {
+    private static ByteBuffer putAttName(ByteBuffer ippBuf, String attributeName) throws UnsupportedEncodingException {
         byte[] bytes = IppUtil.toBytes(attributeName);
+        ippBuf = ensureCapacity(ippBuf, 2 + bytes.length + MIN_FREE_CAPACITY);
         ippBuf.putShort((short) bytes.length);
         ippBuf.put(bytes);
+        return ippBuf;
+    }
+
+    /**
+     * Makes sure that the buffer has at least the given number of bytes
+     * remaining. Otherwise the written bytes are moved to a larger heap
+     * buffer.
+     *
+     * @param ippBuf    buffer in write mode
+     * @param remaining number of bytes to be written
+     * @return the given buffer or a larger copy of it
+     */
+    public static ByteBuffer ensureCapacity(ByteBuffer ippBuf, int remaining) {
+        if (ippBuf.remaining() >= remaining) {
+            return ippBuf;
+        }
+        int capacity = Math.max(2 * ippBuf.capacity(), ippBuf.position() + remaining);
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        ippBuf.flip();
+        larger.put(ippBuf);
+        return larger;
     }
 
     /**
@@ -759,16 +833,17 @@ public class IppTag {
             log.error("IppTag.getUsAscii(): ippBuf is null");
             return null;
         }
+        ippBuf = ensureCapacity(ippBuf, MIN_FREE_CAPACITY);
 
         ippBuf.put(tag);
         if (attributeName != null) {
-            putAttName(ippBuf, attributeName);
+            ippBuf = putAttName(ippBuf, attributeName);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
 
         if (value != null) {
-            putAttName(ippBuf, value);
+            ippBuf = putAttName(ippBuf, value);
         } else {
             ippBuf.putShort(NULL_LENGTH);
         }
@@ -177,7 +177,7 @@ public class IppUtil {
      * @param dst byte array
      * @return String representation of dateTime
      */
-    static String toDateTime(byte[] dst) {
+    static public String toDateTime(byte[] dst) {
         StringBuilder sb = new StringBuilder();
         short year = toShort(dst[0], dst[1]);
         sb.append(year).append("-");
@@ -0,0 +1,24 @@
+package org.cups4j;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Compression of the document of a print job (IPP attribute compression).
+ * The document is compressed on the fly while it is sent.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CompressionEnum {
+    NONE("none"),
+    /**
+     * RFC 1952
+     */
+    GZIP("gzip"),
+    /**
+     * RFC 1951
+     */
+    DEFLATE("deflate");
+
+    private final String value;
+}
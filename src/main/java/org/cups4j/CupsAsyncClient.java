@@ -0,0 +1,254 @@
+package org.cups4j;
+
+import org.cups4j.operations.IppAsyncTransport;
+import org.cups4j.operations.IppOperation;
+import org.cups4j.operations.IppTransportConfig;
+import org.cups4j.operations.RequestIdGenerator;
+import org.cups4j.operations.cups.CupsGetPrintersOperation;
+import org.cups4j.operations.cups.CupsMoveJobOperation;
+import org.cups4j.operations.ipp.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
+
+/**
+ * Non-blocking counterpart of {@link CupsClient}. All methods return
+ * immediately with a {@link CompletableFuture}; the requests are sent on the
+ * httpclient5 async engine and the responses are decoded on completion. So
+ * many CUPS queues can be queried in parallel without a thread per request.
+ * <p>
+ * The client owns its connection pool and I/O reactor and must be closed
+ * after use:
+ * </p>
+ * <pre>
+ * try (CupsAsyncClient client = CupsAsyncClient.builder().host("printserver").build()) {
+ *     client.getPrinters().thenAccept(printers -&gt; ...);
+ * }
+ * </pre>
+ * <p>
+ * The futures are completed by the I/O reactor threads. Don't block within
+ * the dependent stages; use the async variants of {@link CompletableFuture}
+ * for expensive follow-up work.
+ * </p>
+ */
+public class CupsAsyncClient implements Closeable {
+
+    private final String host;
+    private final int port;
+    private final CupsAuthentication creds;
+    private String user = CupsClient.DEFAULT_USER;
+    // request ids are unique per client
+    private final RequestIdGenerator requestIdGenerator = new RequestIdGenerator();
+    private final IppAsyncTransport transport;
+
+    private CupsAsyncClient(String host, int port, String userName, CupsAuthentication creds,
+                            IppTransportConfig transportConfig) throws Exception {
+        this.creds = creds;
+        if (isEmpty(host)) {
+            throw new Exception("The hostname specified: <" + host + "> is not valid");
+        } else {
+            this.host = host;
+        }
+
+        if (port > 0) {
+            this.port = port;
+        } else {
+            throw new Exception("The specified port number: <" + port + "> is not valid");
+        }
+
+        if (isNotEmpty(userName)) {
+            this.user = userName;
+        }
+        this.transport = new IppAsyncTransport(transportConfig);
+    }
+
+    /**
+     * @return builder for a CupsAsyncClient
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static <T> CompletableFuture<T> submit(Callable<CompletableFuture<T>> request) {
+        try {
+            return request.call();
+        } catch (Exception ex) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+
+    /**
+     * Returns all available printers
+     *
+     * @return future of the list of printers
+     */
+    public CompletableFuture<List<CupsPrinter>> getPrinters() {
+        return submit(() -> prepare(new CupsGetPrintersOperation(port)).getPrintersAsync(host, port, creds));
+    }
+
+    /**
+     * Prints the given job on the given printer.
+     *
+     * @param printer  target printer
+     * @param printJob print job
+     * @return future of the print request result
+     */
+    public CompletableFuture<PrintRequestResult> print(CupsPrinter printer, PrintJob printJob) {
+        return submit(() -> printer.printAsync(printJob, transport));
+    }
+
+    /**
+     * Returns job attributes for the job associated with the provided jobID
+     *
+     * @param jobID
+     * @return future of the job attributes
+     */
+    public CompletableFuture<PrintJobAttributes> getJobAttributes(int jobID) {
+        return getJobAttributes(user, jobID);
+    }
+
+    /**
+     * Returns job attributes for the job associated with the provided jobID and username.
+     *
+     * @param userName
+     * @param jobID
+     * @return future of the job attributes
+     */
+    public CompletableFuture<PrintJobAttributes> getJobAttributes(String userName, int jobID) {
+        String requestingUser = isEmpty(userName) ? CupsClient.DEFAULT_USER : userName;
+        return submit(() -> prepare(new IppGetJobAttributesOperation(port))
+                .getPrintJobAttributesAsync(host, requestingUser, jobID, creds));
+    }
+
+    /**
+     * Returns the jobs for given printer and username
+     *
+     * @param printer
+     * @param whichJobs completed, not completed or all
+     * @param userName
+     * @param myJobs    only jobs for requesting user or all jobs for this printer?
+     * @return future of the list of job attributes
+     */
+    public CompletableFuture<List<PrintJobAttributes>> getJobs(CupsPrinter printer, WhichJobsEnum whichJobs,
+                                                               String userName, boolean myJobs) {
+        return submit(() -> prepare(new IppGetJobsOperation(port))
+                .getPrintJobsAsync(printer, whichJobs, userName, myJobs, creds));
+    }
+
+    /**
+     * Cancel the job with the provided jobID on the current host with current user
+     *
+     * @param printer
+     * @param jobID
+     * @return future of the success
+     */
+    public CompletableFuture<Boolean> cancelJob(CupsPrinter printer, int jobID) {
+        return submit(() -> prepare(new IppCancelJobOperation(port)).cancelJobAsync(host, user, jobID, printer, creds));
+    }
+
+    /**
+     * Hold the job with the provided jobID on the current host with current user
+     *
+     * @param printer
+     * @param jobID
+     * @return future of the success
+     */
+    public CompletableFuture<Boolean> holdJob(CupsPrinter printer, int jobID) {
+        return submit(() -> prepare(new IppHoldJobOperation(port)).holdJobAsync(host, user, jobID, printer, creds));
+    }
+
+    /**
+     * Release the held job with the provided jobID on the current host with
+     * current user
+     *
+     * @param printer
+     * @param jobID
+     * @return future of the success
+     */
+    public CompletableFuture<Boolean> releaseJob(CupsPrinter printer, int jobID) {
+        return submit(() -> prepare(new IppReleaseJobOperation(port)).releaseJobAsync(host, user, jobID, printer, creds));
+    }
+
+    /**
+     * Moves the print job with job ID jobID from currentPrinter to targetPrinter
+     *
+     * @param jobID
+     * @param userName
+     * @param currentPrinter
+     * @param targetPrinter
+     * @return future of the success
+     */
+    public CompletableFuture<Boolean> moveJob(int jobID, String userName, CupsPrinter currentPrinter,
+                                              CupsPrinter targetPrinter) {
+        return submit(() -> prepare(new CupsMoveJobOperation(port)).moveJobAsync(currentPrinter,
+                currentPrinter.getPrinterURL().getHost(), userName, jobID, targetPrinter.getPrinterURL(), creds));
+    }
+
+    private <T extends IppOperation> T prepare(T operation) {
+        operation.setRequestIdGenerator(requestIdGenerator);
+        operation.setAsyncTransport(transport);
+        return operation;
+    }
+
+    /**
+     * Closes the connection pool and the I/O reactor of this client.
+     *
+     * @throws IOException in case of errors
+     */
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+
+    /**
+     * Builder for a {@link CupsAsyncClient}. Without transport configuration
+     * the defaults of {@link IppTransportConfig} are used.
+     */
+    public static class Builder {
+
+        private String host = CupsClient.DEFAULT_HOST;
+        private int port = CupsClient.DEFAULT_PORT;
+        private String userName = CupsClient.DEFAULT_USER;
+        private CupsAuthentication creds = null;
+        private IppTransportConfig transportConfig = IppTransportConfig.builder().build();
+
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder userName(String userName) {
+            this.userName = userName;
+            return this;
+        }
+
+        public Builder creds(CupsAuthentication creds) {
+            this.creds = creds;
+            return this;
+        }
+
+        public Builder transportConfig(IppTransportConfig transportConfig) {
+            this.transportConfig = transportConfig;
+            return this;
+        }
+
+        public CupsAsyncClient build() throws Exception {
+            return new CupsAsyncClient(host, port, userName, creds, transportConfig);
+        }
+
+    }
+
+}
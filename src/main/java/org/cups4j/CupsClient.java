@@ -1,12 +1,25 @@
 package org.cups4j;
 
+import org.apache.hc.core5.util.TimeValue;
+import org.cups4j.notification.NotificationEventEnum;
+import org.cups4j.notification.NotificationPoller;
+import org.cups4j.notification.NotificationReceiver;
+import org.cups4j.notification.NotificationResult;
+import org.cups4j.operations.IppOperation;
+import org.cups4j.operations.IppTransport;
+import org.cups4j.operations.IppTransportConfig;
+import org.cups4j.operations.RequestIdGenerator;
 import org.cups4j.operations.cups.CupsGetDefaultOperation;
 import org.cups4j.operations.cups.CupsGetPrintersOperation;
 import org.cups4j.operations.cups.CupsMoveJobOperation;
 import org.cups4j.operations.ipp.*;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Stream;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -25,8 +38,20 @@ import static org.apache.commons.lang.StringUtils.isNotEmpty;
  * <p>
  * - ...
  * </p>
+ * <p>
+ * A client created with {@link #builder()} and a transport configuration
+ * gets its own connection pool and should be closed after use:
+ * </p>
+ * <pre>
+ * try (CupsClient client = CupsClient.builder()
+ *         .host("printserver")
+ *         .transportConfig(IppTransportConfig.builder().maxConnectionsPerRoute(50).build())
+ *         .build()) {
+ *     ...
+ * }
+ * </pre>
  */
-public class CupsClient {
+public class CupsClient implements Closeable {
     public static final String DEFAULT_HOST = "localhost";
     public static final int DEFAULT_PORT = 631;
     public static final String DEFAULT_USER = System.getProperty("user.name", "anonymous");
@@ -35,6 +60,12 @@ public class CupsClient {
     private final int port;
     private final CupsAuthentication creds;
     private String user = null;
+    // request ids are unique per client
+    private final RequestIdGenerator requestIdGenerator = new RequestIdGenerator();
+    // own connection pool, null for the shared client of IppHttp
+    private final IppTransport transport;
+    // cached printers, null if getPrinter(..) should always ask the server
+    private final PrinterRegistry printerRegistry;
 
     /**
      * Creates a CupsClient for localhost port 631 with user anonymous
@@ -77,6 +108,12 @@ public class CupsClient {
      * @throws Exception
      */
     public CupsClient(String host, int port, String userName, CupsAuthentication creds) throws Exception {
+        this(host, port, userName, creds, null, null, null);
+    }
+
+    private CupsClient(String host, int port, String userName, CupsAuthentication creds,
+                       IppTransportConfig transportConfig, TimeValue printerCacheTtl,
+                       TimeValue printerRefreshInterval) throws Exception {
         this.creds = creds;
         if (isEmpty(host)) {
             throw new Exception("The hostname specified: <" + host + "> is not valid");
@@ -93,6 +130,16 @@ public class CupsClient {
         if (isNotEmpty(userName)) {
             this.user = userName;
         }
+        this.transport = (transportConfig == null) ? null : new IppTransport(transportConfig);
+        this.printerRegistry = (printerCacheTtl == null) ? null
+                : new PrinterRegistry(this::getPrinters, printerCacheTtl, printerRefreshInterval);
+    }
+
+    /**
+     * @return builder for a CupsClient
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -102,7 +149,20 @@ public class CupsClient {
      * @throws Exception
      */
     public List<CupsPrinter> getPrinters() throws Exception {
-        return new CupsGetPrintersOperation(port).getPrinters(host, port, creds);
+        return prepare(new CupsGetPrintersOperation(port)).getPrinters(host, port, creds);
+    }
+
+    /**
+     * Returns all available printers with the given fields only, e.g.
+     * {@code EnumSet.of(PrinterFieldEnum.STATE)} for a lightweight status
+     * check. Name and URL are always populated.
+     *
+     * @param fields projection
+     * @return List of Printers
+     * @throws Exception
+     */
+    public List<CupsPrinter> getPrinters(Set<PrinterFieldEnum> fields) throws Exception {
+        return prepare(new CupsGetPrintersOperation(port)).getPrinters(host, port, creds, fields);
     }
 
     /**
@@ -112,10 +172,35 @@ public class CupsClient {
      * @throws Exception
      */
     public List<CupsPrinter> getPrintersWithoutDefault() throws Exception {
-        CupsGetPrintersOperation cgp = new CupsGetPrintersOperation();
+        CupsGetPrintersOperation cgp = prepare(new CupsGetPrintersOperation());
         return cgp.getPrinters(host, port, creds);
     }
 
+    /**
+     * Returns the printer with the provided name and the given fields only.
+     *
+     * @param printerName the printer name
+     * @param fields      projection
+     * @return printer or null if there is no printer with that name
+     * @throws Exception
+     */
+    public CupsPrinter getPrinter(String printerName, Set<PrinterFieldEnum> fields) throws Exception {
+        return prepare(new IppGetPrinterAttributesOperation(port)).getPrinter(host, port, printerName, user, creds,
+                fields);
+    }
+
+    /**
+     * Streams the printers matching the given query. The printers are
+     * requested lazily in pages, so also servers with thousands of queues
+     * can be enumerated with little memory.
+     *
+     * @param query filter and paging, e.g. {@link PrinterQuery#localQueues()}
+     * @return stream of printers sorted by name
+     */
+    public Stream<CupsPrinter> streamPrinters(PrinterQuery query) {
+        return prepare(new CupsGetPrintersOperation(port)).streamPrinters(host, port, creds, query);
+    }
+
     /**
      * Returns the printer for the provided URL
      *
@@ -124,6 +209,9 @@ public class CupsClient {
      * @throws Exception
      */
     public CupsPrinter getPrinter(URL printerURL) throws Exception {
+        if (printerRegistry != null) {
+            return printerRegistry.getPrinter(printerURL);
+        }
         for (CupsPrinter printer : getPrinters()) {
             if (printer.getPrinterURL().toString().equals(printerURL.toString()))
                 return printer;
@@ -139,6 +227,9 @@ public class CupsClient {
      * @throws Exception
      */
     public CupsPrinter getPrinter(String printerName) throws Exception {
+        if (printerRegistry != null) {
+            return printerRegistry.getPrinter(printerName);
+        }
         for (CupsPrinter printer : getPrinters()) {
             if (printer.getName().equals(printerName))
                 return printer;
@@ -146,6 +237,35 @@ public class CupsClient {
         return null;
     }
 
+    /**
+     * Returns the printer with the provided name. Only this printer is
+     * requested from the server (Get-Printer-Attributes), so the cost does not
+     * depend on the number of queues on the server.
+     *
+     * @param printerName         the printer name
+     * @param requestedAttributes attributes to request, e.g. "printer-state";
+     *                            the attributes of {@link #getPrinters()} if
+     *                            empty
+     * @return printer or null if there is no printer with that name
+     * @throws Exception
+     */
+    public CupsPrinter getPrinter(String printerName, String... requestedAttributes) throws Exception {
+        return prepare(new IppGetPrinterAttributesOperation(port)).getPrinter(host, port, printerName, user, creds,
+                requestedAttributes);
+    }
+
+    /**
+     * Returns the printer cache used by {@link #getPrinter(String)} and
+     * {@link #getPrinter(URL)}, e.g. to invalidate it after a printer was
+     * changed on the server.
+     *
+     * @return printer cache or null if the client was built without
+     * printer cache
+     */
+    public PrinterRegistry getPrinterRegistry() {
+        return printerRegistry;
+    }
+
     /**
      * Returns default printer
      *
@@ -153,7 +273,7 @@ public class CupsClient {
      * @throws Exception
      */
     public CupsPrinter getDefaultPrinter() throws Exception {
-        return new CupsGetDefaultOperation().getDefaultPrinter(host, port, creds);
+        return prepare(new CupsGetDefaultOperation()).getDefaultPrinter(host, port, creds);
     }
 
     /**
@@ -175,7 +295,7 @@ public class CupsClient {
      * @throws Exception
      */
     public PrintJobAttributes getJobAttributes(int jobID) throws Exception {
-        return getJobAttributes(host, user, jobID);
+        return getJobAttributes(host, user, jobID, null);
     }
 
     /**
@@ -187,7 +307,34 @@ public class CupsClient {
      * @throws Exception
      */
     public PrintJobAttributes getJobAttributes(String userName, int jobID) throws Exception {
-        return getJobAttributes(host, userName, jobID);
+        return getJobAttributes(host, userName, jobID, null);
+    }
+
+    /**
+     * Returns only the given job attributes for the job associated with the
+     * provided jobID.
+     *
+     * @param jobID
+     * @param fields projection, none for all attributes
+     * @return Job attributes, only the fields of the projection are set
+     * @throws Exception
+     */
+    public PrintJobAttributes getJobAttributes(int jobID, JobFieldEnum... fields) throws Exception {
+        return getJobAttributes(host, user, jobID, JobFieldEnum.toSet(fields));
+    }
+
+    /**
+     * Returns the job attributes of many jobs in one pass. The lookups run
+     * concurrently over the connection pool of this client.
+     *
+     * @param jobIDs ids of the jobs
+     * @param fields projection, none for all attributes
+     * @return job attributes by job id; jobs which could not be read are missing
+     * @throws Exception
+     */
+    public Map<Integer, PrintJobAttributes> getJobAttributes(Collection<Integer> jobIDs, JobFieldEnum... fields)
+            throws Exception {
+        return getJobAttributes(host, user, jobIDs, JobFieldEnum.toSet(fields));
     }
 
     /**
@@ -195,17 +342,33 @@ public class CupsClient {
      *
      * @param hostname
      * @param jobID
+     * @param fields   projection, null for all attributes
      * @return Job attributes
      * @throws Exception
      */
-    private PrintJobAttributes getJobAttributes(String hostname, String userName, int jobID) throws Exception {
+    private PrintJobAttributes getJobAttributes(String hostname, String userName, int jobID,
+                                                Set<JobFieldEnum> fields) throws Exception {
+        if (isEmpty(userName)) {
+            userName = DEFAULT_USER;
+        }
+        if (isEmpty(hostname)) {
+            hostname = DEFAULT_HOST;
+        }
+        return prepare(new IppGetJobAttributesOperation(port)).getPrintJobAttributes(hostname, userName, jobID, creds,
+                fields);
+    }
+
+    private Map<Integer, PrintJobAttributes> getJobAttributes(String hostname, String userName,
+                                                              Collection<Integer> jobIDs, Set<JobFieldEnum> fields)
+            throws Exception {
         if (isEmpty(userName)) {
             userName = DEFAULT_USER;
         }
         if (isEmpty(hostname)) {
             hostname = DEFAULT_HOST;
         }
-        return new IppGetJobAttributesOperation(port).getPrintJobAttributes(hostname, userName, jobID, creds);
+        return prepare(new IppGetJobAttributesOperation(port)).getPrintJobAttributes(hostname, userName, jobIDs,
+                creds, fields);
     }
 
     /**
@@ -224,7 +387,25 @@ public class CupsClient {
      */
     public List<PrintJobAttributes> getJobs(CupsPrinter printer, WhichJobsEnum whichJobs, String userName, boolean myJobs)
             throws Exception {
-        return new IppGetJobsOperation(port).getPrintJobs(printer, whichJobs, userName, myJobs, creds);
+        return prepare(new IppGetJobsOperation(port)).getPrintJobs(printer, whichJobs, userName, myJobs, creds);
+    }
+
+    /**
+     * Streams the jobs for given printer and username page by page. The next
+     * page is only requested when the stream gets there, so a caller which
+     * stops early does not fetch the whole job history.
+     *
+     * @param printer
+     * @param whichJobs completed, not completed or all
+     * @param userName
+     * @param myJobs    only jobs of the requesting user?
+     * @param pageSize  number of jobs per request
+     * @return lazy stream of job attributes
+     */
+    public Stream<PrintJobAttributes> streamJobs(CupsPrinter printer, WhichJobsEnum whichJobs, String userName,
+                                                 boolean myJobs, int pageSize) {
+        return prepare(new IppGetJobsOperation(port)).streamPrintJobs(printer, whichJobs, userName, myJobs, pageSize,
+                creds);
     }
 
     /**
@@ -235,7 +416,7 @@ public class CupsClient {
      * @throws Exception
      */
     public boolean cancelJob(CupsPrinter printer, int jobID) throws Exception {
-        return new IppCancelJobOperation(port).cancelJob(host, user, jobID, printer, creds);
+        return prepare(new IppCancelJobOperation(port)).cancelJob(host, user, jobID, printer, creds);
     }
 
     /**
@@ -247,7 +428,7 @@ public class CupsClient {
      * @throws Exception
      */
     public boolean holdJob(CupsPrinter printer, int jobID) throws Exception {
-        return new IppHoldJobOperation(port).holdJob(host, user, jobID, printer, creds);
+        return prepare(new IppHoldJobOperation(port)).holdJob(host, user, jobID, printer, creds);
     }
 
     /**
@@ -259,7 +440,7 @@ public class CupsClient {
      * @throws Exception
      */
     public boolean releaseJob(CupsPrinter printer, int jobID) throws Exception {
-        return new IppReleaseJobOperation(port).releaseJob(host, user, jobID, printer, creds);
+        return prepare(new IppReleaseJobOperation(port)).releaseJob(host, user, jobID, printer, creds);
     }
 
     /**
@@ -275,8 +456,193 @@ public class CupsClient {
     public boolean moveJob(int jobID, String userName, CupsPrinter currentPrinter, CupsPrinter targetPrinter)
             throws Exception {
         String currentHost = currentPrinter.getPrinterURL().getHost();
-        return new CupsMoveJobOperation(port).moveJob(currentPrinter, currentHost, userName, jobID,
+        return prepare(new CupsMoveJobOperation(port)).moveJob(currentPrinter, currentHost, userName, jobID,
                 targetPrinter.getPrinterURL(), creds);
     }
 
+    /**
+     * Subscribes to the events of a printer. The notifications are fetched
+     * with {@link #getNotifications(Map, boolean)} or a {@link NotificationPoller}.
+     *
+     * @param printer       printer, null for the events of all printers
+     * @param leaseDuration lease of the subscription in seconds, 0 for no expiry
+     * @param events        events to be notified
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int createPrinterSubscription(CupsPrinter printer, int leaseDuration, NotificationEventEnum... events)
+            throws Exception {
+        return createPrinterSubscription(printer, leaseDuration, null, events);
+    }
+
+    /**
+     * Subscribes to the events of a printer which the server pushes to the
+     * given recipient, e.g. a {@link NotificationReceiver}.
+     *
+     * @param printer       printer, null for the events of all printers
+     * @param leaseDuration lease of the subscription in seconds, 0 for no expiry
+     * @param recipientURI  notify-recipient-uri, null for the pull method ippget
+     * @param events        events to be notified
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int createPrinterSubscription(CupsPrinter printer, int leaseDuration, String recipientURI,
+                                         NotificationEventEnum... events) throws Exception {
+        URL url = (printer == null) ? getServerURL() : printer.getPrinterURL();
+        return prepare(new IppCreatePrinterSubscriptionsOperation(port)).createPrinterSubscription(url, user,
+                leaseDuration, NotificationEventEnum.toSet(events), recipientURI, creds);
+    }
+
+    /**
+     * Subscribes to the events of a print job. The subscription ends with the
+     * job.
+     *
+     * @param printer printer of the job
+     * @param jobID   id of the job
+     * @param events  events to be notified
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int createJobSubscription(CupsPrinter printer, int jobID, NotificationEventEnum... events)
+            throws Exception {
+        return prepare(new IppCreateJobSubscriptionsOperation(port)).createJobSubscription(printer.getPrinterURL(),
+                user, jobID, NotificationEventEnum.toSet(events), creds);
+    }
+
+    /**
+     * Fetches the pending notifications of the given subscriptions.
+     *
+     * @param sequenceNumbers first sequence number to be returned by subscription id
+     * @param wait            ask the server to hold the request until an event occurs?
+     * @return notifications and the poll interval suggested by the server
+     * @throws Exception
+     */
+    public NotificationResult getNotifications(Map<Integer, Integer> sequenceNumbers, boolean wait)
+            throws Exception {
+        return prepare(new IppGetNotificationsOperation(port)).getNotifications(getServerURL(), user,
+                sequenceNumbers, wait, creds);
+    }
+
+    /**
+     * Extends the lease of a subscription.
+     *
+     * @param subscriptionId id of the subscription
+     * @param leaseDuration  new lease in seconds, 0 for no expiry
+     * @return boolean success
+     * @throws Exception
+     */
+    public boolean renewSubscription(int subscriptionId, int leaseDuration) throws Exception {
+        return prepare(new IppRenewSubscriptionOperation(port)).renewSubscription(getServerURL(), user,
+                subscriptionId, leaseDuration, creds);
+    }
+
+    /**
+     * Cancels a subscription.
+     *
+     * @param subscriptionId id of the subscription
+     * @return boolean success
+     * @throws Exception
+     */
+    public boolean cancelSubscription(int subscriptionId) throws Exception {
+        return prepare(new IppCancelSubscriptionOperation(port)).cancelSubscription(getServerURL(), user,
+                subscriptionId, creds);
+    }
+
+    private URL getServerURL() throws MalformedURLException {
+        return new URL("http://" + host + ':' + port + '/');
+    }
+
+    private <T extends IppOperation> T prepare(T operation) {
+        operation.setRequestIdGenerator(requestIdGenerator);
+        operation.setTransport(transport);
+        return operation;
+    }
+
+    /**
+     * Closes the own connection pool and stops the background refresh of
+     * the printer cache of this client (if any).
+     *
+     * @throws IOException in case of errors
+     */
+    @Override
+    public void close() throws IOException {
+        if (printerRegistry != null) {
+            printerRegistry.close();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    /**
+     * Builder for a {@link CupsClient}. Without transport configuration the
+     * client uses the shared connection pool.
+     */
+    public static class Builder {
+
+        private String host = DEFAULT_HOST;
+        private int port = DEFAULT_PORT;
+        private String userName = DEFAULT_USER;
+        private CupsAuthentication creds = null;
+        private IppTransportConfig transportConfig = null;
+        private TimeValue printerCacheTtl = null;
+        private TimeValue printerRefreshInterval = null;
+
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder userName(String userName) {
+            this.userName = userName;
+            return this;
+        }
+
+        public Builder creds(CupsAuthentication creds) {
+            this.creds = creds;
+            return this;
+        }
+
+        public Builder transportConfig(IppTransportConfig transportConfig) {
+            this.transportConfig = transportConfig;
+            return this;
+        }
+
+        /**
+         * Caches the printers for the given time, so that
+         * {@link CupsClient#getPrinter(String)} and
+         * {@link CupsClient#getPrinter(URL)} don't ask the server each time.
+         *
+         * @param printerCacheTtl time to live of the cached printers
+         * @return this builder
+         */
+        public Builder printerCacheTtl(TimeValue printerCacheTtl) {
+            this.printerCacheTtl = printerCacheTtl;
+            return this;
+        }
+
+        /**
+         * Refreshes the cached printers in the background. Only used together
+         * with {@link #printerCacheTtl(TimeValue)}.
+         *
+         * @param printerRefreshInterval interval of the background refresh
+         * @return this builder
+         */
+        public Builder printerRefreshInterval(TimeValue printerRefreshInterval) {
+            this.printerRefreshInterval = printerRefreshInterval;
+            return this;
+        }
+
+        public CupsClient build() throws Exception {
+            return new CupsClient(host, port, userName, creds, transportConfig, printerCacheTtl,
+                    printerRefreshInterval);
+        }
+
+    }
+
 }
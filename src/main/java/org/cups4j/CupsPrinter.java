@@ -1,16 +1,24 @@
 package org.cups4j;
 
 import ch.ethz.vppserver.ippclient.IppResult;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.cups4j.ipp.attributes.Attribute;
 import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.operations.CompressingInputStream;
+import org.cups4j.operations.IppAsyncTransport;
+import org.cups4j.operations.IppOperation;
+import org.cups4j.operations.IppTransport;
+import org.cups4j.operations.RequestIdGenerator;
 import org.cups4j.operations.ipp.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
@@ -18,6 +26,7 @@ import static org.apache.commons.lang.StringUtils.isNotEmpty;
 /**
  * Represents a printer on your IPP server
  */
+@Slf4j
 @Setter
 @Getter
 public class CupsPrinter {
@@ -46,6 +55,17 @@ public class CupsPrinter {
     private List<String> mimeTypesSupported = new ArrayList<>();
     private List<String> sidesSupported = new ArrayList<>();
     private String makeAndModel = null;
+    // null until compression-supported was requested
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile List<String> compressionSupported = null;
+    // request ids and transport of the client which returned the printer
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private RequestIdGenerator requestIdGenerator = RequestIdGenerator.getDefault();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private IppTransport transport = null;
 
     public CupsPrinter(CupsAuthentication creds, URL printerURL, String printerName) {
         super();
@@ -64,13 +84,171 @@ public class CupsPrinter {
         }
     }
 
+    /**
+     * Lets the requests of this printer use the request ids and the transport
+     * of a client. Called by the operation which returns the printer.
+     *
+     * @param requestIdGenerator request ids of the client
+     * @param transport          transport of the client, null for the shared
+     *                           HTTP client
+     */
+    public void configure(RequestIdGenerator requestIdGenerator, IppTransport transport) {
+        this.requestIdGenerator = requestIdGenerator;
+        this.transport = transport;
+    }
+
+    /**
+     * @return compression-supported of the printer, empty if it was not
+     * requested yet
+     */
+    public List<String> getCompressionSupported() {
+        List<String> values = compressionSupported;
+        return (values == null) ? Collections.emptyList() : values;
+    }
+
+    /**
+     * Sets compression-supported as reported by the printer.
+     *
+     * @param compressionSupported values of the attribute, null if it was not
+     *                             requested
+     */
+    public void setCompressionSupported(List<String> compressionSupported) {
+        this.compressionSupported = (compressionSupported == null) ? null
+                : Collections.unmodifiableList(new ArrayList<>(compressionSupported));
+    }
+
     public boolean isPrinterClass() {
         return printerClass || (printerURL != null && printerURL.toString().contains("class"));
     }
 
     public PrintRequestResult print(PrintJob printJob) throws Exception {
+        IppPrintJobOperation command = prepare(new IppPrintJobOperation(printerURL.getPort()));
+        Map<String, String> attributes = createPrintAttributes(printJob);
+        InputStream document = getDocument(printJob, getCompression(printJob), attributes);
+        IppResult ippResult = command.request(this, printerURL, attributes, document, creds);
+        return toPrintRequestResult(ippResult);
+    }
+
+    /**
+     * Prints without blocking the calling thread. compression-supported is
+     * requested asynchronously as well if needed.
+     *
+     * @param printJob       print job
+     * @param asyncTransport non-blocking transport of the client
+     * @return future of the print request result
+     * @see #print(PrintJob)
+     */
+    CompletableFuture<PrintRequestResult> printAsync(PrintJob printJob, IppAsyncTransport asyncTransport) {
+        return getCompressionAsync(printJob, asyncTransport).thenCompose(compression -> {
+            IppPrintJobOperation command = prepare(new IppPrintJobOperation(printerURL.getPort()));
+            command.setAsyncTransport(asyncTransport);
+            Map<String, String> attributes = createPrintAttributes(printJob);
+            InputStream document = getDocument(printJob, compression, attributes);
+            return command.requestAsync(this, printerURL, attributes, document, creds);
+        }).thenApply(CupsPrinter::toPrintRequestResult);
+    }
+
+    /**
+     * Returns the document of the job, compressed on the fly with the given
+     * compression.
+     *
+     * @param printJob    print job
+     * @param compression compression the printer supports
+     * @param attributes  print attributes, compression is added if used
+     * @return document to be sent
+     */
+    private InputStream getDocument(PrintJob printJob, CompressionEnum compression, Map<String, String> attributes) {
+        if (compression == CompressionEnum.NONE) {
+            return printJob.getDocument();
+        }
+        attributes.put("compression", compression.getValue());
+        return new CompressingInputStream(printJob.getDocument(), compression);
+    }
+
+    /**
+     * Returns the compression the document of the job is sent with. It is
+     * the compression of the job if the printer supports it and none
+     * otherwise. The compression-supported attribute is requested from the
+     * printer only once.
+     *
+     * @param printJob print job
+     * @return compression to be used
+     */
+    CompressionEnum getCompression(PrintJob printJob) {
+        CompressionEnum compression = printJob.getCompression();
+        if (compression == null || compression == CompressionEnum.NONE) {
+            return CompressionEnum.NONE;
+        }
+        if (compressionSupported == null) {
+            try {
+                IppGetPrinterAttributesOperation command = prepare(
+                        new IppGetPrinterAttributesOperation(printerURL.getPort()));
+                setCompressionSupported(command.getAttributeValues(this, printJob.getUserName(),
+                        "compression-supported"));
+            } catch (Exception ex) {
+                log.warn("Cannot get compression-supported of {}, document is sent uncompressed.", name, ex);
+                return CompressionEnum.NONE;
+            }
+        }
+        return toSupportedCompression(compression);
+    }
+
+    /**
+     * Returns the compression the document of the job is sent with without
+     * blocking the calling thread.
+     *
+     * @param printJob       print job
+     * @param asyncTransport non-blocking transport of the client
+     * @return future of the compression to be used
+     * @see #getCompression(PrintJob)
+     */
+    CompletableFuture<CompressionEnum> getCompressionAsync(PrintJob printJob, IppAsyncTransport asyncTransport) {
+        CompressionEnum compression = printJob.getCompression();
+        if (compression == null || compression == CompressionEnum.NONE) {
+            return CompletableFuture.completedFuture(CompressionEnum.NONE);
+        }
+        if (compressionSupported != null) {
+            return CompletableFuture.completedFuture(toSupportedCompression(compression));
+        }
+        IppGetPrinterAttributesOperation command = prepare(new IppGetPrinterAttributesOperation(printerURL.getPort()));
+        command.setAsyncTransport(asyncTransport);
+        return command.getAttributeValuesAsync(this, printJob.getUserName(), "compression-supported")
+                .thenApply(values -> {
+                    setCompressionSupported(values);
+                    return toSupportedCompression(compression);
+                }).exceptionally(ex -> {
+                    log.warn("Cannot get compression-supported of {}, document is sent uncompressed.", name, ex);
+                    return CompressionEnum.NONE;
+                });
+    }
+
+    private CompressionEnum toSupportedCompression(CompressionEnum compression) {
+        if (!compressionSupported.contains(compression.getValue())) {
+            log.info("{} does not support compression {}, document is sent uncompressed.", name,
+                    compression.getValue());
+            return CompressionEnum.NONE;
+        }
+        return compression;
+    }
+
+    private static PrintRequestResult toPrintRequestResult(IppResult ippResult) {
         int ippJobID = -1;
-        InputStream document = printJob.getDocument();
+        PrintRequestResult result = new PrintRequestResult(ippResult);
+
+        for (AttributeGroup group : ippResult.getAttributeGroupList()) {
+            if (group.getTagName().equals("job-attributes-tag")) {
+                for (Attribute attr : group.getAttributes()) {
+                    if (attr.getName().equals("job-id")) {
+                        ippJobID = attr.getAttributeValues().get(0).asInt();
+                    }
+                }
+            }
+        }
+        result.setJobId(ippJobID);
+        return result;
+    }
+
+    private Map<String, String> createPrintAttributes(PrintJob printJob) {
         String userName = printJob.getUserName();
         String jobName = printJob.getJobName();
         int copies = printJob.getCopies();
@@ -131,21 +309,7 @@ public class CupsPrinter {
         if (printJob.isDuplex()) {
             addAttribute(attributes, "job-attributes", "sides:keyword:two-sided-long-edge");
         }
-        IppPrintJobOperation command = new IppPrintJobOperation(printerURL.getPort());
-        IppResult ippResult = command.request(this, printerURL, attributes, document, creds);
-        PrintRequestResult result = new PrintRequestResult(ippResult);
-
-        for (AttributeGroup group : ippResult.getAttributeGroupList()) {
-            if (group.getTagName().equals("job-attributes-tag")) {
-                for (Attribute attr : group.getAttributes()) {
-                    if (attr.getName().equals("job-id")) {
-                        ippJobID = Integer.parseInt(attr.getAttributeValues().get(0).getValue());
-                    }
-                }
-            }
-        }
-        result.setJobId(ippJobID);
-        return result;
+        return attributes;
     }
 
     /**
@@ -223,13 +387,13 @@ public class CupsPrinter {
         Map<String, String> attributes = new HashMap<>();
         attributes.put("job-name", job.getJobName());
         attributes.put("requesting-user-name", job.getUserName());
-        IppCreateJobOperation command = new IppCreateJobOperation(printerURL.getPort());
+        IppCreateJobOperation command = prepare(new IppCreateJobOperation(printerURL.getPort()));
         IppResult ippResult = command.request(this, printerURL, attributes, creds);
         if (ippResult.isPrintQueueUnavailable()) {
             throw new IllegalStateException("The print queue is not available: " + ippResult.getIppStatusResponse());
         }
         AttributeGroup attrGroup = ippResult.getAttributeGroup("job-attributes-tag");
-        return Integer.parseInt(attrGroup.getAttributes("job-id").getValue());
+        return attrGroup.getAttributes("job-id").getAttributeValues().get(0).asInt();
     }
 
     /**
@@ -244,8 +408,8 @@ public class CupsPrinter {
      * @since 0.7.2
      */
     public PrintRequestResult print(PrintJob job, int jobId, boolean lastDocument) {
-        IppSendDocumentOperation op = new IppSendDocumentOperation(printerURL.getPort(), jobId, lastDocument);
-        IppResult ippResult = op.request(this, printerURL, job, creds);
+        IppSendDocumentOperation op = prepare(new IppSendDocumentOperation(printerURL.getPort(), jobId, lastDocument));
+        IppResult ippResult = op.request(this, printerURL, job, getCompression(job), creds);
         PrintRequestResult result = new PrintRequestResult(ippResult);
         result.setJobId(jobId);
         return result;
@@ -273,7 +437,7 @@ public class CupsPrinter {
      */
 
     public List<PrintJobAttributes> getJobs(WhichJobsEnum whichJobs, String user, boolean myJobs) throws Exception {
-        IppGetJobsOperation command = new IppGetJobsOperation(printerURL.getPort());
+        IppGetJobsOperation command = prepare(new IppGetJobsOperation(printerURL.getPort()));
         return command.getPrintJobs(this, whichJobs, user, myJobs, creds);
     }
 
@@ -289,17 +453,17 @@ public class CupsPrinter {
     }
 
     /**
-     * Get current status for the print job with the given ID
+     * Get current status for the print job with the given ID. Only the
+     * job-state is requested from the server.
      *
      * @param userName
      * @param jobID
-     * @return job status
-     * @throws Exception
+     * @return job status or null if the server does not know the job
+     * @throws Exception if the server answers with another error
      */
     public JobStateEnum getJobStatus(String userName, int jobID) throws Exception {
-        IppGetJobAttributesOperation command = new IppGetJobAttributesOperation(printerURL.getPort());
-        PrintJobAttributes job = command.getPrintJobAttributes(printerURL.getHost(), userName, jobID, creds);
-        return job.getJobState();
+        IppGetJobAttributesOperation command = prepare(new IppGetJobAttributesOperation(printerURL.getPort()));
+        return command.getJobState(printerURL.getHost(), userName, jobID, creds);
     }
 
     /**
@@ -312,4 +476,10 @@ public class CupsPrinter {
         return name;
     }
 
+    private <T extends IppOperation> T prepare(T operation) {
+        operation.setRequestIdGenerator(requestIdGenerator);
+        operation.setTransport(transport);
+        return operation;
+    }
+
 }
@@ -0,0 +1,60 @@
+package org.cups4j;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Fields of {@link PrintJobAttributes} with the IPP attributes they are
+ * populated from. A set of fields is a projection: only the attributes of
+ * these fields are requested from the server, e.g.
+ * <pre>
+ * client.getJobAttributes(jobIds, JobFieldEnum.STATE, JobFieldEnum.PAGES_PRINTED);
+ * </pre>
+ * {@link #ID} is always requested because it is needed to identify the job.
+ */
+@Getter
+public enum JobFieldEnum {
+    ID("job-id"),
+    URI("job-uri"),
+    STATE("job-state"),
+    PRINTER_URI("job-printer-uri"),
+    NAME("job-name"),
+    USER_NAME("job-originating-user-name"),
+    SIZE("job-k-octets"),
+    CREATE_TIME("time-at-creation"),
+    COMPLETE_TIME("time-at-completed"),
+    PAGES_PRINTED("job-media-sheets-completed");
+
+    private final String attribute;
+
+    JobFieldEnum(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * @param fields projection, null or empty for all attributes
+     * @return value for requested-attributes (keywords separated by blanks)
+     */
+    public static String toRequestedAttributes(Set<JobFieldEnum> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return "all";
+        }
+        Set<JobFieldEnum> projection = EnumSet.of(ID);
+        projection.addAll(fields);
+        StringJoiner keywords = new StringJoiner(" ");
+        for (JobFieldEnum field : projection) {
+            keywords.add(field.attribute);
+        }
+        return keywords.toString();
+    }
+
+    /**
+     * @param fields projection, may be null or empty
+     * @return the fields as set
+     */
+    public static Set<JobFieldEnum> toSet(JobFieldEnum... fields) {
+        return (fields == null || fields.length == 0) ? EnumSet.noneOf(JobFieldEnum.class)
+                : EnumSet.copyOf(Arrays.asList(fields));
+    }
+}
@@ -25,16 +25,26 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public enum JobStateEnum {
-    PENDING("pending"),
-    PENDING_HELD("pending-held"),
-    PROCESSING("processing"),
-    PROCESSING_STOPPED("processing-stopped"),
-    CANCELED("canceled"),
-    ABORTED("aborted"),
-    COMPLETED("completed");
+    PENDING(3, "pending"),
+    PENDING_HELD(4, "pending-held"),
+    PROCESSING(5, "processing"),
+    PROCESSING_STOPPED(6, "processing-stopped"),
+    CANCELED(7, "canceled"),
+    ABORTED(8, "aborted"),
+    COMPLETED(9, "completed");
 
+    private final int value;
     private final String text;
 
+    public static JobStateEnum fromInteger(int value) {
+        for (JobStateEnum jobState : JobStateEnum.values()) {
+            if (value == jobState.value) {
+                return jobState;
+            }
+        }
+        return null;
+    }
+
     public static JobStateEnum fromString(String value) {
         if (value != null) {
             for (JobStateEnum jobState : JobStateEnum.values()) {
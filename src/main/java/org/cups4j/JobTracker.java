@@ -0,0 +1,194 @@
+package org.cups4j;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.Closeable;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Waits for print jobs to reach a terminal state (completed, canceled or
+ * aborted).
+ * <p>
+ * All jobs tracked on a printer are polled together with one
+ * Get-Jobs which-jobs=not-completed request, so the number of requests
+ * grows with the number of printers and not with the number of jobs. Only a
+ * job which has left the not-completed list is asked for its final state.
+ * The poll interval of a printer starts at the minimal interval and doubles
+ * up to the maximal interval as long as none of its jobs finishes; a little
+ * jitter keeps the polls of many printers apart.
+ * </p>
+ * <pre>
+ * try (JobTracker tracker = new JobTracker()) {
+ *     JobStateEnum state = tracker.track(printer, result.getJobId()).get();
+ * }
+ * </pre>
+ */
+@Slf4j
+public class JobTracker implements Closeable {
+
+    public static final TimeValue DEFAULT_MIN_INTERVAL = TimeValue.ofMilliseconds(500);
+    public static final TimeValue DEFAULT_MAX_INTERVAL = TimeValue.ofSeconds(10);
+
+    // jitter of the poll interval, +/- this fraction
+    private static final double JITTER = 0.1;
+    private static final Set<JobStateEnum> TERMINAL_STATES =
+            EnumSet.of(JobStateEnum.COMPLETED, JobStateEnum.CANCELED, JobStateEnum.ABORTED);
+
+    @Getter
+    private final TimeValue minInterval;
+    @Getter
+    private final TimeValue maxInterval;
+    private final String userName;
+    private final ScheduledExecutorService poller;
+    private final Map<String, PrinterJobs> printers = new ConcurrentHashMap<>();
+
+    public JobTracker() {
+        this(CupsClient.DEFAULT_USER, DEFAULT_MIN_INTERVAL, DEFAULT_MAX_INTERVAL);
+    }
+
+    /**
+     * @param userName    requesting user of the polls
+     * @param minInterval poll interval after a job was registered or finished
+     * @param maxInterval upper bound of the poll interval
+     */
+    public JobTracker(String userName, TimeValue minInterval, TimeValue maxInterval) {
+        this.userName = userName;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cups4j-job-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts tracking a print job.
+     *
+     * @param printer printer of the job
+     * @param jobID   id of the job
+     * @return future which completes with the terminal state of the job; it
+     * can be cancelled to stop tracking
+     */
+    public CompletableFuture<JobStateEnum> track(CupsPrinter printer, int jobID) {
+        if (poller.isShutdown()) {
+            throw new IllegalStateException("job tracker is closed");
+        }
+        PrinterJobs printerJobs = printers.computeIfAbsent(printer.getPrinterURL().toString(),
+                key -> new PrinterJobs(printer));
+        CompletableFuture<JobStateEnum> future = printerJobs.jobs.computeIfAbsent(jobID,
+                key -> new CompletableFuture<>());
+        printerJobs.schedule(true);
+        return future;
+    }
+
+    /**
+     * @return number of jobs which are tracked at the moment
+     */
+    public int getTrackedJobCount() {
+        return printers.values().stream().mapToInt(printerJobs -> printerJobs.jobs.size()).sum();
+    }
+
+    /**
+     * Stops polling. The futures of the jobs still tracked are cancelled.
+     */
+    @Override
+    public void close() {
+        poller.shutdownNow();
+        for (PrinterJobs printerJobs : printers.values()) {
+            printerJobs.jobs.values().forEach(future -> future.cancel(false));
+        }
+        printers.clear();
+    }
+
+    private long nextDelay(long interval) {
+        double jitter = 1 + JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(1, (long) (interval * jitter));
+    }
+
+    /**
+     * Jobs tracked on one printer together with the poll state of the printer.
+     */
+    private final class PrinterJobs {
+
+        private final CupsPrinter printer;
+        private final Map<Integer, CompletableFuture<JobStateEnum>> jobs = new ConcurrentHashMap<>();
+        private long interval = minInterval.toMilliseconds();
+        private ScheduledFuture<?> nextPoll = null;
+
+        private PrinterJobs(CupsPrinter printer) {
+            this.printer = printer;
+        }
+
+        /**
+         * Schedules the next poll of this printer.
+         *
+         * @param reset poll soon (a job was added or finished)?
+         */
+        private synchronized void schedule(boolean reset) {
+            if (poller.isShutdown()) {
+                return;
+            }
+            interval = reset ? minInterval.toMilliseconds() : Math.min(2 * interval, maxInterval.toMilliseconds());
+            long delay = nextDelay(interval);
+            if (nextPoll != null) {
+                if (nextPoll.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+                    return;
+                }
+                nextPoll.cancel(false);
+            }
+            nextPoll = poller.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void poll() {
+            synchronized (this) {
+                nextPoll = null;
+            }
+            jobs.values().removeIf(CompletableFuture::isDone);
+            if (jobs.isEmpty()) {
+                return;
+            }
+            boolean finished = false;
+            try {
+                Set<Integer> notCompleted = new HashSet<>();
+                for (PrintJobAttributes job : printer.getJobs(WhichJobsEnum.NOT_COMPLETED, userName, false)) {
+                    notCompleted.add(job.getJobID());
+                }
+                for (Map.Entry<Integer, CompletableFuture<JobStateEnum>> entry : jobs.entrySet()) {
+                    if (!notCompleted.contains(entry.getKey())) {
+                        finished |= complete(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (Exception ex) {
+                log.warn("Polling the jobs of printer {} failed, trying again later.", printer.getName(), ex);
+            }
+            jobs.values().removeIf(CompletableFuture::isDone);
+            if (!jobs.isEmpty()) {
+                schedule(finished);
+            }
+        }
+
+        private boolean complete(int jobID, CompletableFuture<JobStateEnum> future) {
+            try {
+                JobStateEnum state = printer.getJobStatus(userName, jobID);
+                if (state == null || TERMINAL_STATES.contains(state)) {
+                    // only a job unknown to the server (purged) is reported as null
+                    future.complete(state);
+                    return true;
+                }
+            } catch (Exception ex) {
+                // any other error is no evidence that the job finished
+                log.warn("Unable to get the state of job {}, trying again later.", jobID, ex);
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -18,8 +18,12 @@ package org.cups4j;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import org.cups4j.operations.FileDocumentStream;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -47,6 +51,14 @@ public class PrintJob {
     private boolean portrait = true;
     @Getter
     private boolean color;
+    /**
+     * Compression of the document. The document is compressed while it is
+     * sent, if the printer supports the compression (compression-supported),
+     * and sent uncompressed otherwise.
+     */
+    @Getter
+    @Builder.Default
+    private CompressionEnum compression = CompressionEnum.NONE;
     /**
      * Additional attributes for the print operation and the print job
      * <p>
@@ -83,4 +95,37 @@ public class PrintJob {
         return this.getClass().getSimpleName() + "-" + getJobName();
     }
 
+    public static class PrintJobBuilder {
+
+        public PrintJobBuilder document(InputStream document) {
+            this.document = document;
+            return this;
+        }
+
+        /**
+         * Prints a file. The file is sent with its length and without
+         * copying it through the heap.
+         *
+         * @param path file to be printed
+         * @return this builder
+         * @throws IOException if the file cannot be opened
+         */
+        public PrintJobBuilder document(Path path) throws IOException {
+            return document(new FileDocumentStream(path));
+        }
+
+        /**
+         * Prints the file channel from its current position to its end. The
+         * channel is closed after the document was sent.
+         *
+         * @param channel file channel to be printed
+         * @return this builder
+         * @throws IOException if the size of the channel cannot be read
+         */
+        public PrintJobBuilder document(FileChannel channel) throws IOException {
+            return document(new FileDocumentStream(channel));
+        }
+
+    }
+
 }
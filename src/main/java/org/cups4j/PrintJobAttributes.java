@@ -57,35 +57,34 @@ public class PrintJobAttributes {
     }
 
     public URL getJobURL(CupsClient client) throws Exception {
-        return client.getJobAttributes(getJobID()).getJobURL();
+        return client.getJobAttributes(getJobID(), JobFieldEnum.URI).getJobURL();
     }
 
     public int getPagesPrinted(CupsClient client) throws Exception {
-        return client.getJobAttributes(getJobID()).getPagesPrinted();
+        return client.getJobAttributes(getJobID(), JobFieldEnum.PAGES_PRINTED).getPagesPrinted();
     }
 
     public int getSize(CupsClient client) throws Exception {
-        return client.getJobAttributes(getJobID()).getSize();
+        return client.getJobAttributes(getJobID(), JobFieldEnum.SIZE).getSize();
     }
 
     public String getCreateDate(CupsClient client) throws Exception {
-        return DATE_FORMAT.format(client.getJobAttributes(getJobID()).getJobCreateTime());
+        return DATE_FORMAT.format(client.getJobAttributes(getJobID(), JobFieldEnum.CREATE_TIME).getJobCreateTime());
     }
 
     public String getCompleteDate(CupsClient client) throws Exception {
-        return DATE_FORMAT.format(client.getJobAttributes(getJobID()).getJobCompleteTime());
+        return DATE_FORMAT.format(client.getJobAttributes(getJobID(), JobFieldEnum.COMPLETE_TIME).getJobCompleteTime());
     }
 
     public String toString(CupsClient client) {
         try {
             StringBuilder buff = new StringBuilder(toString());
 
-            Date createDate;
-            Date completeDate;
-
             if (client != null) {
-                createDate = client.getJobAttributes(getJobID()).getJobCreateTime();
-                completeDate = client.getJobAttributes(getJobID()).getJobCompleteTime();
+                PrintJobAttributes times = client.getJobAttributes(getJobID(), JobFieldEnum.CREATE_TIME,
+                        JobFieldEnum.COMPLETE_TIME);
+                Date createDate = times.getJobCreateTime();
+                Date completeDate = times.getJobCompleteTime();
 
                 buff.append("job creation time : [").append(DATE_FORMAT.format(createDate.getTime())).append("]\n");
                 buff.append("job completion time : [").append(DATE_FORMAT.format(completeDate.getTime())).append("]\n");
@@ -0,0 +1,71 @@
+package org.cups4j;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Fields of a {@link CupsPrinter} with the IPP attributes they are populated
+ * from. A set of fields is a projection: only the attributes of these fields
+ * are requested from the server and mapped to the printer, e.g.
+ * <pre>
+ * client.getPrinters(EnumSet.of(PrinterFieldEnum.STATE));
+ * </pre>
+ * {@link #NAME} and {@link #URI} are always requested because they are needed
+ * to create a printer.
+ */
+@Getter
+public enum PrinterFieldEnum {
+    NAME("printer-name"),
+    URI("printer-uri-supported"),
+    STATE("printer-state"),
+    LOCATION("printer-location"),
+    DESCRIPTION("printer-info"),
+    DEVICE_URI("device-uri"),
+    MAKE_AND_MODEL("printer-make-and-model"),
+    MEDIA("media-default", "media-supported"),
+    RESOLUTION("printer-resolution-default", "printer-resolution-supported"),
+    COLOR_MODE("print-color-mode-default", "print-color-mode-supported"),
+    MIME_TYPES("document-format-supported"),
+    SIDES("sides-default", "sides-supported"),
+    NUMBER_UP("number-up-default", "number-up-supported"),
+    COMPRESSION("compression-supported");
+
+    private static final Map<String, PrinterFieldEnum> BY_ATTRIBUTE = new HashMap<>();
+
+    static {
+        for (PrinterFieldEnum field : values()) {
+            for (String attribute : field.attributes) {
+                BY_ATTRIBUTE.put(attribute, field);
+            }
+        }
+    }
+
+    private final List<String> attributes;
+
+    PrinterFieldEnum(String... attributes) {
+        this.attributes = Collections.unmodifiableList(Arrays.asList(attributes));
+    }
+
+    /**
+     * @param attributeName name of an IPP attribute
+     * @return the field populated from this attribute or null
+     */
+    public static PrinterFieldEnum fromAttribute(String attributeName) {
+        return BY_ATTRIBUTE.get(attributeName);
+    }
+
+    /**
+     * @param fields projection
+     * @return value for requested-attributes (keywords separated by blanks)
+     */
+    public static String toRequestedAttributes(Set<PrinterFieldEnum> fields) {
+        Set<PrinterFieldEnum> projection = EnumSet.of(NAME, URI);
+        projection.addAll(fields);
+        StringJoiner keywords = new StringJoiner(" ");
+        for (PrinterFieldEnum field : projection) {
+            field.attributes.forEach(keywords::add);
+        }
+        return keywords.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package org.cups4j;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Query for {@link CupsClient#streamPrinters(PrinterQuery)}. The printers are
+ * requested in pages of {@link #getPageSize()} printers. The printer type
+ * filter is evaluated by the server: a printer matches if
+ * {@code (printer-type & printerTypeMask) == printerType}.
+ * <pre>
+ * // local printer classes only
+ * PrinterQuery.builder()
+ *         .printerType(PrinterTypeEnum.toBits(PrinterTypeEnum.CLASS))
+ *         .printerTypeMask(PrinterTypeEnum.toBits(PrinterTypeEnum.CLASS, PrinterTypeEnum.REMOTE))
+ *         .build();
+ * </pre>
+ */
+@Getter
+@Builder
+public class PrinterQuery {
+
+    // name of the first printer (inclusive), null to start with the first one
+    private final String firstPrinterName;
+
+    // maximal number of printers, 0 for all
+    private final int limit;
+
+    @Builder.Default
+    private final int pageSize = 100;
+
+    // required bits of printer-type, null for no filter
+    private final Integer printerType;
+
+    // bits of printer-type to be compared, null for no filter
+    private final Integer printerTypeMask;
+
+    // projection of the printers, null for all fields
+    private final Set<PrinterFieldEnum> fields;
+
+    /**
+     * @return query for all printers
+     */
+    public static PrinterQuery all() {
+        return builder().build();
+    }
+
+    /**
+     * @return query for the printer classes only
+     */
+    public static PrinterQuery classes() {
+        return builder().printerType(PrinterTypeEnum.CLASS.getValue())
+                .printerTypeMask(PrinterTypeEnum.CLASS.getValue()).build();
+    }
+
+    /**
+     * @return query for the local queues only (no remote printers)
+     */
+    public static PrinterQuery localQueues() {
+        return builder().printerType(0).printerTypeMask(PrinterTypeEnum.REMOTE.getValue()).build();
+    }
+
+    /**
+     * @return query for the shared queues only
+     */
+    public static PrinterQuery sharedQueues() {
+        return builder().printerType(0).printerTypeMask(PrinterTypeEnum.NOT_SHARED.getValue()).build();
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.cups4j;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.Closeable;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache for the printers of a CUPS server with an index by name and by URL.
+ * <p>
+ * The printers are loaded with a single CUPS-Get-Printers request and kept
+ * for the configured time to live. Lookups are answered from the indexes;
+ * an expired cache is reloaded on the next lookup. If a refresh interval is
+ * set, a daemon thread reloads the printers in the background so that
+ * lookups do not have to wait for the server. A lookup which misses reloads
+ * the printers once, so printers added on the server are found without
+ * waiting for the cache to expire.
+ * </p>
+ */
+@Slf4j
+public class PrinterRegistry implements Closeable {
+
+    // minimal age of the cached printers before a missed lookup reloads them (ms)
+    private static final long MISS_RELOAD_INTERVAL = 1000;
+
+    private final Callable<List<CupsPrinter>> loader;
+    @Getter
+    private final TimeValue ttl;
+    private final ScheduledExecutorService refresher;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * @param loader          loads all printers of the server
+     * @param ttl             time to live of the loaded printers
+     * @param refreshInterval interval for the background refresh, null or 0
+     *                        for no background refresh
+     */
+    public PrinterRegistry(Callable<List<CupsPrinter>> loader, TimeValue ttl, TimeValue refreshInterval) {
+        this.loader = loader;
+        this.ttl = ttl;
+        if (TimeValue.isPositive(refreshInterval)) {
+            this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cups4j-printer-registry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = refreshInterval.toMilliseconds();
+            this.refresher.scheduleWithFixedDelay(this::refreshQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.refresher = null;
+        }
+    }
+
+    /**
+     * Returns the printer with the given name.
+     *
+     * @param printerName the printer name
+     * @return printer or null if there is no such printer on the server
+     * @throws Exception if the printers cannot be loaded
+     */
+    public CupsPrinter getPrinter(String printerName) throws Exception {
+        Snapshot current = getSnapshot();
+        CupsPrinter printer = current.byName.get(printerName);
+        if (printer == null) {
+            printer = invalidateOnMiss(current).byName.get(printerName);
+        }
+        return printer;
+    }
+
+    /**
+     * Returns the printer for the given URL.
+     *
+     * @param printerURL a URL like http://localhost:631/printers/printername
+     * @return printer or null if there is no such printer on the server
+     * @throws Exception if the printers cannot be loaded
+     */
+    public CupsPrinter getPrinter(URL printerURL) throws Exception {
+        String key = printerURL.toString();
+        Snapshot current = getSnapshot();
+        CupsPrinter printer = current.byUrl.get(key);
+        if (printer == null) {
+            printer = invalidateOnMiss(current).byUrl.get(key);
+        }
+        return printer;
+    }
+
+    /**
+     * @return all cached printers
+     * @throws Exception if the printers cannot be loaded
+     */
+    public List<CupsPrinter> getPrinters() throws Exception {
+        return getSnapshot().printers;
+    }
+
+    /**
+     * Drops the cached printers. They are loaded again with the next lookup.
+     */
+    public void invalidate() {
+        snapshot = Snapshot.EMPTY;
+    }
+
+    /**
+     * Loads the printers from the server and rebuilds the indexes.
+     *
+     * @throws Exception if the printers cannot be loaded
+     */
+    public synchronized void refresh() throws Exception {
+        snapshot = new Snapshot(loader.call(), System.currentTimeMillis());
+    }
+
+    /**
+     * Stops the background refresh (if any).
+     */
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    private Snapshot getSnapshot() throws Exception {
+        Snapshot current = snapshot;
+        if (isExpired(current)) {
+            synchronized (this) {
+                current = snapshot;
+                if (isExpired(current)) {
+                    refresh();
+                    current = snapshot;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized Snapshot invalidateOnMiss(Snapshot missed) throws Exception {
+        // another thread may already have reloaded the printers, and unknown
+        // names must not trigger a reload storm
+        if (snapshot == missed && System.currentTimeMillis() - missed.loadedAt >= MISS_RELOAD_INTERVAL) {
+            log.debug("Printer not found in registry, reloading printers.");
+            refresh();
+        }
+        return snapshot;
+    }
+
+    private boolean isExpired(Snapshot current) {
+        return current == Snapshot.EMPTY || System.currentTimeMillis() - current.loadedAt >= ttl.toMilliseconds();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            log.warn("Background refresh of printers failed, keeping {} cached printers.",
+                    snapshot.printers.size(), ex);
+        }
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), 0);
+
+        private final List<CupsPrinter> printers;
+        private final Map<String, CupsPrinter> byName = new HashMap<>();
+        private final Map<String, CupsPrinter> byUrl = new HashMap<>();
+        private final long loadedAt;
+
+        private Snapshot(List<CupsPrinter> printers, long loadedAt) {
+            this.printers = Collections.unmodifiableList(new ArrayList<>(printers));
+            this.loadedAt = loadedAt;
+            for (CupsPrinter printer : printers) {
+                // first one wins like the linear search of CupsClient
+                byName.putIfAbsent(printer.getName(), printer);
+                if (printer.getPrinterURL() != null) {
+                    byUrl.putIfAbsent(printer.getPrinterURL().toString(), printer);
+                }
+            }
+        }
+
+    }
+
+}
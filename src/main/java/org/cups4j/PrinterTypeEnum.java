@@ -0,0 +1,52 @@
+package org.cups4j;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bits of the CUPS attribute printer-type. Used together with a
+ * printer-type-mask to filter the printers on the server side.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PrinterTypeEnum {
+    CLASS(0x0001),
+    REMOTE(0x0002),
+    BW(0x0004),
+    COLOR(0x0008),
+    DUPLEX(0x0010),
+    STAPLE(0x0020),
+    COPIES(0x0040),
+    COLLATE(0x0080),
+    PUNCH(0x0100),
+    COVER(0x0200),
+    BIND(0x0400),
+    SORT(0x0800),
+    SMALL(0x1000),
+    MEDIUM(0x2000),
+    LARGE(0x4000),
+    VARIABLE(0x8000),
+    DEFAULT(0x20000),
+    FAX(0x40000),
+    REJECTING(0x80000),
+    NOT_SHARED(0x200000),
+    AUTHENTICATED(0x400000),
+    COMMANDS(0x800000),
+    DISCOVERED(0x1000000),
+    SCANNER(0x2000000),
+    MFP(0x4000000);
+
+    private final int value;
+
+    /**
+     * @param types printer types
+     * @return the combined bits of the given types
+     */
+    public static int toBits(PrinterTypeEnum... types) {
+        int bits = 0;
+        for (PrinterTypeEnum type : types) {
+            bits |= type.value;
+        }
+        return bits;
+    }
+}
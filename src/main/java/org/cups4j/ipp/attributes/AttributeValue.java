@@ -1,15 +1,22 @@
 package org.cups4j.ipp.attributes;
 
+import ch.ethz.vppserver.ippclient.IppUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Setter
 @Getter
+@NoArgsConstructor
 @JacksonXmlRootElement(localName = "attribute-value")
 public class AttributeValue {
 
+    private static final int NO_TAG_CODE = -1;
+
     @JacksonXmlProperty(localName = "set-of-keyword")
     protected SetOfKeyword setOfKeyword;
 
@@ -28,4 +35,57 @@ public class AttributeValue {
     @JacksonXmlProperty(isAttribute = true)
     protected String description;
 
+    /**
+     * Tag byte of a decoded value (0..255) or -1 if the value was not decoded.
+     * The hex form of the tag is only built on demand by {@link #getTag()}.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    protected int tagCode = NO_TAG_CODE;
+
+    /**
+     * Constructor for decoded values.
+     *
+     * @param tag     tag byte
+     * @param tagName name of the tag
+     */
+    public AttributeValue(byte tag, String tagName) {
+        this.tagCode = tag & 0xff;
+        this.tagName = tagName;
+    }
+
+    /**
+     * @return tag value with marker, e.g. '0x21'
+     */
+    public String getTag() {
+        if ((tag == null) && (tagCode != NO_TAG_CODE)) {
+            tag = IppUtil.toHexWithMarker((byte) tagCode);
+        }
+        return tag;
+    }
+
+    public void setTag(String tag) {
+        this.tag = tag;
+        this.tagCode = NO_TAG_CODE;
+    }
+
+    /**
+     * Typed values return their int without parsing, other values parse
+     * their String form.
+     *
+     * @return value as int
+     * @throws NumberFormatException if the value is no integer
+     */
+    public int asInt() {
+        return Integer.parseInt(getValue());
+    }
+
+    /**
+     * @return value as long
+     * @throws NumberFormatException if the value is no integer
+     */
+    public long asLong() {
+        return Long.parseLong(getValue());
+    }
+
 }
@@ -0,0 +1,23 @@
+package org.cups4j.ipp.attributes;
+
+import lombok.Getter;
+
+/**
+ * Decoded 'boolean' value.
+ */
+@Getter
+public class BooleanValue extends AttributeValue {
+
+    private final boolean booleanValue;
+
+    public BooleanValue(byte tag, String tagName, boolean booleanValue) {
+        super(tag, tagName);
+        this.booleanValue = booleanValue;
+    }
+
+    @Override
+    public String getValue() {
+        return booleanValue ? "true" : "false";
+    }
+
+}
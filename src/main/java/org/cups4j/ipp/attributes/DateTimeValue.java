@@ -0,0 +1,33 @@
+package org.cups4j.ipp.attributes;
+
+import ch.ethz.vppserver.ippclient.IppUtil;
+
+/**
+ * Decoded 'dateTime' value (RFC 2579 DateAndTime). The String form is only
+ * built on demand.
+ */
+public class DateTimeValue extends AttributeValue {
+
+    private final byte[] dateTime;
+
+    public DateTimeValue(byte tag, String tagName, byte[] dateTime) {
+        super(tag, tagName);
+        this.dateTime = dateTime;
+    }
+
+    /**
+     * @return the 11 bytes of the encoded date and time
+     */
+    public byte[] getDateTime() {
+        return dateTime.clone();
+    }
+
+    @Override
+    public String getValue() {
+        if (value == null) {
+            value = IppUtil.toDateTime(dateTime);
+        }
+        return value;
+    }
+
+}
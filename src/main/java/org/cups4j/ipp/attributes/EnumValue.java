@@ -0,0 +1,30 @@
+package org.cups4j.ipp.attributes;
+
+import lombok.Getter;
+
+/**
+ * Decoded 'enum' value. {@link #getValue()} returns the name of the enum,
+ * {@link #asInt()} its numeric value.
+ */
+@Getter
+public class EnumValue extends AttributeValue {
+
+    private final int intValue;
+
+    public EnumValue(byte tag, String tagName, int intValue, String enumName) {
+        super(tag, tagName);
+        this.intValue = intValue;
+        this.value = enumName;
+    }
+
+    @Override
+    public int asInt() {
+        return intValue;
+    }
+
+    @Override
+    public long asLong() {
+        return intValue;
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.cups4j.ipp.attributes;
+
+import lombok.Getter;
+
+/**
+ * Decoded 'integer' value. The String form is only built on demand.
+ */
+@Getter
+public class IntegerValue extends AttributeValue {
+
+    private final int intValue;
+
+    public IntegerValue(byte tag, String tagName, int intValue) {
+        super(tag, tagName);
+        this.intValue = intValue;
+    }
+
+    @Override
+    public String getValue() {
+        if (value == null) {
+            value = Integer.toString(intValue);
+        }
+        return value;
+    }
+
+    @Override
+    public int asInt() {
+        return intValue;
+    }
+
+    @Override
+    public long asLong() {
+        return intValue;
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.cups4j.ipp.attributes;
+
+import lombok.Getter;
+
+/**
+ * Decoded 'rangeOfInteger' value. The String form is 'lower,upper'.
+ */
+@Getter
+public class RangeOfIntegerValue extends AttributeValue {
+
+    private final int lowerBound;
+
+    private final int upperBound;
+
+    public RangeOfIntegerValue(byte tag, String tagName, int lowerBound, int upperBound) {
+        super(tag, tagName);
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    @Override
+    public String getValue() {
+        if (value == null) {
+            value = lowerBound + "," + upperBound;
+        }
+        return value;
+    }
+
+}
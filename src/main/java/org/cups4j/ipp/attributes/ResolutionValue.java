@@ -0,0 +1,33 @@
+package org.cups4j.ipp.attributes;
+
+import lombok.Getter;
+
+/**
+ * Decoded 'resolution' value. The String form is 'cross-feed,feed,units'
+ * where units is 3 for dots per inch and 4 for dots per centimeter.
+ */
+@Getter
+public class ResolutionValue extends AttributeValue {
+
+    private final int crossFeedResolution;
+
+    private final int feedResolution;
+
+    private final byte units;
+
+    public ResolutionValue(byte tag, String tagName, int crossFeedResolution, int feedResolution, byte units) {
+        super(tag, tagName);
+        this.crossFeedResolution = crossFeedResolution;
+        this.feedResolution = feedResolution;
+        this.units = units;
+    }
+
+    @Override
+    public String getValue() {
+        if (value == null) {
+            value = crossFeedResolution + "," + feedResolution + "," + units;
+        }
+        return value;
+    }
+
+}
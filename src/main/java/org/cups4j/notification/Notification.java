@@ -0,0 +1,47 @@
+package org.cups4j.notification;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.cups4j.JobStateEnum;
+import org.cups4j.PrinterStateEnum;
+
+import java.net.URL;
+
+/**
+ * Event notification of a subscription as returned by Get-Notifications.
+ * Attributes the server does not send for the event keep their defaults.
+ */
+@Setter
+@Getter
+public class Notification {
+
+    private int subscriptionId = -1;
+    private int sequenceNumber = -1;
+    private NotificationEventEnum event = null;
+    private String text = null;
+    private URL printerURL = null;
+    private String printerName = null;
+    private PrinterStateEnum printerState = null;
+    private int jobID = -1;
+    private JobStateEnum jobState = null;
+    private String jobName = null;
+
+    /**
+     * @return true if the notification reports the end of its job, either by
+     * the job-completed event or by a terminal job-state
+     */
+    public boolean isJobFinished() {
+        return event == NotificationEventEnum.JOB_COMPLETED || jobState == JobStateEnum.CANCELED
+                || jobState == JobStateEnum.ABORTED || jobState == JobStateEnum.COMPLETED;
+    }
+
+    @Override
+    public String toString() {
+        return "subscription/sequence number : [" + subscriptionId + "/" + sequenceNumber + "]\n" +
+                "event : [" + event + "]\n" +
+                "text : [" + text + "]\n" +
+                "printer name/state : [" + printerName + "/" + printerState + "]\n" +
+                "job id/state : [" + jobID + "/" + jobState + "]\n";
+    }
+
+}
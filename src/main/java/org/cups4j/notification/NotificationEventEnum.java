@@ -0,0 +1,61 @@
+package org.cups4j.notification;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Events a subscription can be created for (notify-events, RFC 3995 and
+ * CUPS extensions).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum NotificationEventEnum {
+    JOB_CREATED("job-created"),
+    JOB_COMPLETED("job-completed"),
+    JOB_STATE_CHANGED("job-state-changed"),
+    JOB_CONFIG_CHANGED("job-config-changed"),
+    JOB_PROGRESS("job-progress"),
+    JOB_STOPPED("job-stopped"),
+    PRINTER_STATE_CHANGED("printer-state-changed"),
+    PRINTER_CONFIG_CHANGED("printer-config-changed"),
+    PRINTER_STOPPED("printer-stopped"),
+    PRINTER_ADDED("printer-added"),
+    PRINTER_DELETED("printer-deleted"),
+    PRINTER_MODIFIED("printer-modified"),
+    SERVER_RESTARTED("server-restarted"),
+    SERVER_STARTED("server-started"),
+    SERVER_STOPPED("server-stopped"),
+    SERVER_AUDIT("server-audit");
+
+    private final String value;
+
+    public static NotificationEventEnum fromString(String value) {
+        if (value != null) {
+            for (NotificationEventEnum event : NotificationEventEnum.values()) {
+                if (value.equalsIgnoreCase(event.value)) {
+                    return event;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param events events, may be empty for the default of the server
+     * @return the events as set
+     */
+    public static Set<NotificationEventEnum> toSet(NotificationEventEnum... events) {
+        return (events.length == 0) ? EnumSet.noneOf(NotificationEventEnum.class)
+                : EnumSet.copyOf(Arrays.asList(events));
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+}
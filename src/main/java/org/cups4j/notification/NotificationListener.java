@@ -0,0 +1,18 @@
+package org.cups4j.notification;
+
+/**
+ * Receives the event notifications of a {@link NotificationPoller} or a
+ * {@link NotificationReceiver}.
+ */
+@FunctionalInterface
+public interface NotificationListener {
+
+    /**
+     * Called on the thread of the poller or receiver for each notification,
+     * in the order the server sends them.
+     *
+     * @param notification the event notification
+     */
+    void onNotification(Notification notification);
+
+}
@@ -0,0 +1,279 @@
+package org.cups4j.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.util.TimeValue;
+import org.cups4j.CupsClient;
+import org.cups4j.CupsPrinter;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers the event notifications of a CUPS server to listeners.
+ * <p>
+ * All subscriptions created with this poller are fetched together by one
+ * thread with a single Get-Notifications request (notify-wait), so one
+ * long-poll per server replaces the state polls of all printers and jobs.
+ * Between two requests the poller waits as long as the server asks for
+ * (notify-get-interval), at most the maximal interval. Leases of printer
+ * subscriptions are renewed when half of the lease has passed; job
+ * subscriptions are dropped when their job has finished. If the server
+ * rejects the request because a subscription is gone (expired lease or ended
+ * by the server), the subscriptions are checked one by one and the stale
+ * ones are dropped, so they do not block the others.
+ * </p>
+ * <pre>
+ * try (NotificationPoller poller = new NotificationPoller(client)) {
+ *     poller.addListener(notification -&gt; log.info("{}", notification));
+ *     poller.subscribePrinter(printer, 3600, NotificationEventEnum.PRINTER_STATE_CHANGED);
+ *     ...
+ * }
+ * </pre>
+ */
+@Slf4j
+public class NotificationPoller implements Closeable {
+
+    public static final TimeValue DEFAULT_MAX_INTERVAL = TimeValue.ofSeconds(10);
+
+    private final CupsClient client;
+    private final long maxInterval;
+    private final List<NotificationListener> listeners = new CopyOnWriteArrayList<>();
+    // guarded by this
+    private final Map<Integer, Subscription> subscriptions = new LinkedHashMap<>();
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    public NotificationPoller(CupsClient client) {
+        this(client, DEFAULT_MAX_INTERVAL);
+    }
+
+    /**
+     * @param client      client of the CUPS server
+     * @param maxInterval upper bound for the wait between two Get-Notifications
+     */
+    public NotificationPoller(CupsClient client, TimeValue maxInterval) {
+        this.client = client;
+        this.maxInterval = maxInterval.toMilliseconds();
+        this.thread = new Thread(this::run, "cups4j-notification-poller");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void addListener(NotificationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(NotificationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Subscribes to the events of a printer.
+     *
+     * @param printer       printer, null for the events of all printers
+     * @param leaseDuration lease of the subscription in seconds, 0 for no expiry
+     * @param events        events to be notified
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int subscribePrinter(CupsPrinter printer, int leaseDuration, NotificationEventEnum... events)
+            throws Exception {
+        int subscriptionId = client.createPrinterSubscription(printer, leaseDuration, events);
+        if (subscriptionId > 0) {
+            add(new Subscription(subscriptionId, leaseDuration, -1));
+        }
+        return subscriptionId;
+    }
+
+    /**
+     * Subscribes to the events of a print job.
+     *
+     * @param printer printer of the job
+     * @param jobID   id of the job
+     * @param events  events to be notified
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int subscribeJob(CupsPrinter printer, int jobID, NotificationEventEnum... events) throws Exception {
+        int subscriptionId = client.createJobSubscription(printer, jobID, events);
+        if (subscriptionId > 0) {
+            add(new Subscription(subscriptionId, 0, jobID));
+        }
+        return subscriptionId;
+    }
+
+    /**
+     * Cancels a subscription of this poller.
+     *
+     * @param subscriptionId id of the subscription
+     * @throws Exception
+     */
+    public void unsubscribe(int subscriptionId) throws Exception {
+        synchronized (this) {
+            subscriptions.remove(subscriptionId);
+        }
+        client.cancelSubscription(subscriptionId);
+    }
+
+    /**
+     * Stops the poller and cancels its subscriptions.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        List<Integer> ids;
+        synchronized (this) {
+            ids = new ArrayList<>(subscriptions.keySet());
+            subscriptions.clear();
+        }
+        for (Integer id : ids) {
+            try {
+                client.cancelSubscription(id);
+            } catch (Exception ex) {
+                log.warn("Unable to cancel subscription {}.", id, ex);
+            }
+        }
+    }
+
+    private synchronized void add(Subscription subscription) {
+        subscriptions.put(subscription.id, subscription);
+        notifyAll();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                Map<Integer, Integer> sequenceNumbers = waitForSubscriptions();
+                renewLeases();
+                NotificationResult result = client.getNotifications(sequenceNumbers, true);
+                if (result.isNotFound() && dropStaleSubscriptions(sequenceNumbers)) {
+                    continue;
+                }
+                result.getNotifications().forEach(this::dispatch);
+                if (result.getNotifications().isEmpty()) {
+                    long interval = (result.getInterval() > 0) ? result.getInterval() * 1000L : maxInterval;
+                    sleep(Math.min(interval, maxInterval));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                log.warn("Get-Notifications failed, trying again later.", ex);
+                try {
+                    sleep(maxInterval);
+                } catch (InterruptedException iex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private synchronized Map<Integer, Integer> waitForSubscriptions() throws InterruptedException {
+        while (subscriptions.isEmpty()) {
+            wait();
+        }
+        Map<Integer, Integer> sequenceNumbers = new LinkedHashMap<>();
+        for (Subscription subscription : subscriptions.values()) {
+            sequenceNumbers.put(subscription.id, subscription.nextSequenceNumber);
+        }
+        return sequenceNumbers;
+    }
+
+    private synchronized void sleep(long millis) throws InterruptedException {
+        wait(Math.max(1, millis));
+    }
+
+    private void renewLeases() throws Exception {
+        List<Subscription> due = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (Subscription subscription : subscriptions.values()) {
+                if (subscription.leaseDuration > 0 && now >= subscription.renewAt) {
+                    due.add(subscription);
+                }
+            }
+        }
+        for (Subscription subscription : due) {
+            if (client.renewSubscription(subscription.id, subscription.leaseDuration)) {
+                subscription.renewed();
+            } else {
+                log.warn("Unable to renew subscription {}.", subscription.id);
+            }
+        }
+    }
+
+    /**
+     * Fetches the notifications of each subscription on its own and drops the
+     * subscriptions the server does not know.
+     *
+     * @param sequenceNumbers next sequence number by subscription id
+     * @return true if at least one subscription was dropped
+     * @throws Exception
+     */
+    private boolean dropStaleSubscriptions(Map<Integer, Integer> sequenceNumbers) throws Exception {
+        boolean dropped = false;
+        for (Map.Entry<Integer, Integer> entry : sequenceNumbers.entrySet()) {
+            NotificationResult result = client.getNotifications(
+                    Collections.singletonMap(entry.getKey(), entry.getValue()), false);
+            if (result.isNotFound()) {
+                log.warn("Subscription {} is unknown to the server, dropping it.", entry.getKey());
+                synchronized (this) {
+                    subscriptions.remove(entry.getKey());
+                }
+                dropped = true;
+            } else {
+                result.getNotifications().forEach(this::dispatch);
+            }
+        }
+        return dropped;
+    }
+
+    private void dispatch(Notification notification) {
+        synchronized (this) {
+            Subscription subscription = subscriptions.get(notification.getSubscriptionId());
+            if (subscription == null) {
+                return;
+            }
+            subscription.nextSequenceNumber = Math.max(subscription.nextSequenceNumber,
+                    notification.getSequenceNumber() + 1);
+            if (subscription.jobID > 0 && notification.isJobFinished()) {
+                // the server ends job subscriptions with the job
+                subscriptions.remove(subscription.id);
+            }
+        }
+        for (NotificationListener listener : listeners) {
+            try {
+                listener.onNotification(notification);
+            } catch (RuntimeException ex) {
+                log.error("Listener failed on notification " + notification.getSequenceNumber()
+                        + " of subscription " + notification.getSubscriptionId(), ex);
+            }
+        }
+    }
+
+    private static final class Subscription {
+
+        private final int id;
+        // seconds, 0 for no expiry
+        private final int leaseDuration;
+        // -1 for printer subscriptions
+        private final int jobID;
+        private int nextSequenceNumber = 1;
+        private volatile long renewAt;
+
+        private Subscription(int id, int leaseDuration, int jobID) {
+            this.id = id;
+            this.leaseDuration = leaseDuration;
+            this.jobID = jobID;
+            renewed();
+        }
+
+        private void renewed() {
+            renewAt = System.currentTimeMillis() + leaseDuration * 500L;
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+package org.cups4j.notification;
+
+import ch.ethz.vppserver.ippclient.IppResponse;
+import ch.ethz.vppserver.ippclient.IppResult;
+import ch.ethz.vppserver.ippclient.IppTag;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.operations.ipp.IppGetNotificationsOperation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Embedded HTTP endpoint which receives the event notifications a server
+ * pushes to a notify-recipient-uri, as an alternative to the
+ * {@link NotificationPoller}.
+ * <p>
+ * Each POST carries an IPP message with event-notification-attributes-tag
+ * groups. They are decoded with {@link IppResponse} and dispatched to the
+ * listeners right away, so there is no polling at all. Listeners can be
+ * registered for all notifications, for a job or for a printer.
+ * </p>
+ * <pre>
+ * try (NotificationReceiver receiver = new NotificationReceiver(new InetSocketAddress(0))) {
+ *     receiver.addJobListener(jobId, notification -&gt; ...);
+ *     client.createPrinterSubscription(printer, 3600, receiver.getRecipientURI(),
+ *             NotificationEventEnum.JOB_STATE_CHANGED);
+ *     ...
+ * }
+ * </pre>
+ */
+@Slf4j
+public class NotificationReceiver implements Closeable {
+
+    public static final String PATH = "/notify";
+
+    private static final short SUCCESSFUL_OK = 0x0000;
+    private static final short CLIENT_ERROR_BAD_REQUEST = 0x0400;
+
+    private final HttpServer server;
+    private final List<NotificationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Integer, List<NotificationListener>> jobListeners = new ConcurrentHashMap<>();
+    private final Map<String, List<NotificationListener>> printerListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the receiver.
+     *
+     * @param address local address, port 0 for any free port
+     * @throws IOException if the address cannot be bound
+     */
+    public NotificationReceiver(InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.start();
+    }
+
+    /**
+     * @return URI to be passed as notify-recipient-uri
+     * @throws IOException if the local host name cannot be resolved
+     */
+    public String getRecipientURI() throws IOException {
+        InetSocketAddress address = server.getAddress();
+        InetAddress host = address.getAddress().isAnyLocalAddress() ? InetAddress.getLocalHost()
+                : address.getAddress();
+        return "ipp://" + host.getHostAddress() + ':' + address.getPort() + PATH;
+    }
+
+    /**
+     * @return the bound address (with the actual port)
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public void addListener(NotificationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(NotificationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers a listener for the notifications of a job. The listeners of a
+     * job are dropped when the job has finished.
+     *
+     * @param jobID    id of the job
+     * @param listener listener
+     */
+    public void addJobListener(int jobID, NotificationListener listener) {
+        jobListeners.computeIfAbsent(jobID, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void removeJobListeners(int jobID) {
+        jobListeners.remove(jobID);
+    }
+
+    /**
+     * Registers a listener for the notifications of a printer.
+     *
+     * @param printerName name of the printer
+     * @param listener    listener
+     */
+    public void addPrinterListener(String printerName, NotificationListener listener) {
+        printerListeners.computeIfAbsent(printerName, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void removePrinterListeners(String printerName) {
+        printerListeners.remove(printerName);
+    }
+
+    /**
+     * Stops the receiver.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        // the response headers must not be sent twice
+        boolean responseSent = false;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                responseSent = true;
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            ByteBuffer request = ByteBuffer.wrap(IOUtils.toByteArray(exchange.getRequestBody()));
+            int requestId = (request.remaining() >= 8) ? request.getInt(4) : 0;
+            short status = SUCCESSFUL_OK;
+            List<Notification> notifications = new ArrayList<>();
+            try {
+                IppResult result = IppResponse.getInstance().getResponse(request);
+                for (AttributeGroup group : result.getAttributeGroupList()) {
+                    if ("event-notification-attributes-tag".equals(group.getTagName())) {
+                        notifications.add(IppGetNotificationsOperation.toNotification(group));
+                    }
+                }
+            } catch (Exception ex) {
+                log.error("Unable to decode notification from " + exchange.getRemoteAddress(), ex);
+                status = CLIENT_ERROR_BAD_REQUEST;
+                notifications.clear();
+            }
+            responseSent = true;
+            sendResponse(exchange, requestId, status);
+            notifications.forEach(this::dispatch);
+        } catch (Exception ex) {
+            log.error("Unable to receive notification from " + exchange.getRemoteAddress(), ex);
+            if (!responseSent) {
+                exchange.sendResponseHeaders(500, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendResponse(HttpExchange exchange, int requestId, short status) throws IOException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(128), status, requestId);
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        exchange.getResponseHeaders().add("Content-Type", "application/ipp");
+        exchange.sendResponseHeaders(200, ippBuf.remaining());
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(ippBuf.array(), ippBuf.arrayOffset() + ippBuf.position(), ippBuf.remaining());
+        }
+    }
+
+    private void dispatch(Notification notification) {
+        fire(listeners, notification);
+        if (notification.getJobID() > 0) {
+            List<NotificationListener> forJob = jobListeners.get(notification.getJobID());
+            if (forJob != null) {
+                fire(forJob, notification);
+                if (notification.isJobFinished()) {
+                    jobListeners.remove(notification.getJobID());
+                }
+            }
+        }
+        if (notification.getPrinterName() != null) {
+            List<NotificationListener> forPrinter = printerListeners.get(notification.getPrinterName());
+            if (forPrinter != null) {
+                fire(forPrinter, notification);
+            }
+        }
+    }
+
+    private static void fire(List<NotificationListener> listeners, Notification notification) {
+        for (NotificationListener listener : listeners) {
+            try {
+                listener.onNotification(notification);
+            } catch (RuntimeException ex) {
+                log.error("Listener failed on notification " + notification.getSequenceNumber()
+                        + " of subscription " + notification.getSubscriptionId(), ex);
+            }
+        }
+    }
+
+}
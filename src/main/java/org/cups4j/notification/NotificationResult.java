@@ -0,0 +1,44 @@
+package org.cups4j.notification;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a Get-Notifications request.
+ */
+@Getter
+public class NotificationResult {
+
+    // client-error-not-found: at least one of the subscriptions does not exist (any more)
+    public static final String NOT_FOUND = "0x0406";
+
+    private final boolean successful;
+    // IPP status code, e.g. 0x0000
+    private final String statusCode;
+    private final List<Notification> notifications;
+    // seconds the client should wait before the next Get-Notifications, -1 if not sent
+    private final int interval;
+
+    public NotificationResult(boolean successful, List<Notification> notifications, int interval) {
+        this(successful, successful ? "0x0000" : null, notifications, interval);
+    }
+
+    public NotificationResult(boolean successful, String statusCode, List<Notification> notifications,
+                              int interval) {
+        this.successful = successful;
+        this.statusCode = statusCode;
+        this.notifications = Collections.unmodifiableList(notifications);
+        this.interval = interval;
+    }
+
+    /**
+     * @return true if the server rejected the request because one of the
+     * subscriptions is unknown
+     */
+    public boolean isNotFound() {
+        return NOT_FOUND.equals(statusCode);
+    }
+
+}
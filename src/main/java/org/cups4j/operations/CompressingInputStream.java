@@ -0,0 +1,107 @@
+package org.cups4j.operations;
+
+import org.cups4j.CompressionEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Compresses a document while it is read. The request entity pulls the
+ * compressed bytes from this stream, so the document is never buffered as a
+ * whole, neither compressed nor uncompressed.
+ * <p>
+ * The stream closes the document when it is closed.
+ * </p>
+ */
+public class CompressingInputStream extends InputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final DeflaterInputStream deflated;
+    // only used for gzip
+    private final CRC32 crc;
+    // header or trailer which is read before or after the deflated data
+    private ByteBuffer pending;
+    private boolean finished = false;
+
+    /**
+     * @param document    uncompressed document
+     * @param compression gzip or deflate
+     */
+    public CompressingInputStream(InputStream document, CompressionEnum compression) {
+        switch (compression) {
+            case GZIP:
+                crc = new CRC32();
+                deflated = new DeflaterInputStream(new CheckedInputStream(document, crc), deflater);
+                pending = ByteBuffer.wrap(GZIP_HEADER);
+                break;
+            case DEFLATE:
+                crc = null;
+                deflated = new DeflaterInputStream(document, deflater);
+                pending = ByteBuffer.allocate(0);
+                break;
+            default:
+                deflater.end();
+                throw new IllegalArgumentException("not a compression: " + compression);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n;
+        do {
+            n = read(b, 0, 1);
+        } while (n == 0);
+        return (n < 0) ? -1 : (b[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (pending.hasRemaining()) {
+                int n = Math.min(len, pending.remaining());
+                pending.get(b, off, n);
+                return n;
+            }
+            if (finished) {
+                return -1;
+            }
+            int n = deflated.read(b, off, len);
+            if (n >= 0) {
+                return n;
+            }
+            finished = true;
+            if (crc != null) {
+                pending = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                pending.putInt((int) crc.getValue()).putInt((int) deflater.getBytesRead());
+                pending.flip();
+            }
+        }
+    }
+
+    @Override
+    public int available() {
+        return pending.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            deflated.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.cups4j.operations;
+
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Request entity of the blocking transport for a {@link FileDocumentStream}:
+ * writes the IPP header and transfers the file with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. The
+ * content length is known, so the request is not chunked.
+ */
+class FileDocumentEntity extends AbstractHttpEntity {
+
+    private final byte[] header;
+    private final int offset;
+    private final int length;
+    private final FileDocumentStream document;
+
+    FileDocumentEntity(byte[] header, int offset, int length, FileDocumentStream document) {
+        super(IppOperation.IPP_MIME_TYPE, null);
+        this.header = header;
+        this.offset = offset;
+        this.length = length;
+        this.document = document;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length + document.getLength();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public InputStream getContent() {
+        return new SequenceInputStream(new ByteArrayInputStream(header, offset, length), document);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try {
+            out.write(header, offset, length);
+            WritableByteChannel target = Channels.newChannel(out);
+            FileChannel channel = document.getChannel();
+            long position = document.getStart();
+            long end = position + document.getLength();
+            while (position < end) {
+                long n = channel.transferTo(position, end - position, target);
+                if (n <= 0 && position >= channel.size()) {
+                    throw new IOException("document ended " + (end - position) + " bytes early");
+                }
+                position += n;
+            }
+            out.flush();
+        } finally {
+            document.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        document.close();
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.cups4j.operations;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Document backed by a region of a {@link FileChannel}. It can be read like
+ * any other document stream, but the transports recognize it and send the
+ * file with its known length: the blocking transport with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * the async transport from memory mapped regions of the file. So the
+ * document is neither copied through the heap nor sent chunked.
+ * <p>
+ * Like every document the stream is consumed and closed by the request,
+ * which closes the channel as well.
+ * </p>
+ */
+public class FileDocumentStream extends InputStream {
+
+    @Getter
+    private final FileChannel channel;
+    // first byte of the document in the channel
+    @Getter
+    private final long start;
+    @Getter
+    private final long length;
+    // read position, only used if the stream is read as InputStream
+    private long position;
+
+    /**
+     * @param channel file channel, the document starts at its current
+     *                position and ends at the end of the file
+     * @throws IOException if the position or the size cannot be read
+     */
+    public FileDocumentStream(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.start = channel.position();
+        this.length = channel.size() - start;
+        this.position = start;
+    }
+
+    /**
+     * @param path file to be printed
+     * @throws IOException if the file cannot be opened
+     */
+    public FileDocumentStream(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return (read(b, 0, 1) < 0) ? -1 : (b[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = channel.read(ByteBuffer.wrap(b, off, Math.min(len, available(start + length - position))),
+                position);
+        if (n <= 0) {
+            return -1;
+        }
+        position += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, start + length - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return available(start + length - position);
+    }
+
+    private static int available(long remaining) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, remaining));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.cups4j.operations;
+
+import lombok.Getter;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking HTTP client with its own connection pool, built from an
+ * {@link IppTransportConfig}. The requests are multiplexed on the I/O
+ * reactor threads of the client, so no thread waits for a response.
+ *
+ * @see IppTransport
+ */
+public class IppAsyncTransport implements Closeable {
+
+    @Getter
+    private final IppTransportConfig config;
+    @Getter
+    private final ResponseBodyPolicy responseBodyPolicy;
+    @Getter
+    private final CloseableHttpAsyncClient httpClient;
+
+    public IppAsyncTransport(IppTransportConfig config) {
+        this.config = config;
+        this.responseBodyPolicy = new ResponseBodyPolicy(config);
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(config.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(config.getConnectTimeout())
+                        .setSocketTimeout(config.getSocketTimeout())
+                        .build())
+                .build();
+        this.httpClient = HttpAsyncClients.custom()
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setTcpNoDelay(config.isTcpNoDelay())
+                        .setSoKeepAlive(config.isSoKeepAlive())
+                        .setSoTimeout(config.getSocketTimeout())
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getIdleTimeout())
+                .setDefaultRequestConfig(RequestConfig.custom().setResponseTimeout(config.getResponseTimeout()).build())
+                .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * Sends the given request. The returned future is completed by an I/O
+     * reactor thread as soon as the whole response is received. The body of
+     * the response is collected according to the {@link ResponseBodyPolicy}
+     * of this transport.
+     *
+     * @param request request line and headers
+     * @param entity  request body
+     * @return future of the response
+     */
+    public CompletableFuture<IppHttpResult> execute(HttpRequest request, AsyncEntityProducer entity) {
+        CompletableFuture<IppHttpResult> future = new CompletableFuture<>();
+        httpClient.execute(new BasicRequestProducer(request, entity), new ResponseBodyConsumer(responseBodyPolicy),
+                new FutureCallback<IppHttpResult>() {
+                    @Override
+                    public void completed(IppHttpResult response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        future.completeExceptionally(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        future.cancel(false);
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Closes the connection pool and the I/O reactor of this transport.
+     *
+     * @throws IOException in case of errors
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+}
@@ -0,0 +1,203 @@
+package org.cups4j.operations;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking request entity for the async transport: writes the IPP header
+ * followed by the optional document in chunks as soon as the channel accepts
+ * data. A {@link FileDocumentStream} is written from memory mapped regions of
+ * the file with its known length. Any other document is read on a shared
+ * pool of daemon threads, one chunk ahead, so a slow document source never
+ * blocks the I/O reactor. Counterpart of
+ * {@link IppOperation#createRequestEntity(ByteBuffer, InputStream)}.
+ */
+@Slf4j
+class IppEntityProducer implements AsyncEntityProducer {
+
+    private static final int CHUNK_SIZE = 8192;
+    // size of the regions of a file document which are mapped at once
+    private static final long MAP_SIZE = 16 * 1024 * 1024;
+    private static final ExecutorService READER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "cups4j-document-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ByteBuffer ippBuf;
+    private final InputStream document;
+    // null if the document is no file
+    private final FileDocumentStream file;
+    private final long contentLength;
+    // current chunk, filled by the reader thread while reading is set
+    private ByteBuffer chunk;
+    // next position in the file to be mapped
+    private long filePosition;
+    private volatile boolean reading = false;
+    private volatile boolean endOfDocument = false;
+    private volatile IOException readError = null;
+    private volatile boolean released = false;
+
+    IppEntityProducer(ByteBuffer ippBuf, InputStream document) {
+        this.ippBuf = ippBuf.duplicate();
+        this.document = document;
+        this.file = (document instanceof FileDocumentStream) ? (FileDocumentStream) document : null;
+        // without document or with a file the length is known, otherwise the request is chunked
+        if (document == null) {
+            this.contentLength = this.ippBuf.remaining();
+        } else if (file != null) {
+            this.contentLength = this.ippBuf.remaining() + file.getLength();
+            this.filePosition = file.getStart();
+        } else {
+            this.contentLength = -1;
+        }
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public String getContentType() {
+        return IppOperation.IPP_MIME_TYPE.toString();
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return null;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return contentLength < 0;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return document == null;
+    }
+
+    @Override
+    public int available() {
+        if (ippBuf.hasRemaining()) {
+            return ippBuf.remaining();
+        }
+        if (document == null) {
+            return 0;
+        }
+        // while a chunk is read there is nothing to write, the reader requests the output afterwards
+        return reading ? 0 : CHUNK_SIZE;
+    }
+
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+        if (ippBuf.hasRemaining()) {
+            channel.write(ippBuf);
+            if (ippBuf.hasRemaining()) {
+                return;
+            }
+        }
+        if (file != null) {
+            produceFileData(channel);
+        } else if (document != null) {
+            produceStreamData(channel);
+        } else {
+            channel.endStream();
+        }
+    }
+
+    private void produceFileData(DataStreamChannel channel) throws IOException {
+        long end = file.getStart() + file.getLength();
+        while (true) {
+            if (chunk == null || !chunk.hasRemaining()) {
+                if (filePosition >= end) {
+                    break;
+                }
+                long size = Math.min(MAP_SIZE, end - filePosition);
+                chunk = file.getChannel().map(FileChannel.MapMode.READ_ONLY, filePosition, size);
+                filePosition += size;
+            }
+            channel.write(chunk);
+            if (chunk.hasRemaining()) {
+                return;
+            }
+        }
+        channel.endStream();
+    }
+
+    private void produceStreamData(DataStreamChannel channel) throws IOException {
+        if (reading) {
+            return;
+        }
+        if (readError != null) {
+            throw readError;
+        }
+        if (chunk != null && chunk.hasRemaining()) {
+            channel.write(chunk);
+            if (chunk.hasRemaining()) {
+                return;
+            }
+        }
+        if (endOfDocument) {
+            channel.endStream();
+            return;
+        }
+        if (chunk == null) {
+            chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        }
+        reading = true;
+        READER.execute(() -> readChunk(channel));
+    }
+
+    // runs on a reader thread, the reactor does not touch the chunk meanwhile
+    private void readChunk(DataStreamChannel channel) {
+        try {
+            int n = document.read(chunk.array(), 0, chunk.capacity());
+            chunk.position(0);
+            chunk.limit(Math.max(n, 0));
+            endOfDocument = n < 0;
+        } catch (IOException ex) {
+            readError = ex;
+        } finally {
+            reading = false;
+            if (!released) {
+                channel.requestOutput();
+            }
+        }
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        log.debug("Sending of IPP request failed.", cause);
+        releaseResources();
+    }
+
+    @Override
+    public void releaseResources() {
+        released = true;
+        if (document != null) {
+            try {
+                document.close();
+            } catch (IOException ex) {
+                log.debug("Cannot close document.", ex);
+            }
+        }
+    }
+
+}
@@ -11,6 +11,8 @@ import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.utils.Base64;
 import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.cups4j.CupsAuthentication;
 import org.cups4j.CupsPrinter;
@@ -23,15 +25,24 @@ import static org.apache.commons.lang.StringUtils.isNotBlank;
 public final class IppHttp {
 
     public static final Timeout CUPS_TIMEOUT = Timeout.ofMilliseconds(Integer.parseInt(System.getProperty("cups4j.timeout", "10000")));
-    private static final int MAX_CONNECTION_BUFFER = 20;
+    // pool sizing of the shared client, e.g. -Dcups4j.maxConnectionsPerRoute=50
+    public static final int MAX_CONNECTIONS_PER_ROUTE = Integer.parseInt(System.getProperty("cups4j.maxConnectionsPerRoute", "20"));
+    public static final int MAX_CONNECTIONS_TOTAL = Integer.parseInt(System.getProperty("cups4j.maxConnectionsTotal",
+            Integer.toString(MAX_CONNECTIONS_PER_ROUTE)));
+    // idle connections are kept alive for reuse and closed after this time (ms)
+    public static final TimeValue IDLE_TIMEOUT = TimeValue.ofMilliseconds(Long.parseLong(System.getProperty("cups4j.idleTimeout", "60000")));
+    // responses above this size are rejected (bytes)
+    public static final long MAX_RESPONSE_SIZE = Long.parseLong(System.getProperty("cups4j.maxResponseSize", "268435456"));
+    // responses above this size are spilled to a memory mapped temporary file (bytes)
+    public static final int RESPONSE_HEAP_THRESHOLD = Integer.parseInt(System.getProperty("cups4j.responseHeapThreshold", "1048576"));
     private static final RequestConfig requestConfig = RequestConfig.custom().setResponseTimeout(CUPS_TIMEOUT).build();
 
     private static final CloseableHttpClient client;
 
     static {
         PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setMaxConnPerRoute(MAX_CONNECTION_BUFFER)
-                .setMaxConnTotal(MAX_CONNECTION_BUFFER)
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                .setMaxConnTotal(MAX_CONNECTIONS_TOTAL)
                 .setDefaultConnectionConfig(ConnectionConfig.custom()
                         .setConnectTimeout(CUPS_TIMEOUT)
                         .setSocketTimeout(CUPS_TIMEOUT)
@@ -42,6 +53,7 @@ public final class IppHttp {
                 .disableCookieManagement()
                 .setConnectionManager(connectionManager)
                 .evictExpiredConnections()
+                .evictIdleConnections(IDLE_TIMEOUT)
                 .setRetryStrategy(DefaultHttpRequestRetryStrategy.INSTANCE)
                 .build();
     }
@@ -51,14 +63,26 @@ public final class IppHttp {
     }
 
     public static void setHttpHeaders(HttpPost httpPost, CupsPrinter targetPrinter, CupsAuthentication creds) {
-        httpPost.addHeader("target-group", targetPrinter == null ? "local" : targetPrinter.getName());
+        addHttpHeaders(httpPost, targetPrinter, creds);
         httpPost.setConfig(requestConfig);
+    }
+
+    /**
+     * Adds the target-group and the authorization header to the given
+     * request. Used for the classic as well as for the async requests.
+     *
+     * @param request       request
+     * @param targetPrinter printer or null
+     * @param creds         credentials
+     */
+    public static void addHttpHeaders(HttpRequest request, CupsPrinter targetPrinter, CupsAuthentication creds) {
+        request.addHeader("target-group", targetPrinter == null ? "local" : targetPrinter.getName());
 
         if (creds != null && isNotBlank(creds.getUserid()) && isNotBlank(creds.getPassword())) {
             String auth = creds.getUserid() + ':' + creds.getPassword();
             byte[] encodedAuth = Base64.encodeBase64(auth.getBytes(StandardCharsets.ISO_8859_1));
             String authHeader = "Basic " + new String(encodedAuth);
-            httpPost.setHeader(HttpHeaders.AUTHORIZATION, authHeader);
+            request.setHeader(HttpHeaders.AUTHORIZATION, authHeader);
         }
     }
 
@@ -3,12 +3,17 @@ package org.cups4j.operations;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.nio.ByteBuffer;
+
 @Setter
 @Getter
-class IppHttpResult {
+public class IppHttpResult {
 
     private String statusLine;
 
     private int statusCode;
 
+    // body of the response (read mode), null if not collected
+    private ByteBuffer body;
+
 }
@@ -16,34 +16,51 @@ package org.cups4j.operations;
  */
 
 import ch.ethz.vppserver.ippclient.IppResponse;
+import ch.ethz.vppserver.ippclient.IppResponseReader;
 import ch.ethz.vppserver.ippclient.IppResult;
 import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
 import org.apache.hc.core5.http.message.StatusLine;
 import org.cups4j.CupsAuthentication;
 import org.cups4j.CupsClient;
 import org.cups4j.CupsPrinter;
 import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.ipp.attributes.AttributeGroup;
 
 import java.io.*;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 public abstract class IppOperation {
     protected final static ContentType IPP_MIME_TYPE = ContentType.create("application/ipp");
     protected short operationID = -1; // IPP operation ID
-    protected short bufferSize = 8192; // BufferSize for this operation
+    protected short bufferSize = 8192; // initial BufferSize for this operation, grows on demand
     protected int ippPort = CupsClient.DEFAULT_PORT;
+    @Setter
+    protected RequestIdGenerator requestIdGenerator = RequestIdGenerator.getDefault();
+    // transport of the client, null for the shared client of IppHttp
+    @Setter
+    protected IppTransport transport = null;
+    // non-blocking transport, only needed for the async requests
+    @Setter
+    protected IppAsyncTransport asyncTransport = null;
 
     /**
      * Removes the port number in the submitted URL
@@ -60,15 +77,52 @@ public abstract class IppOperation {
         return protocol + "://" + url.getHost() + url.getPath();
     }
 
-    private static InputStreamEntity getInputStreamEntity(InputStream documentStream, byte[] bytes) {
-        ByteArrayInputStream headerStream = new ByteArrayInputStream(bytes);
+    /**
+     * Logs a warning if the response does not belong to the request. Error
+     * responses without IPP header (request id 0) are not checked.
+     *
+     * @param ippBuf IPP header of the request
+     * @param result result of the response
+     */
+    protected static void checkRequestId(ByteBuffer ippBuf, IppResult result) {
+        int requestId = ippBuf.getInt(4);
+        if ((result != null) && (result.getRequestId() != 0) && (result.getRequestId() != requestId)) {
+            log.warn("Request id {} of IPP response does not match request id {}.", result.getRequestId(), requestId);
+        }
+    }
 
-        // If we need to send a document, concatenate InputStreams
-        InputStream inputStream = headerStream;
-        if (documentStream != null) {
-            inputStream = new SequenceInputStream(headerStream, documentStream);
+    /**
+     * Creates the request entity from the IPP header and the optional
+     * document. The header is passed on without copying it if the buffer is
+     * backed by an array. A {@link FileDocumentStream} is sent with its
+     * length, other documents are sent chunked.
+     *
+     * @param ippBuf         IPP header (read mode)
+     * @param documentStream document or null
+     * @return request entity
+     */
+    protected static HttpEntity createRequestEntity(ByteBuffer ippBuf, InputStream documentStream) {
+        byte[] header;
+        int offset;
+        int length = ippBuf.remaining();
+        if (ippBuf.hasArray()) {
+            header = ippBuf.array();
+            offset = ippBuf.arrayOffset() + ippBuf.position();
+        } else {
+            header = new byte[length];
+            ippBuf.duplicate().get(header);
+            offset = 0;
+        }
+        if (documentStream == null) {
+            return new ByteArrayEntity(header, offset, length, IPP_MIME_TYPE);
+        }
+        if (documentStream instanceof FileDocumentStream) {
+            // the file is transferred without heap copies and with known length
+            return new FileDocumentEntity(header, offset, length, (FileDocumentStream) documentStream);
         }
 
+        // If we need to send a document, concatenate InputStreams
+        InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream(header, offset, length), documentStream);
         // set length to -1 to advice the entity to read until EOF
         return new InputStreamEntity(inputStream, -1, IPP_MIME_TYPE);
     }
@@ -94,6 +148,122 @@ public abstract class IppOperation {
         return sendRequest(printer, url, getIppHeader(url, map), document, creds);
     }
 
+    /**
+     * Sends a request without blocking the calling thread. The response is
+     * decoded with {@link IppResponse} as soon as it is completely received.
+     * Like {@link #request(CupsPrinter, URL, Map, CupsAuthentication)} the
+     * future fails with an {@link IOException} on HTTP errors.
+     *
+     * @param printer target printer or null
+     * @param url     printer-uri
+     * @param map     attributes
+     * @param creds   credentials
+     * @return future of the result
+     */
+    public CompletableFuture<IppResult> requestAsync(CupsPrinter printer, URL url, Map<String, String> map,
+                                                     CupsAuthentication creds) {
+        return requestAsync(printer, url, map, null, creds).thenApply(result -> {
+            if (result != null && result.getHttpStatusCode() >= 300) {
+                throw new CompletionException(
+                        new IOException("HTTP error! Status code:  " + result.getHttpStatusResponse()));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Sends a request with an optional document without blocking the calling
+     * thread. An {@link IppAsyncTransport} must be set before.
+     *
+     * @param printer  target printer or null
+     * @param url      printer-uri
+     * @param map      attributes
+     * @param document document or null
+     * @param creds    credentials
+     * @return future of the result
+     */
+    public CompletableFuture<IppResult> requestAsync(CupsPrinter printer, URL url, Map<String, String> map,
+                                                     InputStream document, CupsAuthentication creds) {
+        if (asyncTransport == null) {
+            throw new IllegalStateException("no async transport set for " + getClass().getSimpleName());
+        }
+        CompletableFuture<IppResult> future = new CompletableFuture<>();
+        try {
+            ByteBuffer ippBuf = getIppHeader(url, map);
+            if (ippBuf == null || url == null) {
+                future.complete(null);
+                return future;
+            }
+            HttpRequest request = new BasicHttpRequest(Method.POST, toServiceUri(url));
+            IppHttp.addHttpHeaders(request, printer, creds);
+            return asyncTransport.execute(request, new IppEntityProducer(ippBuf, document))
+                    .thenApply(response -> toIppResult(ippBuf, response));
+        } catch (IOException | URISyntaxException ex) {
+            future.completeExceptionally(ex);
+            return future;
+        }
+    }
+
+    private static IppResult toIppResult(ByteBuffer ippBuf, IppHttpResult response) {
+        try {
+            IppResult ippResult = IppResponse.getInstance().getResponse(response.getBody());
+            ippResult.setHttpStatusResponse(response.getStatusLine());
+            ippResult.setHttpStatusCode(response.getStatusCode());
+            checkRequestId(ippBuf, ippResult);
+            return ippResult;
+        } catch (IOException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    /**
+     * Sends a request and streams the response. Each attribute group is handed
+     * to the given handler as soon as it is decoded, so the response is
+     * neither buffered nor collected in the returned result.
+     *
+     * @param printer      target printer
+     * @param url          printer-uri
+     * @param map          attributes
+     * @param creds        credentials
+     * @param groupHandler handler for the attribute groups of the response
+     * @return result with status information but without attribute groups
+     * @throws Exception
+     */
+    public IppResult request(CupsPrinter printer, URL url, Map<String, String> map, CupsAuthentication creds,
+                             AttributeGroupHandler groupHandler) throws Exception {
+        ByteBuffer ippBuf = getIppHeader(url, map);
+        if (ippBuf == null || url == null) {
+            return null;
+        }
+
+        CloseableHttpClient client = getHttpClient();
+        HttpPost httpPost = createHttpPost(printer, url, ippBuf, null, creds);
+
+        HttpClientResponseHandler<IppResult> handler = response -> {
+            IppResult ippResult = new IppResult();
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                try (IppResponseReader reader = new IppResponseReader(getResponseBodyPolicy().open(entity))) {
+                    ippResult = reader.readHeader();
+                    for (AttributeGroup group = reader.nextAttributeGroup(); group != null;
+                         group = reader.nextAttributeGroup()) {
+                        groupHandler.handle(group);
+                    }
+                }
+            }
+            ippResult.setHttpStatusResponse(new StatusLine(response).toString());
+            ippResult.setHttpStatusCode(response.getCode());
+            return ippResult;
+        };
+
+        IppResult result = client.execute(httpPost, handler);
+        checkRequestId(ippBuf, result);
+        if (result.getHttpStatusCode() >= 300) {
+            throw new IOException("HTTP error! Status code:  " + result.getHttpStatusResponse());
+        }
+        return result;
+    }
+
     /**
      * Gets the IPP header
      *
@@ -108,8 +278,8 @@ public abstract class IppOperation {
             return null;
         }
 
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
         ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(url));
 
         if (map == null) {
@@ -171,45 +341,116 @@ public abstract class IppOperation {
         }
 
         final IppHttpResult ippHttpResult;
-        byte[] result;
-        CloseableHttpClient client = IppHttp.createHttpClient();
-
-        HttpPost httpPost = new HttpPost(new URI("http://" + url.getHost() + ':' + ippPort) + url.getPath());
-        IppHttp.setHttpHeaders(httpPost, printer, creds);
-
-        byte[] bytes = new byte[ippBuf.limit()];
-        ippBuf.get(bytes);
-
-        InputStreamEntity requestEntity = getInputStreamEntity(documentStream, bytes);
-        httpPost.setEntity(requestEntity);
+        ByteBuffer result;
+        CloseableHttpClient client = getHttpClient();
+        HttpPost httpPost = createHttpPost(printer, url, ippBuf, documentStream, creds);
 
         ippHttpResult = new IppHttpResult();
         ippHttpResult.setStatusCode(-1);
 
-        HttpClientResponseHandler<byte[]> handler = response -> {
-            HttpEntity entity = response.getEntity();
+        HttpClientResponseHandler<ByteBuffer> handler = response -> {
             ippHttpResult.setStatusLine(new StatusLine(response).toString());
             ippHttpResult.setStatusCode(response.getCode());
-            if (entity != null) {
-                return EntityUtils.toByteArray(entity);
-            } else {
-                return null;
-            }
+            return getResponseBodyPolicy().read(response.getEntity());
         };
 
         result = client.execute(httpPost, handler);
 
-        IppResponse ippResponse = new IppResponse();
+        IppResponse ippResponse = IppResponse.getInstance();
 
-        IppResult ippResult = ippResponse.getResponse(ByteBuffer.wrap(result));
+        IppResult ippResult = ippResponse.getResponse(result);
         ippResult.setHttpStatusResponse(ippHttpResult.getStatusLine());
         ippResult.setHttpStatusCode(ippHttpResult.getStatusCode());
+        checkRequestId(ippBuf, ippResult);
 
         return ippResult;
     }
 
+    private HttpPost createHttpPost(CupsPrinter printer, URL url, ByteBuffer ippBuf, InputStream documentStream,
+                                    CupsAuthentication creds) throws URISyntaxException {
+        HttpPost httpPost = new HttpPost(toServiceUri(url));
+        setHttpHeaders(httpPost, printer, creds);
+
+        httpPost.setEntity(createRequestEntity(ippBuf, documentStream));
+        return httpPost;
+    }
+
+    private URI toServiceUri(URL url) throws URISyntaxException {
+        return new URI("http://" + url.getHost() + ':' + ippPort + url.getPath());
+    }
+
+    /**
+     * @return HTTP client of the transport or the shared client
+     */
+    protected CloseableHttpClient getHttpClient() {
+        return (transport == null) ? IppHttp.createHttpClient() : transport.getHttpClient();
+    }
+
+    /**
+     * @return response body policy of the transport or the default policy
+     */
+    protected ResponseBodyPolicy getResponseBodyPolicy() {
+        return (transport == null) ? ResponseBodyPolicy.DEFAULT : transport.getResponseBodyPolicy();
+    }
+
+    /**
+     * Sets the HTTP headers and the request settings of the transport.
+     *
+     * @param httpPost      request
+     * @param targetPrinter printer or null
+     * @param creds         credentials
+     */
+    protected void setHttpHeaders(HttpPost httpPost, CupsPrinter targetPrinter, CupsAuthentication creds) {
+        IppHttp.setHttpHeaders(httpPost, targetPrinter, creds);
+        if (transport != null) {
+            transport.configure(httpPost);
+        }
+    }
+
+    /**
+     * Passes the request id generator and the transport of this operation
+     * on to the given operation.
+     *
+     * @param operation operation to be configured
+     * @param <T>       type of the operation
+     * @return the operation
+     */
+    protected <T extends IppOperation> T configure(T operation) {
+        operation.setRequestIdGenerator(requestIdGenerator);
+        operation.setTransport(transport);
+        operation.setAsyncTransport(asyncTransport);
+        return operation;
+    }
+
+    /**
+     * Passes the request id generator and the transport of this operation
+     * on to the given printer.
+     *
+     * @param printer printer returned by this operation
+     */
+    protected void configure(CupsPrinter printer) {
+        printer.configure(requestIdGenerator, transport);
+    }
+
+    /**
+     * @return the next request id for this operation
+     */
+    protected int nextRequestId() {
+        return requestIdGenerator.nextRequestId();
+    }
+
     protected String getAttributeValue(Attribute attr) {
         return attr.getAttributeValues().get(0).getValue();
     }
 
+    /**
+     * Handler for the attribute groups of a streamed response.
+     */
+    @FunctionalInterface
+    public interface AttributeGroupHandler {
+
+        void handle(AttributeGroup group) throws IOException;
+
+    }
+
 }
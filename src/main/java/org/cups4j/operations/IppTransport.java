@@ -0,0 +1,84 @@
+package org.cups4j.operations;
+
+import lombok.Getter;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * HTTP client with its own connection pool, built from an
+ * {@link IppTransportConfig}.
+ * <p>
+ * Every {@link org.cups4j.CupsClient} created with a transport configuration
+ * owns such a transport. So a slow CUPS server only exhausts the connections
+ * of its own client and cannot block the traffic of other clients.
+ * </p>
+ */
+public class IppTransport implements Closeable {
+
+    @Getter
+    private final IppTransportConfig config;
+    @Getter
+    private final ResponseBodyPolicy responseBodyPolicy;
+    @Getter
+    private final CloseableHttpClient httpClient;
+    @Getter
+    private final RequestConfig requestConfig;
+
+    public IppTransport(IppTransportConfig config) {
+        this.config = config;
+        this.responseBodyPolicy = new ResponseBodyPolicy(config);
+        this.requestConfig = RequestConfig.custom().setResponseTimeout(config.getResponseTimeout()).build();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(config.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(config.getConnectTimeout())
+                        .setSocketTimeout(config.getSocketTimeout())
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setTcpNoDelay(config.isTcpNoDelay())
+                        .setSoKeepAlive(config.isSoKeepAlive())
+                        .setSoTimeout(config.getSocketTimeout())
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getIdleTimeout())
+                .setRetryStrategy(DefaultHttpRequestRetryStrategy.INSTANCE)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    /**
+     * Applies the request settings of this transport to the given request.
+     *
+     * @param httpPost request
+     */
+    public void configure(HttpPost httpPost) {
+        httpPost.setConfig(requestConfig);
+    }
+
+    /**
+     * Closes the connection pool of this transport.
+     *
+     * @throws IOException in case of errors
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.cups4j.operations;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for the HTTP transport of a {@link org.cups4j.CupsClient}.
+ * <p>
+ * Unset values fall back to the defaults of the shared client in
+ * {@link IppHttp}, i.e. to the system properties 'cups4j.timeout',
+ * 'cups4j.maxConnectionsPerRoute', 'cups4j.maxConnectionsTotal',
+ * 'cups4j.idleTimeout', 'cups4j.maxResponseSize' and
+ * 'cups4j.responseHeapThreshold'.
+ * </p>
+ * <pre>
+ * IppTransportConfig config = IppTransportConfig.builder()
+ *         .maxConnectionsPerRoute(50)
+ *         .responseTimeout(Timeout.ofSeconds(30))
+ *         .build();
+ * </pre>
+ */
+@Getter
+@Builder
+public class IppTransportConfig {
+
+    @Builder.Default
+    private final int maxConnectionsPerRoute = IppHttp.MAX_CONNECTIONS_PER_ROUTE;
+
+    @Builder.Default
+    private final int maxConnectionsTotal = IppHttp.MAX_CONNECTIONS_TOTAL;
+
+    /**
+     * Idle connections are kept alive for reuse and closed after this time.
+     */
+    @Builder.Default
+    private final TimeValue idleTimeout = IppHttp.IDLE_TIMEOUT;
+
+    @Builder.Default
+    private final Timeout connectTimeout = IppHttp.CUPS_TIMEOUT;
+
+    @Builder.Default
+    private final Timeout socketTimeout = IppHttp.CUPS_TIMEOUT;
+
+    @Builder.Default
+    private final Timeout responseTimeout = IppHttp.CUPS_TIMEOUT;
+
+    @Builder.Default
+    private final boolean tcpNoDelay = true;
+
+    @Builder.Default
+    private final boolean soKeepAlive = false;
+
+    /**
+     * Larger responses are rejected with an IOException.
+     */
+    @Builder.Default
+    private final long maxResponseSize = IppHttp.MAX_RESPONSE_SIZE;
+
+    /**
+     * Larger responses are spilled to a memory mapped temporary file.
+     */
+    @Builder.Default
+    private final int responseHeapThreshold = IppHttp.RESPONSE_HEAP_THRESHOLD;
+
+    /**
+     * Directory of the temporary response files, null for the default
+     * temporary-file directory.
+     */
+    private final Path responseSpillDirectory;
+
+}
@@ -0,0 +1,34 @@
+package org.cups4j.operations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread safe source of IPP request ids.
+ * <p>
+ * A request id must be in the range 1..2^31-1 (RFC 8011, 4.1.1). The ids
+ * wrap around to 1 after the maximum. Every {@link org.cups4j.CupsClient}
+ * owns its own generator, so clients neither share ids nor contend on the
+ * same counter.
+ * </p>
+ */
+public final class RequestIdGenerator {
+
+    private static final RequestIdGenerator DEFAULT = new RequestIdGenerator();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * @return generator for operations which are not bound to a client
+     */
+    public static RequestIdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the next request id, never 0
+     */
+    public int nextRequestId() {
+        return counter.updateAndGet(id -> (id == Integer.MAX_VALUE) ? 1 : id + 1);
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.cups4j.operations;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Body of an IPP response which is collected according to a
+ * {@link ResponseBodyPolicy}: on the heap as long as it is below the heap
+ * threshold, in a temporary file otherwise.
+ */
+public class ResponseBody implements Closeable {
+
+    private final ResponseBodyPolicy policy;
+    private byte[] heap;
+    // temporary file, deleted when the channel is closed
+    private FileChannel file;
+    private long size = 0;
+
+    ResponseBody(ResponseBodyPolicy policy, long contentLength) throws IOException {
+        this.policy = policy;
+        if (contentLength > policy.getHeapThreshold()) {
+            spill();
+        } else {
+            heap = new byte[(contentLength >= 0) ? (int) contentLength : Math.min(8192, policy.getHeapThreshold())];
+        }
+    }
+
+    /**
+     * Appends the remaining bytes of the given buffer.
+     *
+     * @param src data
+     * @throws IOException if the maximal size is exceeded or the temporary
+     *                     file cannot be written
+     */
+    public void write(ByteBuffer src) throws IOException {
+        int length = src.remaining();
+        if (size + length > policy.getMaxSize()) {
+            throw new IOException("IPP response exceeds the maximum of " + policy.getMaxSize() + " bytes");
+        }
+        if (file == null && size + length > policy.getHeapThreshold()) {
+            spill();
+        }
+        if (file == null) {
+            if (size + length > heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(Math.max(heap.length * 2L, size + length),
+                        policy.getHeapThreshold()));
+            }
+            src.get(heap, (int) size, length);
+        } else {
+            while (src.hasRemaining()) {
+                file.write(src);
+            }
+        }
+        size += length;
+    }
+
+    private void spill() throws IOException {
+        Path directory = policy.getSpillDirectory();
+        Path path = (directory == null) ? Files.createTempFile("cups4j", ".ipp")
+                : Files.createTempFile(directory, "cups4j", ".ipp");
+        file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        if (heap != null) {
+            file.write(ByteBuffer.wrap(heap, 0, (int) size));
+            heap = null;
+        }
+    }
+
+    /**
+     * Returns the collected body. A spilled body is mapped into memory, the
+     * mapping stays valid after the temporary file was deleted.
+     *
+     * @return body (read mode)
+     * @throws IOException if the temporary file cannot be mapped
+     */
+    public ByteBuffer toByteBuffer() throws IOException {
+        if (file == null) {
+            return ByteBuffer.wrap(heap, 0, (int) size).slice();
+        }
+        try {
+            return file.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Deletes the temporary file, if any.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+}
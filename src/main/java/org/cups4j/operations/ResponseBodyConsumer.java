@@ -0,0 +1,70 @@
+package org.cups4j.operations;
+
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.StatusLine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Collects the response of an async request according to a
+ * {@link ResponseBodyPolicy}, as counterpart of the
+ * {@link ResponseBodyPolicy#read(org.apache.hc.core5.http.HttpEntity)} of
+ * the blocking requests.
+ */
+class ResponseBodyConsumer extends AbstractBinResponseConsumer<IppHttpResult> {
+
+    private final ResponseBodyPolicy policy;
+    private IppHttpResult result;
+    private ResponseBody body;
+
+    ResponseBodyConsumer(ResponseBodyPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) throws IOException {
+        result = new IppHttpResult();
+        result.setStatusLine(new StatusLine(response).toString());
+        result.setStatusCode(response.getCode());
+        Header contentLength = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+        body = policy.newBody((contentLength == null) ? -1 : Long.parseLong(contentLength.getValue()));
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+        body.write(src);
+        if (endOfStream) {
+            result.setBody(body.toByteBuffer());
+        }
+    }
+
+    @Override
+    protected IppHttpResult buildResult() {
+        if (result.getBody() == null) {
+            result.setBody(ByteBuffer.allocate(0));
+        }
+        return result;
+    }
+
+    @Override
+    public void releaseResources() {
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+            }
+            body = null;
+        }
+    }
+
+}
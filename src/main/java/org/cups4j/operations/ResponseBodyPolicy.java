@@ -0,0 +1,163 @@
+package org.cups4j.operations;
+
+import lombok.Getter;
+import org.apache.hc.core5.http.HttpEntity;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Limits the memory used for the body of an IPP response.
+ * <p>
+ * Responses up to the heap threshold are read into a byte array. Larger
+ * responses are spilled to a temporary file which is mapped into memory and
+ * decoded from there by {@link ch.ethz.vppserver.ippclient.IppResponse}, so
+ * they do not occupy the heap. Responses above the maximal size are rejected
+ * with an {@link IOException} instead of exhausting the memory. Responses
+ * which are decoded group by group while they arrive are only checked
+ * against the maximal size.
+ * </p>
+ *
+ * @see IppTransportConfig#getMaxResponseSize()
+ * @see IppTransportConfig#getResponseHeapThreshold()
+ */
+@Getter
+public class ResponseBodyPolicy {
+
+    /**
+     * Policy of the shared client, see the system properties
+     * 'cups4j.maxResponseSize' and 'cups4j.responseHeapThreshold'.
+     */
+    public static final ResponseBodyPolicy DEFAULT = new ResponseBodyPolicy(IppHttp.MAX_RESPONSE_SIZE,
+            IppHttp.RESPONSE_HEAP_THRESHOLD, null);
+
+    private final long maxSize;
+    private final int heapThreshold;
+    // null for the default temporary-file directory
+    private final Path spillDirectory;
+
+    /**
+     * @param maxSize        maximal size of a response body in bytes
+     *                       (mapped files are limited to 2 GB)
+     * @param heapThreshold  bodies above this size are spilled to a file
+     * @param spillDirectory directory of the temporary files, null for the
+     *                       default temporary-file directory
+     */
+    public ResponseBodyPolicy(long maxSize, int heapThreshold, Path spillDirectory) {
+        this.maxSize = Math.min(maxSize, Integer.MAX_VALUE);
+        this.heapThreshold = (int) Math.min(heapThreshold, this.maxSize);
+        this.spillDirectory = spillDirectory;
+    }
+
+    public ResponseBodyPolicy(IppTransportConfig config) {
+        this(config.getMaxResponseSize(), config.getResponseHeapThreshold(), config.getResponseSpillDirectory());
+    }
+
+    /**
+     * Creates an empty body.
+     *
+     * @param contentLength announced length of the body, -1 if unknown
+     * @return body to be filled
+     * @throws IOException if the announced length exceeds the maximal size
+     */
+    public ResponseBody newBody(long contentLength) throws IOException {
+        checkContentLength(contentLength);
+        return new ResponseBody(this, contentLength);
+    }
+
+    /**
+     * Reads the content of the entity.
+     *
+     * @param entity response entity or null
+     * @return body (read mode), empty if there is no entity
+     * @throws IOException if the response is too large or cannot be read
+     */
+    public ByteBuffer read(HttpEntity entity) throws IOException {
+        if (entity == null) {
+            return ByteBuffer.allocate(0);
+        }
+        try (ResponseBody body = newBody(entity.getContentLength()); InputStream in = entity.getContent()) {
+            byte[] buffer = new byte[8192];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                body.write(ByteBuffer.wrap(buffer, 0, n));
+            }
+            return body.toByteBuffer();
+        }
+    }
+
+    /**
+     * Opens the content of the entity for decoding while it arrives. The
+     * content is not buffered, reading beyond the maximal size fails.
+     *
+     * @param entity response entity
+     * @return content limited to the maximal size
+     * @throws IOException if the announced length exceeds the maximal size
+     */
+    public InputStream open(HttpEntity entity) throws IOException {
+        checkContentLength(entity.getContentLength());
+        return new LimitedInputStream(entity.getContent(), maxSize);
+    }
+
+    private void checkContentLength(long contentLength) throws IOException {
+        if (contentLength > maxSize) {
+            throw new IOException("IPP response of " + contentLength + " bytes exceeds the maximum of " + maxSize
+                    + " bytes");
+        }
+    }
+
+    /**
+     * Counts the bytes read and fails as soon as they exceed the limit.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("IPP response exceeds the maximum of " + limit + " bytes");
+            }
+        }
+
+    }
+
+}
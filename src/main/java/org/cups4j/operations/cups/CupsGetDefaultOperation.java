@@ -40,7 +40,7 @@ public class CupsGetDefaultOperation extends IppOperation {
 
     public CupsPrinter getDefaultPrinter(String hostname, int port, CupsAuthentication creds) throws Exception {
         CupsPrinter defaultPrinter = null;
-        CupsGetDefaultOperation command = new CupsGetDefaultOperation(port);
+        CupsGetDefaultOperation command = configure(new CupsGetDefaultOperation(port));
 
         HashMap<String, String> map = new HashMap<>();
         map.put("requested-attributes", "printer-name printer-uri-supported printer-location");
@@ -68,6 +68,7 @@ public class CupsGetDefaultOperation extends IppOperation {
                 }
                 defaultPrinter = new CupsPrinter(creds, new URL(printerURL), printerName);
                 defaultPrinter.setDefault(true);
+                configure(defaultPrinter);
                 defaultPrinter.setLocation(location);
             }
         }
@@ -16,28 +16,38 @@ package org.cups4j.operations.cups;
  */
 
 import ch.ethz.vppserver.ippclient.IppResult;
+import ch.ethz.vppserver.ippclient.IppTag;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.cups4j.CupsAuthentication;
 import org.cups4j.CupsPrinter;
+import org.cups4j.PrinterFieldEnum;
+import org.cups4j.PrinterQuery;
 import org.cups4j.PrinterStateEnum;
 import org.cups4j.ipp.attributes.Attribute;
 import org.cups4j.ipp.attributes.AttributeGroup;
 import org.cups4j.ipp.attributes.AttributeValue;
 import org.cups4j.operations.IppOperation;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 
 @Slf4j
 public class CupsGetPrintersOperation extends IppOperation {
 
+    // the attributes which are mapped to a CupsPrinter
+    public static final String REQUESTED_ATTRIBUTES = "copies-supported page-ranges-supported printer-name printer-info printer-state printer-location printer-make-and-model printer-uri-supported media-supported media-default sides-supported sides-default orientation-requested-supported printer-resolution-supported printer printer-resolution-default number-up-default number-up-supported document-format-supported print-color-mode-supported print-color-mode-default device-uri";
+
     public CupsGetPrintersOperation() {
         operationID = 0x4002;
         bufferSize = 8192;
@@ -49,132 +59,336 @@ public class CupsGetPrintersOperation extends IppOperation {
     }
 
     public List<CupsPrinter> getPrinters(String hostname, int port, CupsAuthentication creds) throws Exception {
-        List<CupsPrinter> printers = new ArrayList<>();
+        return getPrinters(hostname, port, creds, null);
+    }
 
-        Map<String, String> map = new HashMap<>();
-        map.put("requested-attributes",
-                "copies-supported page-ranges-supported printer-name printer-info printer-state printer-location printer-make-and-model printer-uri-supported media-supported media-default sides-supported sides-default orientation-requested-supported printer-resolution-supported printer printer-resolution-default number-up-default number-up-supported document-format-supported print-color-mode-supported print-color-mode-default device-uri");
+    /**
+     * Gets the printers with the given fields only. Smaller projections
+     * shrink the response, e.g. media-supported and document-format-supported
+     * have hundreds of values per printer.
+     *
+     * @param hostname CUPS server
+     * @param port     port of the CUPS server
+     * @param creds    credentials
+     * @param fields   projection, null for all fields
+     * @return printers
+     * @throws Exception in case of errors
+     */
+    public List<CupsPrinter> getPrinters(String hostname, int port, CupsAuthentication creds,
+                                         Set<PrinterFieldEnum> fields) throws Exception {
         this.ippPort = port;
+        IppResult result = request(null, new URL("http://" + hostname + ':' + port + "/printers"),
+                createAttributeMap(fields), creds);
+        return toPrinters(result, hostname, port, creds, fields);
+    }
 
-        IppResult result = request(null, new URL("http://" + hostname + ':' + port + "/printers"), map, creds);
+    /**
+     * Gets the printers without blocking the calling thread.
+     *
+     * @see #getPrinters(String, int, CupsAuthentication)
+     */
+    public CompletableFuture<List<CupsPrinter>> getPrintersAsync(String hostname, int port, CupsAuthentication creds)
+            throws Exception {
+        this.ippPort = port;
+        return requestAsync(null, new URL("http://" + hostname + ':' + port + "/printers"), createAttributeMap(null), creds)
+                .thenApply(result -> {
+                    try {
+                        return toPrinters(result, hostname, port, creds, null);
+                    } catch (Exception ex) {
+                        throw new CompletionException(ex);
+                    }
+                });
+    }
 
-        for (AttributeGroup group : result.getAttributeGroupList()) {
+    /**
+     * Streams the printers matching the given query. The printers are
+     * requested lazily page by page with first-printer-name and limit, and
+     * each response is decoded while it is read. So only one page of printers
+     * is held in memory.
+     *
+     * @param hostname CUPS server
+     * @param port     port of the CUPS server
+     * @param creds    credentials
+     * @param query    filter and paging of the printers
+     * @return printers sorted by name
+     */
+    public Stream<CupsPrinter> streamPrinters(String hostname, int port, CupsAuthentication creds, PrinterQuery query) {
+        this.ippPort = port;
+        Iterator<CupsPrinter> iterator = new PageIterator(hostname, port, creds, query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Gets one page of printers.
+     *
+     * @param hostname         CUPS server
+     * @param port             port of the CUPS server
+     * @param creds            credentials
+     * @param query            filter of the printers
+     * @param firstPrinterName name of the first printer (inclusive) or null
+     * @param limit            maximal number of printers
+     * @return printers of the page
+     * @throws Exception in case of errors
+     */
+    public List<CupsPrinter> getPrinters(String hostname, int port, CupsAuthentication creds, PrinterQuery query,
+                                         String firstPrinterName, int limit) throws Exception {
+        Map<String, String> map = createAttributeMap(query.getFields());
+        map.put("limit", Integer.toString(limit));
+        if (firstPrinterName != null) {
+            map.put("first-printer-name", firstPrinterName);
+        }
+        if (query.getPrinterType() != null) {
+            map.put("printer-type", Integer.toString(query.getPrinterType()));
+        }
+        if (query.getPrinterTypeMask() != null) {
+            map.put("printer-type-mask", Integer.toString(query.getPrinterTypeMask()));
+        }
+        this.ippPort = port;
+
+        List<CupsPrinter> printers = new ArrayList<>();
+        request(null, new URL("http://" + hostname + ':' + port + "/printers"), map, creds, group -> {
             if (group.getTagName().equals("printer-attributes-tag")) {
-                String printerURI = null;
-                String printerName = null;
-                String printerLocation = null;
-                String printerDescription = null;
-                PrinterStateEnum printerState = null;
-                List<String> mediaSupportedList = new ArrayList<>();
-                String mediaDefault = null;
-                List<String> printerResolutionSupported = new ArrayList<>();
-                String printerResolutionDefault = null;
-                List<String> printerColorModeSupported = new ArrayList<>();
-                String printerColorModeDefault = null;
-                List<String> mimeTypesSupported = new ArrayList<>();
-                String sidesDefault = null;
-                List<String> sidesSupported = new ArrayList<>();
-                String numberUpDefault = null;
-                List<String> numberUpSupported = new ArrayList<>();
-                String deviceURI = null;
-                String printerMakeAndModel = null;
-
-                for (Attribute attr : group.getAttributes()) {
-                    switch (attr.getName()) {
-                        case "printer-uri-supported":
-                            printerURI = getAttributeValue(attr).replace("ipp://", "http://");
-                            printerURI = StringUtils.remove(printerURI, "http://");
-                            printerURI = StringUtils.substringAfter(printerURI, "/");
-                            printerURI = "http://" + hostname + ':' + port + "/" + printerURI;
-                            break;
-                        case "printer-name":
-                            printerName = getAttributeValue(attr);
-                            break;
-                        case "printer-location":
-                            printerLocation = getAttributeValue(attr);
-                            break;
-                        case "printer-info":
-                            printerDescription = getAttributeValue(attr);
-                            break;
-                        case "device-uri":
-                            deviceURI = getAttributeValue(attr);
-                            break;
-                        case "printer-state":
-                            printerState = PrinterStateEnum.fromStringInteger(getAttributeValue(attr));
-                            break;
-                        case "media-default":
-                            mediaDefault = getAttributeValue(attr);
-                            break;
-                        case "media-supported":
-                            mediaSupportedList = getAttributeValues(attr);
-                            break;
-                        case "number-up-default":
-                            numberUpDefault = getAttributeValue(attr);
-                            break;
-                        case "number-up-supported":
-                            numberUpSupported = getAttributeValues(attr);
-                            break;
-                        case "printer-resolution-default":
-                            printerResolutionDefault = getAttributeValue(attr);
-                            break;
-                        case "printer-resolution-supported":
-                            printerResolutionSupported = getAttributeValues(attr);
-                            break;
-                        case "print-color-mode-default":
-                            printerColorModeDefault = getAttributeValue(attr);
-                            break;
-                        case "print-color-mode-supported":
-                            printerColorModeSupported = getAttributeValues(attr);
-                            break;
-                        case "document-format-supported":
-                            mimeTypesSupported = getAttributeValues(attr);
-                            break;
-                        case "sides-supported":
-                            sidesSupported = getAttributeValues(attr);
-                            break;
-                        case "sides-default":
-                            sidesDefault = getAttributeValue(attr);
-                            break;
-                        case "printer-make-and-model":
-                            printerMakeAndModel = getAttributeValue(attr);
-                            break;
-                    }
-                }
-                URL printerUrl;
                 try {
-                    printerUrl = new URL(printerURI);
-                } catch (Throwable t) {
-                    log.error("Error encountered building URL from printer uri of printer {}," +
-                                    " uri returned was [{}].  Attribute group tag/description: [{}/{}]",
-                            printerName, printerURI, group.getTagName(), group.getDescription(), t);
-                    throw new Exception(t);
+                    printers.add(toPrinter(group, hostname, port, creds, query.getFields()));
+                } catch (Exception ex) {
+                    throw new IOException("invalid printer in " + group, ex);
                 }
+            }
+        });
+        return printers;
+    }
+
+    /**
+     * @param url printer-uri
+     * @param map attributes i.e. requesting-user-name,limit,requested-attributes,
+     *            first-printer-name,printer-type,printer-type-mask
+     * @return IPP header
+     * @throws UnsupportedEncodingException
+     */
+    @Override
+    public ByteBuffer getIppHeader(URL url, Map<String, String> map) throws UnsupportedEncodingException {
+        if (map == null || !(map.containsKey("first-printer-name") || map.containsKey("printer-type")
+                || map.containsKey("printer-type-mask"))) {
+            return super.getIppHeader(url, map);
+        }
+
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
+        ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(url));
+        ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name", map.get("requesting-user-name"));
+
+        if (map.containsKey("first-printer-name")) {
+            ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "first-printer-name", map.get("first-printer-name"));
+        }
+
+        if (map.containsKey("limit")) {
+            int value = Integer.parseInt(map.get("limit"));
+            ippBuf = IppTag.getInteger(ippBuf, "limit", value);
+        }
+
+        if (map.containsKey("printer-type")) {
+            int value = Integer.parseInt(map.get("printer-type"));
+            ippBuf = IppTag.getEnum(ippBuf, "printer-type", value);
+        }
+
+        if (map.containsKey("printer-type-mask")) {
+            int value = Integer.parseInt(map.get("printer-type-mask"));
+            ippBuf = IppTag.getEnum(ippBuf, "printer-type-mask", value);
+        }
+
+        if (map.containsKey("requested-attributes")) {
+            String[] sta = map.get("requested-attributes").split(" ");
+            ippBuf = IppTag.getKeyword(ippBuf, "requested-attributes", sta[0]);
+            int l = sta.length;
+            for (int i = 1; i < l; i++) {
+                ippBuf = IppTag.getKeyword(ippBuf, null, sta[i]);
+            }
+        }
+
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        return ippBuf;
+    }
+
+    private static Map<String, String> createAttributeMap(Set<PrinterFieldEnum> fields) {
+        Map<String, String> map = new HashMap<>();
+        map.put("requested-attributes",
+                (fields == null) ? REQUESTED_ATTRIBUTES : PrinterFieldEnum.toRequestedAttributes(fields));
+        return map;
+    }
+
+    private List<CupsPrinter> toPrinters(IppResult result, String hostname, int port, CupsAuthentication creds,
+                                         Set<PrinterFieldEnum> fields) throws Exception {
+        List<CupsPrinter> printers = new ArrayList<>();
 
-                CupsPrinter printer = new CupsPrinter(creds, printerUrl, printerName);
-                printer.setState(printerState);
-                printer.setLocation(printerLocation);
-                printer.setDescription(printerDescription);
-                printer.setDeviceUri(deviceURI);
-                printer.setMediaDefault(mediaDefault);
-                printer.setMediaSupported(mediaSupportedList);
-                printer.setResolutionDefault(printerResolutionDefault);
-                printer.setResolutionSupported(printerResolutionSupported);
-                printer.setColorModeDefault(printerColorModeDefault);
-                printer.setColorModeSupported(printerColorModeSupported);
-                printer.setMimeTypesSupported(mimeTypesSupported);
-                printer.setSidesDefault(sidesDefault);
-                printer.setSidesSupported(sidesSupported);
-                printer.setNumberUpDefault(numberUpDefault);
-                printer.setNumberUpSupported(numberUpSupported);
-                printer.setMakeAndModel(printerMakeAndModel);
-
-                printers.add(printer);
+        for (AttributeGroup group : result.getAttributeGroupList()) {
+            if (group.getTagName().equals("printer-attributes-tag")) {
+                printers.add(toPrinter(group, hostname, port, creds, fields));
             }
         }
 
         return printers;
     }
 
+    /**
+     * Maps the printer-attributes group of a CUPS-Get-Printers or
+     * Get-Printer-Attributes response to a printer.
+     *
+     * @param group    printer-attributes-tag group
+     * @param hostname host of the printer URL
+     * @param port     port of the printer URL
+     * @param creds    credentials of the printer
+     * @return printer
+     * @throws Exception if the printer uri is invalid
+     */
+    public CupsPrinter toPrinter(AttributeGroup group, String hostname, int port, CupsAuthentication creds)
+            throws Exception {
+        return toPrinter(group, hostname, port, creds, null);
+    }
+
+    /**
+     * Maps the attributes of the given fields to a printer. Other attributes
+     * of the group are ignored.
+     *
+     * @param group    printer-attributes-tag group
+     * @param hostname host of the printer URL
+     * @param port     port of the printer URL
+     * @param creds    credentials of the printer
+     * @param fields   projection, null for all fields
+     * @return printer
+     * @throws Exception if the printer uri is invalid
+     */
+    public CupsPrinter toPrinter(AttributeGroup group, String hostname, int port, CupsAuthentication creds,
+                                 Set<PrinterFieldEnum> fields) throws Exception {
+        String printerURI = null;
+        String printerName = null;
+        String printerLocation = null;
+        String printerDescription = null;
+        PrinterStateEnum printerState = null;
+        List<String> mediaSupportedList = new ArrayList<>();
+        String mediaDefault = null;
+        List<String> printerResolutionSupported = new ArrayList<>();
+        String printerResolutionDefault = null;
+        List<String> printerColorModeSupported = new ArrayList<>();
+        String printerColorModeDefault = null;
+        List<String> mimeTypesSupported = new ArrayList<>();
+        String sidesDefault = null;
+        List<String> sidesSupported = new ArrayList<>();
+        String numberUpDefault = null;
+        List<String> numberUpSupported = new ArrayList<>();
+        String deviceURI = null;
+        String printerMakeAndModel = null;
+        // stays unknown if the attribute was not requested
+        List<String> compressionSupported = null;
+
+        for (Attribute attr : group.getAttributes()) {
+            if (fields != null && !isProjected(fields, attr.getName())) {
+                continue;
+            }
+            switch (attr.getName()) {
+                case "printer-uri-supported":
+                    printerURI = getAttributeValue(attr).replace("ipp://", "http://");
+                    printerURI = StringUtils.remove(printerURI, "http://");
+                    printerURI = StringUtils.substringAfter(printerURI, "/");
+                    printerURI = "http://" + hostname + ':' + port + "/" + printerURI;
+                    break;
+                case "printer-name":
+                    printerName = getAttributeValue(attr);
+                    break;
+                case "printer-location":
+                    printerLocation = getAttributeValue(attr);
+                    break;
+                case "printer-info":
+                    printerDescription = getAttributeValue(attr);
+                    break;
+                case "device-uri":
+                    deviceURI = getAttributeValue(attr);
+                    break;
+                case "printer-state":
+                    if (isNotEmpty(attr.getAttributeValues())) {
+                        printerState = PrinterStateEnum.fromInteger(attr.getAttributeValues().get(0).asInt());
+                    }
+                    break;
+                case "media-default":
+                    mediaDefault = getAttributeValue(attr);
+                    break;
+                case "media-supported":
+                    mediaSupportedList = getAttributeValues(attr);
+                    break;
+                case "number-up-default":
+                    numberUpDefault = getAttributeValue(attr);
+                    break;
+                case "number-up-supported":
+                    numberUpSupported = getAttributeValues(attr);
+                    break;
+                case "printer-resolution-default":
+                    printerResolutionDefault = getAttributeValue(attr);
+                    break;
+                case "printer-resolution-supported":
+                    printerResolutionSupported = getAttributeValues(attr);
+                    break;
+                case "print-color-mode-default":
+                    printerColorModeDefault = getAttributeValue(attr);
+                    break;
+                case "print-color-mode-supported":
+                    printerColorModeSupported = getAttributeValues(attr);
+                    break;
+                case "document-format-supported":
+                    mimeTypesSupported = getAttributeValues(attr);
+                    break;
+                case "sides-supported":
+                    sidesSupported = getAttributeValues(attr);
+                    break;
+                case "sides-default":
+                    sidesDefault = getAttributeValue(attr);
+                    break;
+                case "printer-make-and-model":
+                    printerMakeAndModel = getAttributeValue(attr);
+                    break;
+                case "compression-supported":
+                    compressionSupported = getAttributeValues(attr);
+                    break;
+            }
+        }
+        URL printerUrl;
+        try {
+            printerUrl = new URL(printerURI);
+        } catch (Throwable t) {
+            log.error("Error encountered building URL from printer uri of printer {}," +
+                            " uri returned was [{}].  Attribute group tag/description: [{}/{}]",
+                    printerName, printerURI, group.getTagName(), group.getDescription(), t);
+            throw new Exception(t);
+        }
+
+        CupsPrinter printer = new CupsPrinter(creds, printerUrl, printerName);
+        configure(printer);
+        printer.setState(printerState);
+        printer.setLocation(printerLocation);
+        printer.setDescription(printerDescription);
+        printer.setDeviceUri(deviceURI);
+        printer.setMediaDefault(mediaDefault);
+        printer.setMediaSupported(mediaSupportedList);
+        printer.setResolutionDefault(printerResolutionDefault);
+        printer.setResolutionSupported(printerResolutionSupported);
+        printer.setColorModeDefault(printerColorModeDefault);
+        printer.setColorModeSupported(printerColorModeSupported);
+        printer.setMimeTypesSupported(mimeTypesSupported);
+        printer.setSidesDefault(sidesDefault);
+        printer.setSidesSupported(sidesSupported);
+        printer.setNumberUpDefault(numberUpDefault);
+        printer.setNumberUpSupported(numberUpSupported);
+        printer.setMakeAndModel(printerMakeAndModel);
+        printer.setCompressionSupported(compressionSupported);
+
+        return printer;
+    }
+
+    private static boolean isProjected(Set<PrinterFieldEnum> fields, String attributeName) {
+        PrinterFieldEnum field = PrinterFieldEnum.fromAttribute(attributeName);
+        return field == PrinterFieldEnum.NAME || field == PrinterFieldEnum.URI || fields.contains(field);
+    }
+
     protected List<String> getAttributeValues(Attribute attr) {
         if (attr.getAttributeValues() == null) {
             return new ArrayList<>();
@@ -189,4 +403,90 @@ public class CupsGetPrintersOperation extends IppOperation {
         }
         return result;
     }
+
+    /**
+     * Requests the next page as soon as the current page is consumed.
+     * first-printer-name is inclusive, so the following pages start with the
+     * last printer of the previous page which is skipped. A server which
+     * ignores first-printer-name or limit would return the same printers
+     * again, so paging stops if a page does not continue the previous one.
+     */
+    private final class PageIterator implements Iterator<CupsPrinter> {
+
+        private final String hostname;
+        private final int port;
+        private final CupsAuthentication creds;
+        private final PrinterQuery query;
+        private Iterator<CupsPrinter> page = Collections.emptyIterator();
+        private String lastPrinterName;
+        private boolean lastPage;
+        private int count;
+
+        private PageIterator(String hostname, int port, CupsAuthentication creds, PrinterQuery query) {
+            this.hostname = hostname;
+            this.port = port;
+            this.creds = creds;
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (query.getLimit() > 0 && count >= query.getLimit()) {
+                return false;
+            }
+            while (!page.hasNext() && !lastPage) {
+                page = nextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public CupsPrinter next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            count++;
+            return page.next();
+        }
+
+        private Iterator<CupsPrinter> nextPage() {
+            int size = query.getPageSize();
+            if (query.getLimit() > 0) {
+                size = Math.min(size, query.getLimit() - count);
+            }
+            boolean continued = lastPrinterName != null;
+            int limit = continued ? size + 1 : size;
+            List<CupsPrinter> printers;
+            try {
+                printers = getPrinters(hostname, port, creds, query,
+                        continued ? lastPrinterName : query.getFirstPrinterName(), limit);
+            } catch (Exception ex) {
+                throw new IllegalStateException("cannot get printers from " + hostname, ex);
+            }
+            // a server ignoring limit returns all remaining printers at once
+            lastPage = printers.size() != limit;
+            if (continued && !printers.isEmpty()) {
+                if (!lastPrinterName.equalsIgnoreCase(printers.get(0).getName())) {
+                    log.warn("{} does not support first-printer-name, only the first {} printers are returned.",
+                            hostname, count);
+                    lastPage = true;
+                    return Collections.emptyIterator();
+                }
+                printers.remove(0);
+            }
+            if (printers.isEmpty()) {
+                lastPage = true;
+            } else {
+                String name = printers.get(printers.size() - 1).getName();
+                if (continued && name.compareToIgnoreCase(lastPrinterName) <= 0) {
+                    log.warn("Paging of the printers of {} does not advance after {}.", hostname, lastPrinterName);
+                    lastPage = true;
+                }
+                lastPrinterName = name;
+            }
+            return printers.iterator();
+        }
+
+    }
+
 }
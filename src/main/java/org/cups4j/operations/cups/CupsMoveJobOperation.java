@@ -29,6 +29,7 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class CupsMoveJobOperation extends IppOperation {
@@ -58,8 +59,8 @@ public class CupsMoveJobOperation extends IppOperation {
             return null;
         }
 
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
 
         if (map == null) {
             ippBuf = IppTag.getEnd(ippBuf);
@@ -95,14 +96,29 @@ public class CupsMoveJobOperation extends IppOperation {
      */
     public boolean moveJob(CupsPrinter printer, String hostname, String userName, int jobID,
                            URL targetPrinterURL, CupsAuthentication creds) throws Exception {
+        URL url = new URL("http://" + hostname + "/jobs/" + jobID);
+        IppResult result = request(printer, url, createAttributeMap(url, userName, targetPrinterURL), creds);
+        return new PrintRequestResult(result).isSuccessfulResult();
+    }
+
+    /**
+     * Moves a print job without blocking the calling thread.
+     *
+     * @see #moveJob(CupsPrinter, String, String, int, URL, CupsAuthentication)
+     */
+    public CompletableFuture<Boolean> moveJobAsync(CupsPrinter printer, String hostname, String userName, int jobID,
+                                                   URL targetPrinterURL, CupsAuthentication creds) throws Exception {
+        URL url = new URL("http://" + hostname + "/jobs/" + jobID);
+        return requestAsync(printer, url, createAttributeMap(url, userName, targetPrinterURL), creds)
+                .thenApply(result -> new PrintRequestResult(result).isSuccessfulResult());
+    }
+
+    private static Map<String, String> createAttributeMap(URL url, String userName, URL targetPrinterURL) {
         Map<String, String> map = new HashMap<>();
         map.put("requesting-user-name", userName == null ? CupsClient.DEFAULT_USER : userName);
-        URL url = new URL("http://" + hostname + "/jobs/" + jobID);
         map.put("job-uri", url.toString());
         map.put("target-printer-uri", stripPortNumber(targetPrinterURL));
-
-        IppResult result = request(printer, url, map, creds);
-        return new PrintRequestResult(result).isSuccessfulResult();
+        return map;
     }
 
 }
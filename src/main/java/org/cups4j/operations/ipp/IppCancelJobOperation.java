@@ -25,10 +25,12 @@ import org.cups4j.PrintRequestResult;
 import org.cups4j.operations.IppOperation;
 
 import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class IppCancelJobOperation extends IppOperation {
@@ -59,8 +61,8 @@ public class IppCancelJobOperation extends IppOperation {
             return null;
         }
 
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
 
         if (map == null) {
             ippBuf = IppTag.getEnd(ippBuf);
@@ -98,7 +100,26 @@ public class IppCancelJobOperation extends IppOperation {
      */
     public boolean cancelJob(String hostname, String userName, int jobID,
                              CupsPrinter printer, CupsAuthentication creds) throws Exception {
+        URL urlService = new URL("http://" + hostname + ':' + ippPort + "/jobs/" + jobID);
+        IppResult result = request(printer, urlService, createAttributeMap(hostname, userName, jobID), creds);
+
+        return new PrintRequestResult(result).isSuccessfulResult();
+    }
 
+    /**
+     * Cancels a print job without blocking the calling thread.
+     *
+     * @see #cancelJob(String, String, int, CupsPrinter, CupsAuthentication)
+     */
+    public CompletableFuture<Boolean> cancelJobAsync(String hostname, String userName, int jobID,
+                                                     CupsPrinter printer, CupsAuthentication creds) throws Exception {
+        URL urlService = new URL("http://" + hostname + ':' + ippPort + "/jobs/" + jobID);
+        return requestAsync(printer, urlService, createAttributeMap(hostname, userName, jobID), creds)
+                .thenApply(result -> new PrintRequestResult(result).isSuccessfulResult());
+    }
+
+    private static Map<String, String> createAttributeMap(String hostname, String userName, int jobID)
+            throws MalformedURLException {
         Map<String, String> map = new HashMap<>();
 
         if (userName == null) {
@@ -107,13 +128,8 @@ public class IppCancelJobOperation extends IppOperation {
         map.put("requesting-user-name", userName);
 
         URL url = new URL("http://" + hostname + "/jobs/" + jobID);
-        URL urlService = new URL("http://" + hostname + ':' + ippPort + "/jobs/" + jobID);
-
         map.put("job-uri", url.toString());
-
-        IppResult result = request(printer, urlService, map, creds);
-
-        return new PrintRequestResult(result).isSuccessfulResult();
+        return map;
     }
 
 }
@@ -0,0 +1,75 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.extern.slf4j.Slf4j;
+import org.cups4j.CupsAuthentication;
+import org.cups4j.CupsClient;
+import org.cups4j.PrintRequestResult;
+import org.cups4j.operations.IppOperation;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cancel-Subscription (RFC 3995): ends a subscription before its lease
+ * expires.
+ */
+@Slf4j
+public class IppCancelSubscriptionOperation extends IppOperation {
+
+    public IppCancelSubscriptionOperation() {
+        operationID = 0x001B;
+        bufferSize = 8192;
+    }
+
+    public IppCancelSubscriptionOperation(int port) {
+        this();
+        this.ippPort = port;
+    }
+
+    /**
+     * @param uri printer-uri
+     * @param map attributes i.e. requesting-user-name, notify-subscription-id
+     * @return IPP header
+     * @throws UnsupportedEncodingException
+     */
+    @Override
+    public ByteBuffer getIppHeader(URL uri, Map<String, String> map) throws UnsupportedEncodingException {
+        if (uri == null) {
+            log.error("IppCancelSubscriptionOperation.getIppHeader(): uri is null");
+            return null;
+        }
+
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
+        ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(uri));
+        ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name", map.get("requesting-user-name"));
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id",
+                Integer.parseInt(map.get("notify-subscription-id")));
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        return ippBuf;
+    }
+
+    /**
+     * Cancels a subscription.
+     *
+     * @param url            URL of the server (or of the printer)
+     * @param userName       requesting user
+     * @param subscriptionId id of the subscription
+     * @param creds          credentials
+     * @return true on success
+     * @throws Exception
+     */
+    public boolean cancelSubscription(URL url, String userName, int subscriptionId, CupsAuthentication creds)
+            throws Exception {
+        Map<String, String> map = new HashMap<>();
+        map.put("requesting-user-name", (userName == null) ? CupsClient.DEFAULT_USER : userName);
+        map.put("notify-subscription-id", Integer.toString(subscriptionId));
+        return new PrintRequestResult(request(null, url, map, creds)).isSuccessfulResult();
+    }
+
+}
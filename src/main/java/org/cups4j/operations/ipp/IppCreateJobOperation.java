@@ -20,19 +20,14 @@ package org.cups4j.operations.ipp;
 import ch.ethz.vppserver.ippclient.IppResponse;
 import ch.ethz.vppserver.ippclient.IppResult;
 import ch.ethz.vppserver.ippclient.IppTag;
-import org.apache.commons.io.IOUtils;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.entity.InputStreamEntity;
 import org.cups4j.CupsAuthentication;
 import org.cups4j.CupsClient;
 import org.cups4j.CupsPrinter;
-import org.cups4j.operations.IppHttp;
 import org.cups4j.operations.IppOperation;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
@@ -65,32 +60,26 @@ public class IppCreateJobOperation extends IppOperation {
         return map;
     }
 
-    private static IppResult sendRequest(CupsPrinter printer, URI uri, ByteBuffer ippBuf,
-                                         CupsAuthentication creds) throws IOException {
+    private IppResult sendRequest(CupsPrinter printer, URI uri, ByteBuffer ippBuf,
+                                  CupsAuthentication creds) throws IOException {
         IppResult result;
-        CloseableHttpClient client = IppHttp.createHttpClient();
+        CloseableHttpClient client = getHttpClient();
         HttpPost httpPost = new HttpPost(uri);
-        IppHttp.setHttpHeaders(httpPost, printer, creds);
+        setHttpHeaders(httpPost, printer, creds);
 
-        byte[] bytes = new byte[ippBuf.limit()];
-        ippBuf.get(bytes);
-
-        try (ByteArrayInputStream headerStream = new ByteArrayInputStream(bytes)) {
-            // set length to -1 to advice the entity to read until EOF
-            InputStreamEntity requestEntity = new InputStreamEntity(headerStream, -1, IPP_MIME_TYPE);
-            httpPost.setEntity(requestEntity);
-            try (CloseableHttpResponse httpResponse = client.execute(httpPost)) {
-                result = toIppResult(httpResponse);
-            }
+        httpPost.setEntity(createRequestEntity(ippBuf, null));
+        try (CloseableHttpResponse httpResponse = client.execute(httpPost)) {
+            result = toIppResult(httpResponse);
         }
+        checkRequestId(ippBuf, result);
 
         return result;
     }
 
-    private static IppResult toIppResult(CloseableHttpResponse httpResponse) throws IOException {
+    private IppResult toIppResult(CloseableHttpResponse httpResponse) throws IOException {
         try {
-            IppResponse ippResponse = new IppResponse();
-            IppResult ippResult = ippResponse.getResponse(read(httpResponse.getEntity()));
+            IppResponse ippResponse = IppResponse.getInstance();
+            IppResult ippResult = ippResponse.getResponse(getResponseBodyPolicy().read(httpResponse.getEntity()));
             ippResult.setHttpStatusResponse(httpResponse.getReasonPhrase());
             ippResult.setHttpStatusCode(httpResponse.getCode());
             return ippResult;
@@ -102,11 +91,6 @@ public class IppCreateJobOperation extends IppOperation {
         }
     }
 
-    private static ByteBuffer read(HttpEntity entity) throws IOException {
-        byte[] bytes = IOUtils.toByteArray(entity.getContent());
-        return ByteBuffer.wrap(bytes);
-    }
-
     /**
      * Gets the IPP header with requesting-user-name.
      *
@@ -129,8 +113,8 @@ public class IppCreateJobOperation extends IppOperation {
      */
     @Override
     public ByteBuffer getIppHeader(URL url, Map<String, String> map) throws UnsupportedEncodingException {
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
         ippBuf = IppTag.getUri(ippBuf, "printer-uri", url.toString());
         ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name",
                 map.get("requesting-user-name"));
@@ -0,0 +1,43 @@
+package org.cups4j.operations.ipp;
+
+import org.cups4j.CupsAuthentication;
+import org.cups4j.notification.NotificationEventEnum;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Create-Job-Subscriptions (RFC 3995): subscribes to the events of a print
+ * job. The subscription ends with the job, so it has no lease.
+ */
+public class IppCreateJobSubscriptionsOperation extends IppCreatePrinterSubscriptionsOperation {
+
+    public IppCreateJobSubscriptionsOperation() {
+        operationID = 0x0017;
+    }
+
+    public IppCreateJobSubscriptionsOperation(int port) {
+        this();
+        this.ippPort = port;
+    }
+
+    /**
+     * Subscribes to the events of a print job.
+     *
+     * @param printerURL URL of the printer of the job
+     * @param userName   requesting user
+     * @param jobID      id of the job
+     * @param events     events to be notified
+     * @param creds      credentials
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int createJobSubscription(URL printerURL, String userName, int jobID, Set<NotificationEventEnum> events,
+                                     CupsAuthentication creds) throws Exception {
+        Map<String, String> map = createAttributeMap(userName, events);
+        map.put("notify-job-id", Integer.toString(jobID));
+        return createSubscription(printerURL, map, creds);
+    }
+
+}
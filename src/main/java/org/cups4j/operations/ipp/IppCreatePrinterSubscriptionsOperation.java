@@ -0,0 +1,154 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppResult;
+import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.extern.slf4j.Slf4j;
+import org.cups4j.CupsAuthentication;
+import org.cups4j.CupsClient;
+import org.cups4j.PrintRequestResult;
+import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.notification.NotificationEventEnum;
+import org.cups4j.operations.IppOperation;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Create-Printer-Subscriptions (RFC 3995): subscribes to the events of a
+ * printer or, with the URL of the server, to the events of all printers. The
+ * notifications are fetched with {@link IppGetNotificationsOperation}
+ * (pull method ippget) or, with a recipient URI, pushed by the server.
+ */
+@Slf4j
+public class IppCreatePrinterSubscriptionsOperation extends IppOperation {
+
+    public IppCreatePrinterSubscriptionsOperation() {
+        operationID = 0x0016;
+        bufferSize = 8192;
+    }
+
+    public IppCreatePrinterSubscriptionsOperation(int port) {
+        this();
+        this.ippPort = port;
+    }
+
+    /**
+     * @param uri printer-uri
+     * @param map attributes i.e. requesting-user-name, notify-events,
+     *            notify-lease-duration, notify-job-id, notify-recipient-uri
+     * @return IPP header
+     * @throws UnsupportedEncodingException
+     */
+    @Override
+    public ByteBuffer getIppHeader(URL uri, Map<String, String> map) throws UnsupportedEncodingException {
+        if (uri == null) {
+            log.error("IppCreatePrinterSubscriptionsOperation.getIppHeader(): uri is null");
+            return null;
+        }
+
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
+        ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(uri));
+        ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name", map.get("requesting-user-name"));
+
+        ippBuf = IppTag.getSubscriptionAttributesTag(ippBuf);
+        if (map.containsKey("notify-job-id")) {
+            ippBuf = IppTag.getInteger(ippBuf, "notify-job-id", Integer.parseInt(map.get("notify-job-id")));
+        }
+        if (map.containsKey("notify-recipient-uri")) {
+            ippBuf = IppTag.getUri(ippBuf, "notify-recipient-uri", map.get("notify-recipient-uri"));
+        } else {
+            ippBuf = IppTag.getKeyword(ippBuf, "notify-pull-method", "ippget");
+        }
+        if (map.containsKey("notify-events")) {
+            String[] events = map.get("notify-events").split(" ");
+            ippBuf = IppTag.getKeyword(ippBuf, "notify-events", events[0]);
+            for (int i = 1; i < events.length; i++) {
+                ippBuf = IppTag.getKeyword(ippBuf, null, events[i]);
+            }
+        }
+        if (map.containsKey("notify-lease-duration")) {
+            ippBuf = IppTag.getInteger(ippBuf, "notify-lease-duration",
+                    Integer.parseInt(map.get("notify-lease-duration")));
+        }
+
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        return ippBuf;
+    }
+
+    /**
+     * Subscribes to the events of a printer.
+     *
+     * @param printerURL    URL of the printer or of the server for all printers
+     * @param userName      requesting user
+     * @param leaseDuration lease of the subscription in seconds, 0 for no expiry
+     * @param events        events to be notified
+     * @param creds         credentials
+     * @return id of the subscription or -1 if the server refused it
+     * @throws Exception
+     */
+    public int createPrinterSubscription(URL printerURL, String userName, int leaseDuration,
+                                         Set<NotificationEventEnum> events, CupsAuthentication creds)
+            throws Exception {
+        return createPrinterSubscription(printerURL, userName, leaseDuration, events, null, creds);
+    }
+
+    /**
+     * Subscribes to the events of a printer which the server pushes to the
+     * given recipient.
+     *
+     * @param recipientURI notify-recipient-uri, null for the pull method ippget
+     * @see #createPrinterSubscription(URL, String, int, Set, CupsAuthentication)
+     */
+    public int createPrinterSubscription(URL printerURL, String userName, int leaseDuration,
+                                         Set<NotificationEventEnum> events, String recipientURI,
+                                         CupsAuthentication creds) throws Exception {
+        Map<String, String> map = createAttributeMap(userName, events);
+        map.put("notify-lease-duration", Integer.toString(leaseDuration));
+        if (recipientURI != null) {
+            map.put("notify-recipient-uri", recipientURI);
+        }
+        return createSubscription(printerURL, map, creds);
+    }
+
+    protected int createSubscription(URL printerURL, Map<String, String> map, CupsAuthentication creds)
+            throws Exception {
+        IppResult result = request(null, printerURL, map, creds);
+        PrintRequestResult status = new PrintRequestResult(result);
+        if (!status.isSuccessfulResult() || !result.hasAttributeGroup("subscription-attributes-tag")) {
+            log.error("Subscription for " + printerURL + " failed: " + status.getResultCode() + " "
+                    + status.getResultDescription());
+            return -1;
+        }
+        AttributeGroup group = result.getAttributeGroup("subscription-attributes-tag");
+        Attribute attr = group.getAttributes("notify-subscription-id");
+        if (attr.getAttributeValues() == null || attr.getAttributeValues().isEmpty()) {
+            log.error("Subscription for " + printerURL + " failed: " + group.getAttributes("notify-status-code")
+                    .getValue());
+            return -1;
+        }
+        return attr.getAttributeValues().get(0).asInt();
+    }
+
+    protected static Map<String, String> createAttributeMap(String userName, Set<NotificationEventEnum> events) {
+        Map<String, String> map = new HashMap<>();
+        map.put("requesting-user-name", (userName == null) ? CupsClient.DEFAULT_USER : userName);
+        StringJoiner keywords = new StringJoiner(" ");
+        for (NotificationEventEnum event : events) {
+            keywords.add(event.getValue());
+        }
+        if (keywords.length() > 0) {
+            // no notify-events: the server applies its default
+            map.put("notify-events", keywords.toString());
+        }
+        return map;
+    }
+
+}
@@ -17,22 +17,33 @@ package org.cups4j.operations.ipp;
 
 import ch.ethz.vppserver.ippclient.IppResult;
 import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.util.TimeValue;
 import org.cups4j.CupsAuthentication;
+import org.cups4j.JobFieldEnum;
 import org.cups4j.JobStateEnum;
 import org.cups4j.PrintJobAttributes;
+import org.cups4j.PrintRequestResult;
 import org.cups4j.ipp.attributes.Attribute;
 import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
+import org.cups4j.operations.IppHttp;
 import org.cups4j.operations.IppOperation;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.ByteBuffer;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
 
+@Slf4j
 public class IppGetJobAttributesOperation extends IppOperation {
 
+    // client-error-not-found: the job does not exist (any more)
+    private static final String NOT_FOUND = "0x0406";
+
     public IppGetJobAttributesOperation() {
         operationID = 0x0009;
         bufferSize = 8192;
@@ -50,8 +61,8 @@ public class IppGetJobAttributesOperation extends IppOperation {
      * @throws UnsupportedEncodingException
      */
     public ByteBuffer getIppHeader(URL uri, Map<String, String> map) throws UnsupportedEncodingException {
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
 
         if (map == null) {
             ippBuf = IppTag.getUri(ippBuf, "job-uri", stripPortNumber(uri));
@@ -94,12 +105,145 @@ public class IppGetJobAttributesOperation extends IppOperation {
 
     public PrintJobAttributes getPrintJobAttributes(String hostname, String userName,
                                                     int jobID, CupsAuthentication creds) throws Exception {
-        PrintJobAttributes job = null;
+        return getPrintJobAttributes(hostname, userName, jobID, creds, null);
+    }
+
+    /**
+     * Gets the attributes of a print job. Only the attributes of the given
+     * fields are requested, so the server neither encodes nor sends the other
+     * attributes of the job.
+     *
+     * @param fields projection, null or empty for all attributes
+     * @return job attributes, only the fields of the projection are set
+     */
+    public PrintJobAttributes getPrintJobAttributes(String hostname, String userName, int jobID,
+                                                    CupsAuthentication creds, Set<JobFieldEnum> fields)
+            throws Exception {
+        IppResult result = request(null, new URL("http://" + hostname + "/jobs/" + jobID),
+                createAttributeMap(userName, fields), creds);
+        return toPrintJobAttributes(result);
+    }
+
+    /**
+     * Gets the state of a print job. Only job-state is requested.
+     *
+     * @return state of the job or null if the server does not know the job
+     * (any more), e.g. because it was purged
+     * @throws IOException if the server answers with any other error
+     */
+    public JobStateEnum getJobState(String hostname, String userName, int jobID, CupsAuthentication creds)
+            throws Exception {
+        IppResult result = request(null, new URL("http://" + hostname + "/jobs/" + jobID),
+                createAttributeMap(userName, EnumSet.of(JobFieldEnum.STATE)), creds);
+        PrintRequestResult status = new PrintRequestResult(result);
+        if (NOT_FOUND.equals(status.getResultCode())) {
+            return null;
+        }
+        PrintJobAttributes job = toPrintJobAttributes(result);
+        if (!status.isSuccessfulResult() || job == null || job.getJobState() == null) {
+            throw new IOException("Cannot get the state of job " + jobID + ": " + status.getResultCode() + " "
+                    + status.getResultDescription());
+        }
+        return job.getJobState();
+    }
+
+    /**
+     * Gets the attributes of many print jobs in one pass. The
+     * Get-Job-Attributes requests run concurrently on daemon threads, at most
+     * as many as the connection pool allows per route. The wait is bounded by
+     * the connect and response timeouts for each round of requests, so a
+     * hung connection cannot block the caller any longer.
+     *
+     * @param jobIDs ids of the jobs
+     * @param fields projection, null or empty for all attributes
+     * @return job attributes by job id in the order of the given ids; jobs
+     * which could not be read in time are missing
+     * @throws InterruptedException if interrupted while waiting for the results
+     */
+    public Map<Integer, PrintJobAttributes> getPrintJobAttributes(String hostname, String userName,
+                                                                  Collection<Integer> jobIDs, CupsAuthentication creds,
+                                                                  Set<JobFieldEnum> fields)
+            throws InterruptedException {
+        Map<Integer, PrintJobAttributes> jobs = new LinkedHashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>(jobIDs);
+        if (ids.isEmpty()) {
+            return jobs;
+        }
+        int threads = Math.min(ids.size(), getMaxConnectionsPerRoute());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cups4j-job-attributes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<Integer, Future<PrintJobAttributes>> futures = new LinkedHashMap<>();
+            for (Integer jobID : ids) {
+                futures.put(jobID, executor.submit(() -> getPrintJobAttributes(hostname, userName, jobID, creds,
+                        fields)));
+            }
+            int rounds = (ids.size() + threads - 1) / threads;
+            long deadline = System.nanoTime() + rounds * getRequestTimeout().toNanoseconds();
+            for (Map.Entry<Integer, Future<PrintJobAttributes>> entry : futures.entrySet()) {
+                try {
+                    PrintJobAttributes job = entry.getValue().get(Math.max(0, deadline - System.nanoTime()),
+                            TimeUnit.NANOSECONDS);
+                    if (job != null) {
+                        jobs.put(entry.getKey(), job);
+                    }
+                } catch (ExecutionException ex) {
+                    log.error("Unable to get attributes of job " + entry.getKey(), ex.getCause());
+                } catch (TimeoutException ex) {
+                    log.error("Timeout while getting attributes of job " + entry.getKey());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return jobs;
+    }
+
+    /**
+     * Gets the attributes of a print job without blocking the calling thread.
+     *
+     * @see #getPrintJobAttributes(String, String, int, CupsAuthentication)
+     */
+    public CompletableFuture<PrintJobAttributes> getPrintJobAttributesAsync(String hostname, String userName,
+                                                                            int jobID, CupsAuthentication creds)
+            throws Exception {
+        return requestAsync(null, new URL("http://" + hostname + "/jobs/" + jobID), createAttributeMap(userName, null),
+                creds)
+                .thenApply(result -> {
+                    try {
+                        return toPrintJobAttributes(result);
+                    } catch (MalformedURLException ex) {
+                        throw new CompletionException(ex);
+                    }
+                });
+    }
+
+    private int getMaxConnectionsPerRoute() {
+        return (transport == null) ? IppHttp.MAX_CONNECTIONS_PER_ROUTE
+                : transport.getConfig().getMaxConnectionsPerRoute();
+    }
 
+    // upper bound for a single request: connect plus response timeout
+    private TimeValue getRequestTimeout() {
+        if (transport == null) {
+            return TimeValue.ofMilliseconds(2 * IppHttp.CUPS_TIMEOUT.toMilliseconds());
+        }
+        return TimeValue.ofMilliseconds(transport.getConfig().getConnectTimeout().toMilliseconds()
+                + transport.getConfig().getResponseTimeout().toMilliseconds());
+    }
+
+    private static Map<String, String> createAttributeMap(String userName, Set<JobFieldEnum> fields) {
         Map<String, String> map = new HashMap<>();
-        map.put("requested-attributes", "all");
+        map.put("requested-attributes", JobFieldEnum.toRequestedAttributes(fields));
         map.put("requesting-user-name", userName);
-        IppResult result = request(null, new URL("http://" + hostname + "/jobs/" + jobID), map, creds);
+        return map;
+    }
+
+    private static PrintJobAttributes toPrintJobAttributes(IppResult result) throws MalformedURLException {
+        PrintJobAttributes job = null;
 
         for (AttributeGroup group : result.getAttributeGroupList()) {
             if ("job-attributes-tag".equals(group.getTagName()) || "unassigned".equals(group.getTagName())) {
@@ -108,7 +252,8 @@ public class IppGetJobAttributesOperation extends IppOperation {
                 }
                 for (Attribute attr : group.getAttributes()) {
                     if (attr.getAttributeValues() != null && !attr.getAttributeValues().isEmpty()) {
-                        String attValue = getAttributeValue(attr);
+                        AttributeValue attrValue = attr.getAttributeValues().get(0);
+                        String attValue = attrValue.getValue();
 
                         String attrName = attr.getName();
                         switch (attrName) {
@@ -116,10 +261,10 @@ public class IppGetJobAttributesOperation extends IppOperation {
                                 job.setJobURL(new URL(attValue.replace("ipp://", "http://")));
                                 break;
                             case "job-id":
-                                job.setJobID(Integer.parseInt(attValue));
+                                job.setJobID(attrValue.asInt());
                                 break;
                             case "job-state":
-                                job.setJobState(JobStateEnum.fromString(attValue));
+                                job.setJobState(JobStateEnum.fromInteger(attrValue.asInt()));
                                 break;
                             case "job-printer-uri":
                                 job.setPrinterURL(new URL(attValue.replace("ipp://", "http://")));
@@ -131,16 +276,16 @@ public class IppGetJobAttributesOperation extends IppOperation {
                                 job.setUserName(attValue);
                                 break;
                             case "job-k-octets":
-                                job.setSize(Integer.parseInt(attValue));
+                                job.setSize(attrValue.asInt());
                                 break;
                             case "time-at-creation":
-                                job.setJobCreateTime(new Date(1000 * Long.parseLong(attValue)));
+                                job.setJobCreateTime(new Date(1000 * attrValue.asLong()));
                                 break;
                             case "time-at-completed":
-                                job.setJobCompleteTime(new Date(1000 * Long.parseLong(attValue)));
+                                job.setJobCompleteTime(new Date(1000 * attrValue.asLong()));
                                 break;
                             case "job-media-sheets-completed":
-                                job.setPagesPrinted(Integer.parseInt(attValue));
+                                job.setPagesPrinted(attrValue.asInt());
                                 break;
                         }
                     }
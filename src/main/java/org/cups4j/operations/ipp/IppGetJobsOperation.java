@@ -17,19 +17,24 @@ package org.cups4j.operations.ipp;
 
 import ch.ethz.vppserver.ippclient.IppResult;
 import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.extern.slf4j.Slf4j;
 import org.cups4j.*;
 import org.cups4j.ipp.attributes.Attribute;
 import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
 import org.cups4j.operations.IppOperation;
 
 import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+@Slf4j
 public class IppGetJobsOperation extends IppOperation {
 
     public IppGetJobsOperation() {
@@ -44,17 +49,17 @@ public class IppGetJobsOperation extends IppOperation {
 
     /**
      * @param url printer-uri
-     * @param map attributes i.e. requesting-user-name,limit,which-jobs,my-jobs,
-     *            requested-attributes
+     * @param map attributes i.e. requesting-user-name,limit,first-index,which-jobs,
+     *            my-jobs,requested-attributes
      * @return IPP header
      * @throws UnsupportedEncodingException
      */
     public ByteBuffer getIppHeader(URL url, Map<String, String> map) throws UnsupportedEncodingException {
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
 
         map.put("requested-attributes", "job-name job-id job-state job-originating-user-name job-printer-uri copies");
 
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
         ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(url));
 
         ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name", map.get("requesting-user-name"));
@@ -64,6 +69,11 @@ public class IppGetJobsOperation extends IppOperation {
             ippBuf = IppTag.getInteger(ippBuf, "limit", value);
         }
 
+        if (map.containsKey("first-index")) {
+            int value = Integer.parseInt(map.get("first-index"));
+            ippBuf = IppTag.getInteger(ippBuf, "first-index", value);
+        }
+
         if (map.containsKey("requested-attributes")) {
             String[] sta = map.get("requested-attributes").split(" ");
             ippBuf = IppTag.getKeyword(ippBuf, "requested-attributes", sta[0]);
@@ -90,7 +100,64 @@ public class IppGetJobsOperation extends IppOperation {
     public List<PrintJobAttributes> getPrintJobs(CupsPrinter printer, WhichJobsEnum whichJobs, String userName,
                                                  boolean myJobs, CupsAuthentication creds) throws Exception {
         List<PrintJobAttributes> jobs = new ArrayList<>();
-        PrintJobAttributes jobAttributes;
+        Map<String, String> map = createAttributeMap(whichJobs, userName, myJobs);
+
+        // the response is streamed: each job group is mapped and dropped right away
+        request(printer, printer.getPrinterURL(), map, creds, group -> {
+            if ("job-attributes-tag".equals(group.getTagName())) {
+                jobs.add(toPrintJobAttributes(group));
+            }
+        });
+        return jobs;
+    }
+
+    /**
+     * Streams the print jobs page by page. Each page is requested with limit
+     * and first-index (IPP/2.x) when the previous page is consumed, so a
+     * caller which stops early does not fetch the whole job history.
+     * Jobs which change their state between two pages may be skipped or
+     * returned twice.
+     *
+     * @param printer   printer
+     * @param whichJobs completed, not completed or all
+     * @param userName  requesting user
+     * @param myJobs    only jobs of the requesting user?
+     * @param pageSize  number of jobs per request
+     * @param creds     credentials
+     * @return lazy stream of the jobs
+     */
+    public Stream<PrintJobAttributes> streamPrintJobs(CupsPrinter printer, WhichJobsEnum whichJobs, String userName,
+                                                      boolean myJobs, int pageSize, CupsAuthentication creds) {
+        Iterator<PrintJobAttributes> iterator = new PageIterator(printer, whichJobs, userName, myJobs, pageSize, creds);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Gets the print jobs without blocking the calling thread.
+     *
+     * @see #getPrintJobs(CupsPrinter, WhichJobsEnum, String, boolean, CupsAuthentication)
+     */
+    public CompletableFuture<List<PrintJobAttributes>> getPrintJobsAsync(CupsPrinter printer, WhichJobsEnum whichJobs,
+                                                                         String userName, boolean myJobs,
+                                                                         CupsAuthentication creds) {
+        Map<String, String> map = createAttributeMap(whichJobs, userName, myJobs);
+        return requestAsync(printer, printer.getPrinterURL(), map, creds).thenApply(result -> {
+            List<PrintJobAttributes> jobs = new ArrayList<>();
+            for (AttributeGroup group : result.getAttributeGroupList()) {
+                if ("job-attributes-tag".equals(group.getTagName())) {
+                    try {
+                        jobs.add(toPrintJobAttributes(group));
+                    } catch (MalformedURLException ex) {
+                        throw new CompletionException(ex);
+                    }
+                }
+            }
+            return jobs;
+        });
+    }
+
+    private static Map<String, String> createAttributeMap(WhichJobsEnum whichJobs, String userName, boolean myJobs) {
         Map<String, String> map = new HashMap<>();
 
         if (userName == null) {
@@ -103,41 +170,105 @@ public class IppGetJobsOperation extends IppOperation {
         }
         map.put("requested-attributes",
                 "page-ranges print-quality sides job-uri job-id job-state job-printer-uri job-name job-originating-user-name");
+        return map;
+    }
 
-        IppResult result = request(printer, printer.getPrinterURL(), map, creds);
+    private static PrintJobAttributes toPrintJobAttributes(AttributeGroup group) throws MalformedURLException {
+        PrintJobAttributes jobAttributes = new PrintJobAttributes();
+        for (Attribute attr : group.getAttributes()) {
+            if (attr.getAttributeValues() != null && !attr.getAttributeValues().isEmpty()) {
+                AttributeValue attrValue = attr.getAttributeValues().get(0);
+                String attValue = attrValue.getValue();
+                switch (attr.getName()) {
+                    case "job-uri":
+                        jobAttributes.setJobURL(new URL(attValue.replace("ipp://", "http://")));
+                        break;
+                    case "job-id":
+                        jobAttributes.setJobID(attrValue.asInt());
+                        break;
+                    case "job-state":
+                        jobAttributes.setJobState(JobStateEnum.fromInteger(attrValue.asInt()));
+                        break;
+                    case "job-printer-uri":
+                        jobAttributes.setPrinterURL(new URL(attValue.replace("ipp://", "http://")));
+                        break;
+                    case "job-name":
+                        jobAttributes.setJobName(attValue);
+                        break;
+                    case "job-originating-user-name":
+                        jobAttributes.setUserName(attValue);
+                        break;
+                }
+            }
+        }
+        return jobAttributes;
+    }
 
-        for (AttributeGroup group : result.getAttributeGroupList()) {
-            if ("job-attributes-tag".equals(group.getTagName())) {
-                jobAttributes = new PrintJobAttributes();
-                for (Attribute attr : group.getAttributes()) {
-                    if (attr.getAttributeValues() != null && !attr.getAttributeValues().isEmpty()) {
-                        String attValue = getAttributeValue(attr);
-                        switch (attr.getName()) {
-                            case "job-uri":
-                                jobAttributes.setJobURL(new URL(attValue.replace("ipp://", "http://")));
-                                break;
-                            case "job-id":
-                                jobAttributes.setJobID(Integer.parseInt(attValue));
-                                break;
-                            case "job-state":
-                                jobAttributes.setJobState(JobStateEnum.fromString(attValue));
-                                break;
-                            case "job-printer-uri":
-                                jobAttributes.setPrinterURL(new URL(attValue.replace("ipp://", "http://")));
-                                break;
-                            case "job-name":
-                                jobAttributes.setJobName(attValue);
-                                break;
-                            case "job-originating-user-name":
-                                jobAttributes.setUserName(attValue);
-                                break;
-                        }
+    /**
+     * Requests the next page as soon as the current page is consumed. A
+     * server which does not support first-index reports it as unsupported
+     * attribute and would return the first page again, so paging stops then.
+     */
+    private final class PageIterator implements Iterator<PrintJobAttributes> {
+
+        private final CupsPrinter printer;
+        private final Map<String, String> map;
+        private final int pageSize;
+        private final CupsAuthentication creds;
+        private Iterator<PrintJobAttributes> page = Collections.emptyIterator();
+        private int firstIndex = 1;
+        private boolean lastPage;
+
+        private PageIterator(CupsPrinter printer, WhichJobsEnum whichJobs, String userName, boolean myJobs,
+                             int pageSize, CupsAuthentication creds) {
+            this.printer = printer;
+            this.map = createAttributeMap(whichJobs, userName, myJobs);
+            this.pageSize = pageSize;
+            this.creds = creds;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !lastPage) {
+                page = nextPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public PrintJobAttributes next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private Iterator<PrintJobAttributes> nextPage() {
+            List<PrintJobAttributes> jobs = new ArrayList<>();
+            boolean[] firstIndexUnsupported = {false};
+            map.put("limit", Integer.toString(pageSize));
+            map.put("first-index", Integer.toString(firstIndex));
+            try {
+                request(printer, printer.getPrinterURL(), map, creds, group -> {
+                    if ("job-attributes-tag".equals(group.getTagName())) {
+                        jobs.add(toPrintJobAttributes(group));
+                    } else if ("unsupported-attributes-tag".equals(group.getTagName())
+                            && "first-index".equals(group.getAttributes("first-index").getName())) {
+                        firstIndexUnsupported[0] = true;
                     }
-                }
-                jobs.add(jobAttributes);
+                });
+            } catch (Exception ex) {
+                throw new IllegalStateException("cannot get jobs of " + printer, ex);
+            }
+            lastPage = jobs.size() < pageSize;
+            if (firstIndexUnsupported[0] && !lastPage) {
+                log.warn("{} does not support first-index, only the first {} jobs are returned.", printer, pageSize);
+                lastPage = true;
             }
+            firstIndex += jobs.size();
+            return jobs.iterator();
         }
-        return jobs;
+
     }
 
 }
@@ -0,0 +1,176 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.extern.slf4j.Slf4j;
+import org.cups4j.CupsAuthentication;
+import org.cups4j.CupsClient;
+import org.cups4j.JobStateEnum;
+import org.cups4j.PrintRequestResult;
+import org.cups4j.PrinterStateEnum;
+import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
+import org.cups4j.notification.Notification;
+import org.cups4j.notification.NotificationEventEnum;
+import org.cups4j.notification.NotificationResult;
+import org.cups4j.operations.IppOperation;
+
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Get-Notifications (RFC 3996): fetches the pending event notifications of
+ * one or more subscriptions. With notify-wait the server may keep the
+ * request open until an event occurs.
+ */
+@Slf4j
+public class IppGetNotificationsOperation extends IppOperation {
+
+    public IppGetNotificationsOperation() {
+        operationID = 0x001C;
+        bufferSize = 8192;
+    }
+
+    public IppGetNotificationsOperation(int port) {
+        this();
+        this.ippPort = port;
+    }
+
+    /**
+     * @param uri printer-uri
+     * @param map attributes i.e. requesting-user-name,
+     *            notify-subscription-ids, notify-sequence-numbers, notify-wait
+     * @return IPP header
+     * @throws UnsupportedEncodingException
+     */
+    @Override
+    public ByteBuffer getIppHeader(URL uri, Map<String, String> map) throws UnsupportedEncodingException {
+        if (uri == null) {
+            log.error("IppGetNotificationsOperation.getIppHeader(): uri is null");
+            return null;
+        }
+
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
+        ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(uri));
+        ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name", map.get("requesting-user-name"));
+        ippBuf = getIntegers(ippBuf, "notify-subscription-ids", map.get("notify-subscription-ids"));
+        ippBuf = getIntegers(ippBuf, "notify-sequence-numbers", map.get("notify-sequence-numbers"));
+        if (map.containsKey("notify-wait")) {
+            ippBuf = IppTag.getBoolean(ippBuf, "notify-wait", "true".equals(map.get("notify-wait")));
+        }
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        return ippBuf;
+    }
+
+    private static ByteBuffer getIntegers(ByteBuffer ippBuf, String attributeName, String values)
+            throws UnsupportedEncodingException {
+        String[] sta = values.split(" ");
+        ippBuf = IppTag.getInteger(ippBuf, attributeName, Integer.parseInt(sta[0]));
+        for (int i = 1; i < sta.length; i++) {
+            ippBuf = IppTag.getInteger(ippBuf, null, Integer.parseInt(sta[i]));
+        }
+        return ippBuf;
+    }
+
+    /**
+     * Fetches the notifications of the given subscriptions.
+     *
+     * @param url             URL of the server (or of a printer)
+     * @param userName        requesting user
+     * @param sequenceNumbers first sequence number to be returned by subscription id
+     * @param wait            ask the server to wait for events (notify-wait)?
+     * @param creds           credentials
+     * @return the notifications in the order of the server
+     * @throws Exception
+     */
+    public NotificationResult getNotifications(URL url, String userName, Map<Integer, Integer> sequenceNumbers,
+                                               boolean wait, CupsAuthentication creds) throws Exception {
+        Map<String, String> map = new HashMap<>();
+        map.put("requesting-user-name", (userName == null) ? CupsClient.DEFAULT_USER : userName);
+        StringJoiner ids = new StringJoiner(" ");
+        StringJoiner numbers = new StringJoiner(" ");
+        for (Map.Entry<Integer, Integer> entry : sequenceNumbers.entrySet()) {
+            ids.add(entry.getKey().toString());
+            numbers.add(entry.getValue().toString());
+        }
+        map.put("notify-subscription-ids", ids.toString());
+        map.put("notify-sequence-numbers", numbers.toString());
+        if (wait) {
+            map.put("notify-wait", "true");
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        int[] interval = {-1};
+        PrintRequestResult status = new PrintRequestResult(request(null, url, map, creds, group -> {
+            if ("event-notification-attributes-tag".equals(group.getTagName())) {
+                notifications.add(toNotification(group));
+            } else if ("operation-attributes-tag".equals(group.getTagName())) {
+                Attribute attr = group.getAttributes("notify-get-interval");
+                if (attr.getAttributeValues() != null && !attr.getAttributeValues().isEmpty()) {
+                    interval[0] = attr.getAttributeValues().get(0).asInt();
+                }
+            }
+        }));
+        if (!status.isSuccessfulResult()) {
+            log.warn("Get-Notifications failed: " + status.getResultCode() + " " + status.getResultDescription());
+        }
+        return new NotificationResult(status.isSuccessfulResult(), status.getResultCode(), notifications,
+                interval[0]);
+    }
+
+    /**
+     * Maps an event-notification-attributes-tag group to a notification.
+     *
+     * @param group event notification attributes
+     * @return notification
+     * @throws MalformedURLException if the printer URI is invalid
+     */
+    public static Notification toNotification(AttributeGroup group) throws MalformedURLException {
+        Notification notification = new Notification();
+        for (Attribute attr : group.getAttributes()) {
+            if (attr.getAttributeValues() == null || attr.getAttributeValues().isEmpty()) {
+                continue;
+            }
+            AttributeValue attrValue = attr.getAttributeValues().get(0);
+            switch (attr.getName()) {
+                case "notify-subscription-id":
+                    notification.setSubscriptionId(attrValue.asInt());
+                    break;
+                case "notify-sequence-number":
+                    notification.setSequenceNumber(attrValue.asInt());
+                    break;
+                case "notify-subscribed-event":
+                    notification.setEvent(NotificationEventEnum.fromString(attrValue.getValue()));
+                    break;
+                case "notify-text":
+                    notification.setText(attrValue.getValue());
+                    break;
+                case "notify-printer-uri":
+                    notification.setPrinterURL(new URL(attrValue.getValue().replace("ipp://", "http://")));
+                    break;
+                case "printer-name":
+                    notification.setPrinterName(attrValue.getValue());
+                    break;
+                case "printer-state":
+                    notification.setPrinterState(PrinterStateEnum.fromInteger(attrValue.asInt()));
+                    break;
+                case "notify-job-id":
+                    notification.setJobID(attrValue.asInt());
+                    break;
+                case "job-state":
+                    notification.setJobState(JobStateEnum.fromInteger(attrValue.asInt()));
+                    break;
+                case "job-name":
+                    notification.setJobName(attrValue.getValue());
+                    break;
+            }
+        }
+        return notification;
+    }
+
+}
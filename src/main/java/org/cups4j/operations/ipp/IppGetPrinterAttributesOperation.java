@@ -17,12 +17,22 @@ package org.cups4j.operations.ipp;
  * program; if not, see <http://www.gnu.org/licenses/>.
  */
 
+import ch.ethz.vppserver.ippclient.IppResult;
 import ch.ethz.vppserver.ippclient.IppTag;
+import org.cups4j.CupsAuthentication;
+import org.cups4j.CupsClient;
+import org.cups4j.CupsPrinter;
+import org.cups4j.PrinterFieldEnum;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
 import org.cups4j.operations.IppOperation;
+import org.cups4j.operations.cups.CupsGetPrintersOperation;
 
 import java.io.UnsupportedEncodingException;
+import java.net.URL;
 import java.nio.ByteBuffer;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class IppGetPrinterAttributesOperation extends IppOperation {
 
@@ -54,9 +64,9 @@ public class IppGetPrinterAttributesOperation extends IppOperation {
      * @throws UnsupportedEncodingException
      */
     public ByteBuffer getIppHeader(String url, Map<String, String> map) throws UnsupportedEncodingException {
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
 
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
         ippBuf = IppTag.getUri(ippBuf, "printer-uri", url);
 
         if (map == null) {
@@ -82,4 +92,117 @@ public class IppGetPrinterAttributesOperation extends IppOperation {
         ippBuf.flip();
         return ippBuf;
     }
+
+    /**
+     * Gets a single printer with a Get-Printer-Attributes request to
+     * /printers/&lt;name&gt;. In contrast to CUPS-Get-Printers the cost does not
+     * depend on the number of queues on the server.
+     *
+     * @param hostname            CUPS server
+     * @param port                port of the CUPS server
+     * @param printerName         name of the printer or class
+     * @param userName            requesting user
+     * @param creds               credentials
+     * @param requestedAttributes attributes to request, the attributes of
+     *                            {@link CupsGetPrintersOperation} if empty
+     * @return printer or null if there is no printer with that name
+     * @throws Exception in case of errors
+     */
+    public CupsPrinter getPrinter(String hostname, int port, String printerName, String userName,
+                                  CupsAuthentication creds, String... requestedAttributes) throws Exception {
+        return getPrinter(hostname, port, printerName, userName, creds, null, requestedAttributes);
+    }
+
+    private CupsPrinter getPrinter(String hostname, int port, String printerName, String userName,
+                                   CupsAuthentication creds, Set<PrinterFieldEnum> fields,
+                                   String... requestedAttributes) throws Exception {
+        Map<String, String> map = new HashMap<>();
+        map.put("requesting-user-name", userName == null ? CupsClient.DEFAULT_USER : userName);
+        map.put("requested-attributes", getRequestedAttributes(requestedAttributes));
+        this.ippPort = port;
+
+        IppResult result = request(null, new URL("http://" + hostname + ':' + port + "/printers/" + printerName),
+                map, creds);
+
+        if (!result.hasAttributeGroup("printer-attributes-tag")) {
+            return null;
+        }
+        AttributeGroup group = result.getAttributeGroup("printer-attributes-tag");
+        return configure(new CupsGetPrintersOperation(port)).toPrinter(group, hostname, port, creds, fields);
+    }
+
+    /**
+     * Gets a single printer with the given fields only.
+     *
+     * @param hostname    CUPS server
+     * @param port        port of the CUPS server
+     * @param printerName name of the printer or class
+     * @param userName    requesting user
+     * @param creds       credentials
+     * @param fields      projection
+     * @return printer or null if there is no printer with that name
+     * @throws Exception in case of errors
+     */
+    public CupsPrinter getPrinter(String hostname, int port, String printerName, String userName,
+                                  CupsAuthentication creds, Set<PrinterFieldEnum> fields) throws Exception {
+        String[] requestedAttributes = PrinterFieldEnum.toRequestedAttributes(fields).split(" ");
+        return getPrinter(hostname, port, printerName, userName, creds, fields, requestedAttributes);
+    }
+
+    /**
+     * Gets the values of a single attribute of a printer.
+     *
+     * @param printer       printer
+     * @param userName      requesting user
+     * @param attributeName name of the attribute, e.g. compression-supported
+     * @return values of the attribute, empty if the printer does not report it
+     * @throws Exception in case of errors
+     */
+    public List<String> getAttributeValues(CupsPrinter printer, String userName, String attributeName)
+            throws Exception {
+        IppResult result = request(printer, printer.getPrinterURL(), createAttributeMap(userName, attributeName),
+                printer.getCreds());
+        return toAttributeValues(result, attributeName);
+    }
+
+    /**
+     * Gets the values of a single attribute of a printer without blocking the
+     * calling thread.
+     *
+     * @see #getAttributeValues(CupsPrinter, String, String)
+     */
+    public CompletableFuture<List<String>> getAttributeValuesAsync(CupsPrinter printer, String userName,
+                                                                   String attributeName) {
+        return requestAsync(printer, printer.getPrinterURL(), createAttributeMap(userName, attributeName),
+                printer.getCreds()).thenApply(result -> toAttributeValues(result, attributeName));
+    }
+
+    private static Map<String, String> createAttributeMap(String userName, String attributeName) {
+        Map<String, String> map = new HashMap<>();
+        map.put("requesting-user-name", userName == null ? CupsClient.DEFAULT_USER : userName);
+        map.put("requested-attributes", attributeName);
+        return map;
+    }
+
+    private static List<String> toAttributeValues(IppResult result, String attributeName) {
+        List<String> values = new ArrayList<>();
+        if (result.hasAttributeGroup("printer-attributes-tag")) {
+            for (AttributeValue value : result.getAttributeGroup("printer-attributes-tag")
+                    .getAttributes(attributeName).getAttributeValues()) {
+                values.add(value.getValue());
+            }
+        }
+        return values;
+    }
+
+    private static String getRequestedAttributes(String... requestedAttributes) {
+        if (requestedAttributes == null || requestedAttributes.length == 0) {
+            return CupsGetPrintersOperation.REQUESTED_ATTRIBUTES;
+        }
+        // name and uri are always needed to build the printer
+        Set<String> attributes = new LinkedHashSet<>(Arrays.asList("printer-name", "printer-uri-supported"));
+        attributes.addAll(Arrays.asList(requestedAttributes));
+        return String.join(" ", attributes);
+    }
+
 }
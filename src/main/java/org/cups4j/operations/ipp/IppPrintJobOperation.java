@@ -134,8 +134,8 @@ public class IppPrintJobOperation extends IppOperation {
             return null;
         }
 
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
         ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(url));
 
         if (map == null) {
@@ -29,6 +29,7 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class IppReleaseJobOperation extends IppOperation {
@@ -59,8 +60,8 @@ public class IppReleaseJobOperation extends IppOperation {
             return null;
         }
 
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
 
         if (map == null) {
             ippBuf = IppTag.getEnd(ippBuf);
@@ -94,20 +95,33 @@ public class IppReleaseJobOperation extends IppOperation {
      */
     public boolean releaseJob(String hostname, String userName, int jobID,
                               CupsPrinter printer, CupsAuthentication creds) throws Exception {
+        URL url = new URL("http://" + hostname + "/jobs/" + jobID);
+        IppResult result = request(printer, url, createAttributeMap(url, userName), creds);
+
+        return new PrintRequestResult(result).isSuccessfulResult();
+    }
 
+    /**
+     * Releases a print job without blocking the calling thread.
+     *
+     * @see #releaseJob(String, String, int, CupsPrinter, CupsAuthentication)
+     */
+    public CompletableFuture<Boolean> releaseJobAsync(String hostname, String userName, int jobID,
+                                                      CupsPrinter printer, CupsAuthentication creds) throws Exception {
+        URL url = new URL("http://" + hostname + "/jobs/" + jobID);
+        return requestAsync(printer, url, createAttributeMap(url, userName), creds)
+                .thenApply(result -> new PrintRequestResult(result).isSuccessfulResult());
+    }
+
+    private static Map<String, String> createAttributeMap(URL url, String userName) {
         Map<String, String> map = new HashMap<>();
 
         if (userName == null) {
             userName = CupsClient.DEFAULT_USER;
         }
         map.put("requesting-user-name", userName);
-
-        URL url = new URL("http://" + hostname + "/jobs/" + jobID);
         map.put("job-uri", url.toString());
-
-        IppResult result = request(printer, url, map, creds);
-
-        return new PrintRequestResult(result).isSuccessfulResult();
+        return map;
     }
 
 }
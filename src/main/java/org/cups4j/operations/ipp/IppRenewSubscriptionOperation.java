@@ -0,0 +1,81 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import lombok.extern.slf4j.Slf4j;
+import org.cups4j.CupsAuthentication;
+import org.cups4j.CupsClient;
+import org.cups4j.PrintRequestResult;
+import org.cups4j.operations.IppOperation;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renew-Subscription (RFC 3995): extends the lease of a printer
+ * subscription.
+ */
+@Slf4j
+public class IppRenewSubscriptionOperation extends IppOperation {
+
+    public IppRenewSubscriptionOperation() {
+        operationID = 0x001A;
+        bufferSize = 8192;
+    }
+
+    public IppRenewSubscriptionOperation(int port) {
+        this();
+        this.ippPort = port;
+    }
+
+    /**
+     * @param uri printer-uri
+     * @param map attributes i.e. requesting-user-name,
+     *            notify-subscription-id, notify-lease-duration
+     * @return IPP header
+     * @throws UnsupportedEncodingException
+     */
+    @Override
+    public ByteBuffer getIppHeader(URL uri, Map<String, String> map) throws UnsupportedEncodingException {
+        if (uri == null) {
+            log.error("IppRenewSubscriptionOperation.getIppHeader(): uri is null");
+            return null;
+        }
+
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
+        ippBuf = IppTag.getUri(ippBuf, "printer-uri", stripPortNumber(uri));
+        ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "requesting-user-name", map.get("requesting-user-name"));
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id",
+                Integer.parseInt(map.get("notify-subscription-id")));
+        ippBuf = IppTag.getSubscriptionAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-lease-duration",
+                Integer.parseInt(map.get("notify-lease-duration")));
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        return ippBuf;
+    }
+
+    /**
+     * Renews a subscription.
+     *
+     * @param url            URL of the server (or of the printer)
+     * @param userName       requesting user
+     * @param subscriptionId id of the subscription
+     * @param leaseDuration  new lease in seconds, 0 for no expiry
+     * @param creds          credentials
+     * @return true on success
+     * @throws Exception
+     */
+    public boolean renewSubscription(URL url, String userName, int subscriptionId, int leaseDuration,
+                                     CupsAuthentication creds) throws Exception {
+        Map<String, String> map = new HashMap<>();
+        map.put("requesting-user-name", (userName == null) ? CupsClient.DEFAULT_USER : userName);
+        map.put("notify-subscription-id", Integer.toString(subscriptionId));
+        map.put("notify-lease-duration", Integer.toString(leaseDuration));
+        return new PrintRequestResult(request(null, url, map, creds)).isSuccessfulResult();
+    }
+
+}
@@ -21,23 +21,17 @@ import ch.ethz.vppserver.ippclient.IppResponse;
 import ch.ethz.vppserver.ippclient.IppResult;
 import ch.ethz.vppserver.ippclient.IppTag;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.config.ConnectionConfig;
-import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.message.StatusLine;
+import org.cups4j.CompressionEnum;
 import org.cups4j.CupsAuthentication;
 import org.cups4j.CupsClient;
 import org.cups4j.CupsPrinter;
 import org.cups4j.PrintJob;
 import org.cups4j.ipp.attributes.AttributeGroup;
-import org.cups4j.operations.IppHttp;
+import org.cups4j.operations.CompressingInputStream;
 
 import java.io.*;
 import java.net.URI;
@@ -49,7 +43,6 @@ import java.util.Map;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
-import static org.cups4j.operations.IppHttp.CUPS_TIMEOUT;
 
 /**
  * The class IppSendDocumentOperation represents the operation for sending
@@ -75,23 +68,39 @@ public class IppSendDocumentOperation extends IppPrintJobOperation {
         this.lastDocument = lastDocument;
     }
 
-    private static IppResult getIppResult(CloseableHttpResponse httpResponse) throws IOException {
-        try (InputStream istream = httpResponse.getEntity().getContent()) {
-            byte[] result = IOUtils.toByteArray(istream);
-            IppResponse ippResponse = new IppResponse();
-            IppResult ippResult = ippResponse.getResponse(ByteBuffer.wrap(result));
-            ippResult.setHttpStatusCode(httpResponse.getCode());
-            if (ippResult.getHttpStatusCode() == 426) {
-                ippResult.setHttpStatusResponse(new String(result));
-                log.warn("Received {} after send-document.", ippResult);
-            } else {
-                ippResult.setHttpStatusResponse(new StatusLine(httpResponse).toString());
-            }
-            return ippResult;
+    private IppResult getIppResult(ClassicHttpResponse httpResponse) throws IOException {
+        ByteBuffer result = getResponseBodyPolicy().read(httpResponse.getEntity());
+        IppResponse ippResponse = IppResponse.getInstance();
+        IppResult ippResult = ippResponse.getResponse(result.duplicate());
+        ippResult.setHttpStatusCode(httpResponse.getCode());
+        if (ippResult.getHttpStatusCode() == 426) {
+            byte[] text = new byte[result.remaining()];
+            result.get(text);
+            ippResult.setHttpStatusResponse(new String(text));
+            log.warn("Received {} after send-document.", ippResult);
+        } else {
+            ippResult.setHttpStatusResponse(new StatusLine(httpResponse).toString());
         }
+        return ippResult;
     }
 
     public IppResult request(CupsPrinter printer, URL printerURL, PrintJob printJob, CupsAuthentication creds) {
+        return request(printer, printerURL, printJob, CompressionEnum.NONE, creds);
+    }
+
+    /**
+     * Sends the document of the print job.
+     *
+     * @param printer     printer
+     * @param printerURL  printer URL
+     * @param printJob    print job with the document
+     * @param compression compression of the document, it must be supported
+     *                    by the printer
+     * @param creds       credentials
+     * @return result of the request
+     */
+    public IppResult request(CupsPrinter printer, URL printerURL, PrintJob printJob, CompressionEnum compression,
+                             CupsAuthentication creds) {
         InputStream document = printJob.getDocument();
         String userName = printJob.getUserName();
         String jobName = printJob.getJobName();
@@ -153,6 +162,10 @@ public class IppSendDocumentOperation extends IppPrintJobOperation {
         if (printJob.isDuplex()) {
             addAttribute(attributes, "job-attributes", "sides:keyword:two-sided-long-edge");
         }
+        if (compression != CompressionEnum.NONE) {
+            attributes.put("compression", compression.getValue());
+            document = new CompressingInputStream(document, compression);
+        }
         try {
             IppResult ippResult = request(printer, printerURL, attributes, document, creds);
             if (ippResult.getHttpStatusCode() >= 300) {
@@ -187,10 +200,13 @@ public class IppSendDocumentOperation extends IppPrintJobOperation {
         ByteBuffer ippHeader = getIppHeader(url, map);
         try {
             IppResult ippResult = sendRequest(printer, url.toURI(), ippHeader, document, creds);
+            checkRequestId(ippHeader, ippResult);
             if ((ippResult.getHttpStatusCode() == 426) && "http".equalsIgnoreCase(url.getProtocol())) {
                 URI https = URI.create(url.toURI().toString().replace("http", "https"));
                 log.warn("Access with {} failed - will try now {} as printerURL.", url, https);
-                ippResult = sendRequest(printer, https, getIppHeader(url, map), document, creds);
+                ippHeader = getIppHeader(url, map);
+                ippResult = sendRequest(printer, https, ippHeader, document, creds);
+                checkRequestId(ippHeader, ippResult);
             }
             return ippResult;
         } catch (URISyntaxException ex) {
@@ -209,8 +225,8 @@ public class IppSendDocumentOperation extends IppPrintJobOperation {
     @Override
     public ByteBuffer getIppHeader(URL url, Map<String, String> map) throws UnsupportedEncodingException {
         assert (url != null);
-        ByteBuffer ippBuf = ByteBuffer.allocateDirect(bufferSize);
-        ippBuf = IppTag.getOperation(ippBuf, operationID);
+        ByteBuffer ippBuf = ByteBuffer.allocate(bufferSize);
+        ippBuf = IppTag.getOperation(ippBuf, operationID, nextRequestId());
         ippBuf = IppTag.getUri(ippBuf, "printer-uri", url.toString());
         ippBuf = IppTag.getInteger(ippBuf, "job-id", jobId);
         ippBuf = IppTag.getBoolean(ippBuf, "last-document", lastDocument);
@@ -262,30 +278,15 @@ public class IppSendDocumentOperation extends IppPrintJobOperation {
     private IppResult sendRequest(CupsPrinter printer, URI uri, ByteBuffer ippBuf,
                                   InputStream documentStream, CupsAuthentication creds) throws IOException {
         HttpPost httpPost = new HttpPost(uri);
+        httpPost.setEntity(createRequestEntity(ippBuf, documentStream));
+        setHttpHeaders(httpPost, printer, creds);
 
-        httpPost.setConfig(RequestConfig.custom().setResponseTimeout(CUPS_TIMEOUT).build());
-
-        byte[] bytes = new byte[ippBuf.limit()];
-        ippBuf.get(bytes);
-        ByteArrayInputStream headerStream = new ByteArrayInputStream(bytes);
-
-        InputStream inputStream = new SequenceInputStream(headerStream, documentStream);
-        InputStreamEntity requestEntity = new InputStreamEntity(inputStream, -1, IPP_MIME_TYPE);
-        httpPost.setEntity(requestEntity);
-        IppHttp.setHttpHeaders(httpPost, printer, creds);
-
-        ConnectionConfig config = ConnectionConfig.custom()
-                .setConnectTimeout(CUPS_TIMEOUT)
-                .setSocketTimeout(CUPS_TIMEOUT)
-                .build();
-        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setDefaultConnectionConfig(config)
-                .build();
-        try (CloseableHttpClient client = HttpClients.custom().setConnectionManager(connectionManager).build();
-             CloseableHttpResponse httpResponse = client.execute(httpPost)) {
+        // the shared pool keeps the connection alive for the next document
+        CloseableHttpClient client = getHttpClient();
+        return client.execute(httpPost, httpResponse -> {
             log.debug("Received from {}: {}", uri, httpResponse);
             return getIppResult(httpResponse);
-        }
+        });
     }
 
 }
@@ -2,14 +2,33 @@ package ch.ethz.vppserver.ippclient;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 public class IppAttributeProviderTest {
 
+    private final IppAttributeProvider provider = IppAttributeProvider.getInstance();
+
     @Test
     void getInstance() {
         IppAttributeProvider instance = IppAttributeProvider.getInstance();
         assertNotNull(instance);
     }
 
+    @Test
+    void getTagName() {
+        assertEquals("integer", provider.getTagName((byte) 0x21));
+        assertEquals("integer", provider.getTagName("0x21"));
+        assertEquals("printer-attributes-tag", provider.getTagName((byte) 0x04));
+        assertEquals("no name found for tag:0x7f", provider.getTagName((byte) 0x7f));
+    }
+
+    @Test
+    void getEnumName() {
+        assertEquals("processing", provider.getEnumName(5, "job-state"));
+        assertEquals("successful-ok", provider.getEnumName(0, "status-code"));
+        assertEquals("enum name not found in IANA list: 42", provider.getEnumName(42, "job-state"));
+        assertEquals("enum name not found in IANA list: 1", provider.getEnumName(1, "unknown-attribute"));
+    }
+
 }
@@ -0,0 +1,83 @@
+package ch.ethz.vppserver.ippclient;
+
+import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IppAttributeRegistryTest {
+
+    private static void assertSameTables(IppAttributeRegistry expected, IppAttributeRegistry actual)
+            throws IOException {
+        for (int tag = 0; tag < 256; tag++) {
+            assertEquals(expected.getTagName(tag), actual.getTagName(tag), "tag " + tag);
+        }
+        List<AttributeGroup> groups = IppAttributeXml.readAttributeList().getAttributeGroups();
+        for (AttributeGroup group : groups) {
+            for (Attribute attribute : group.getAttributes()) {
+                EnumNameTable expectedTable = expected.getEnumNames(attribute.getName());
+                EnumNameTable actualTable = actual.getEnumNames(attribute.getName());
+                if (expectedTable == null) {
+                    continue;
+                }
+                assertEquals(expectedTable.size(), actualTable.size(), attribute.getName());
+                assertEquals(expectedTable.isIncomplete(), actualTable.isIncomplete(), attribute.getName());
+                for (int value = 0; value < 0x1000; value++) {
+                    assertEquals(expectedTable.get(value), actualTable.get(value), attribute.getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        IppAttributeRegistry registry = IppAttributeRegistry.fromXml();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        registry.write(out);
+        assertSameTables(registry, IppAttributeRegistry.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    void testBuiltResources() throws IOException {
+        IppAttributeRegistry registry = IppAttributeRegistry.fromXml();
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream(IIppAttributeProvider.TAG_REGISTRY_FILENAME)) {
+            assertNotNull(in, "registry is built in process-classes");
+            assertSameTables(registry.tagPart(), IppAttributeRegistry.read(in));
+        }
+        try (InputStream in = getClass().getClassLoader()
+                .getResourceAsStream(IIppAttributeProvider.ENUM_REGISTRY_FILENAME)) {
+            assertNotNull(in, "registry is built in process-classes");
+            assertSameTables(registry.enumPart(), IppAttributeRegistry.read(in));
+        }
+    }
+
+    @Test
+    void testParts() throws IOException {
+        IppAttributeRegistry registry = IppAttributeRegistry.fromXml();
+        IppAttributeRegistry tags = registry.tagPart();
+        assertEquals("integer", tags.getTagName(0x21));
+        assertEquals("successful-ok", tags.getEnumNames("status-code").get(0));
+        assertNull(tags.getEnumNames("job-state"));
+        IppAttributeRegistry enums = registry.enumPart();
+        assertNull(enums.getTagName(0x21));
+        assertNull(enums.getEnumNames("status-code"));
+        assertEquals("processing", enums.getEnumNames("job-state").get(5));
+    }
+
+    @Test
+    void testReadInvalid() {
+        assertThrows(IOException.class, () -> IppAttributeRegistry.read(new ByteArrayInputStream(new byte[8])));
+    }
+
+}
@@ -0,0 +1,86 @@
+package ch.ethz.vppserver.ippclient;
+
+import org.apache.commons.io.FileUtils;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for class {@link IppResponseReader}.
+ */
+public class IppResponseReaderTest {
+
+    private static byte[] readResource(String filename) throws IOException {
+        return FileUtils.readFileToByteArray(new File("src/test/resources/ipp", filename));
+    }
+
+    private static List<AttributeGroup> readGroups(IppResponseReader reader) throws IOException {
+        List<AttributeGroup> groups = new ArrayList<>();
+        for (AttributeGroup group = reader.nextAttributeGroup(); group != null; group = reader.nextAttributeGroup()) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    @Test
+    public void testReadHeader() throws IOException {
+        try (IppResponseReader reader = new IppResponseReader(new ByteArrayInputStream(readResource("IppResponse400.bin")))) {
+            IppResult ippResult = reader.readHeader();
+            assertThat(ippResult.getIppStatusResponse(), containsString("client-error-bad-request"));
+            AttributeGroup group = reader.nextAttributeGroup();
+            assertEquals("operation-attributes-tag", group.getTagName());
+            assertEquals("Got a printer-uri attribute but no job-id.", group.getAttributes("status-message").getValue());
+        }
+    }
+
+    @Test
+    public void testReadErrorText() throws IOException {
+        try (IppResponseReader reader = new IppResponseReader(new ByteArrayInputStream(readResource("error401.html")))) {
+            assertThat(reader.readHeader().getIppStatusResponse(), containsString("client-error-"));
+            assertNull(reader.nextAttributeGroup());
+        }
+    }
+
+    /**
+     * The streamed printer groups must contain the same printers as the
+     * groups of the buffered {@link IppResponse}.
+     *
+     * @throws IOException in case of read errors
+     */
+    @Test
+    public void testReadPrinters() throws IOException {
+        byte[] data = readResource("IppResponsePrinters.bin");
+        IppResult expected = new IppResponse().getResponse(ByteBuffer.wrap(data));
+        List<AttributeGroup> groups;
+        try (IppResponseReader reader = new IppResponseReader(new ByteArrayInputStream(data))) {
+            assertEquals(expected.getIppStatusResponse(), reader.readHeader().getIppStatusResponse());
+            groups = readGroups(reader);
+        }
+        List<String> expectedPrinters = new ArrayList<>();
+        for (AttributeGroup group : expected.getAttributeGroupList()) {
+            if ("printer-attributes-tag".equals(group.getTagName())) {
+                expectedPrinters.add(group.getAttributes("printer-name").getValue());
+            }
+        }
+        List<String> printers = new ArrayList<>();
+        for (AttributeGroup group : groups) {
+            if ("printer-attributes-tag".equals(group.getTagName())) {
+                printers.add(group.getAttributes("printer-name").getValue());
+                assertNotNull(group.getAttributes("printer-uri-supported").getValue());
+            }
+        }
+        assertFalse(printers.isEmpty());
+        assertEquals(expectedPrinters, printers);
+    }
+
+}
@@ -2,14 +2,23 @@ package ch.ethz.vppserver.ippclient;
 
 import org.apache.commons.io.FileUtils;
 import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.PrinterStateEnum;
 import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
+import org.cups4j.ipp.attributes.EnumValue;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -47,6 +56,48 @@ public class IppResponseTest {
         assertThat(ippResult.getIppStatusResponse(), containsString("client-error-"));
     }
 
+    @Test
+    public void testGetResponseTypedValues() throws IOException {
+        IppResult ippResult = readIppResponse("IppResponsePrinters.bin");
+        AttributeGroup printer = ippResult.getAttributeGroup("printer-attributes-tag");
+        AttributeValue state = printer.getAttributes("printer-state").getAttributeValues().get(0);
+        assertThat(state, instanceOf(EnumValue.class));
+        assertEquals(PrinterStateEnum.fromInteger(state.asInt()).getStateName(), state.getValue());
+    }
+
+    @Test
+    public void testSharedInstanceConcurrently() throws Exception {
+        byte[] data = FileUtils.readFileToByteArray(new File("src/test/resources/ipp", "IppResponsePrinters.bin"));
+        String expected = describe(ippResponse.getResponse(ByteBuffer.wrap(data)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(
+                        () -> describe(IppResponse.getInstance().getResponse(ByteBuffer.wrap(data)))));
+            }
+            for (Future<String> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String describe(IppResult result) {
+        StringBuilder sb = new StringBuilder(result.getIppStatusResponse());
+        for (AttributeGroup group : result.getAttributeGroupList()) {
+            sb.append('\n').append(group.getTagName());
+            for (Attribute attr : group.getAttributes()) {
+                sb.append('\n').append(attr.getName());
+                for (AttributeValue value : attr.getAttributeValues()) {
+                    sb.append(' ').append(value.getTag()).append('=').append(value.getValue());
+                }
+            }
+        }
+        return sb.toString();
+    }
+
     private IppResult readIppResponse(String filename) throws IOException {
         byte[] data = FileUtils.readFileToByteArray(new File("src/test/resources/ipp", filename));
         return ippResponse.getResponse(ByteBuffer.wrap(data));
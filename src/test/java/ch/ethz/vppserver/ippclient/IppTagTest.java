@@ -0,0 +1,44 @@
+package ch.ethz.vppserver.ippclient;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for class {@link IppTag}.
+ */
+public class IppTagTest {
+
+    @Test
+    public void testGetOperation() throws UnsupportedEncodingException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(64), (short) 0x000b, 42);
+        assertEquals(0x01, ippBuf.get(0));
+        assertEquals(0x000b, ippBuf.getShort(2));
+        assertEquals(42, ippBuf.getInt(4));
+    }
+
+    /**
+     * A long list of keywords must not overflow the initial buffer.
+     *
+     * @throws UnsupportedEncodingException in case of encoding problems
+     */
+    @Test
+    public void testBufferGrows() throws UnsupportedEncodingException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(16), (short) 0x000a, 1);
+        int position = ippBuf.position();
+        for (int i = 0; i < 1000; i++) {
+            ippBuf = IppTag.getKeyword(ippBuf, (i == 0) ? "requested-attributes" : null, "attribute-" + i);
+        }
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        assertTrue(ippBuf.limit() > 8192);
+        assertEquals(1, ippBuf.getInt(4));
+        assertEquals(0x44, ippBuf.get(position));
+        assertEquals(0x03, ippBuf.get(ippBuf.limit() - 1));
+    }
+
+}
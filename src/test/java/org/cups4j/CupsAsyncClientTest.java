@@ -0,0 +1,152 @@
+package org.cups4j;
+
+import org.cups4j.operations.IppTransportConfig;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for class {@link CupsAsyncClient}. A local HTTP server plays the
+ * CUPS server.
+ */
+public class CupsAsyncClientTest {
+
+    private LocalIppServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.startWithResource("/ipp/IppResponsePrinters.bin");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private String getBody(int index) {
+        return new String(server.getRequest(index).getBody(), StandardCharsets.US_ASCII);
+    }
+
+    private CupsAsyncClient createClient() throws Exception {
+        return CupsAsyncClient.builder().host("localhost").port(server.getPort()).build();
+    }
+
+    @Test
+    public void testGetPrinters() throws Exception {
+        try (CupsAsyncClient client = createClient()) {
+            List<CupsPrinter> printers = client.getPrinters().get(10, TimeUnit.SECONDS);
+            assertFalse(printers.isEmpty());
+            assertEquals(1, server.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        try (CupsAsyncClient client = createClient()) {
+            List<CompletableFuture<List<CupsPrinter>>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(client.getPrinters());
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            assertEquals(10, server.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testPrintSendsDocument() throws Exception {
+        try (CupsAsyncClient client = createClient()) {
+            CupsPrinter printer = client.getPrinters().get(10, TimeUnit.SECONDS).get(0);
+            byte[] document = "Hello World!".getBytes(StandardCharsets.US_ASCII);
+            PrintJob job = PrintJob.builder().document(new ByteArrayInputStream(document)).jobName("async").build();
+            PrintRequestResult result = client.print(printer, job).get(10, TimeUnit.SECONDS);
+            assertTrue(result.isSuccessfulResult());
+            String body = getBody(1);
+            assertTrue(body.endsWith("Hello World!"), body);
+        }
+    }
+
+    /**
+     * Documents other than files are read off the I/O reactor, so a slow
+     * source cannot stall the other requests of the client.
+     *
+     * @throws Exception in case of errors
+     */
+    @Test
+    public void testPrintReadsDocumentOffReactor() throws Exception {
+        Set<String> readers = Collections.synchronizedSet(new HashSet<>());
+        InputStream document = new FilterInputStream(new ByteArrayInputStream(
+                "Hello Stream!".getBytes(StandardCharsets.US_ASCII))) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                readers.add(Thread.currentThread().getName());
+                return super.read(b, off, len);
+            }
+        };
+        try (CupsAsyncClient client = createClient()) {
+            CupsPrinter printer = client.getPrinters().get(10, TimeUnit.SECONDS).get(0);
+            PrintJob job = PrintJob.builder().document(document).jobName("stream").build();
+            PrintRequestResult result = client.print(printer, job).get(10, TimeUnit.SECONDS);
+            assertTrue(result.isSuccessfulResult());
+            String body = getBody(1);
+            assertTrue(body.endsWith("Hello Stream!"), body);
+        }
+        assertEquals(Collections.singleton("cups4j-document-reader"), readers);
+    }
+
+    @Test
+    public void testPrintSendsFile(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("hello.txt");
+        Files.write(file, "Hello File!".getBytes(StandardCharsets.US_ASCII));
+        try (CupsAsyncClient client = createClient()) {
+            CupsPrinter printer = client.getPrinters().get(10, TimeUnit.SECONDS).get(0);
+            PrintJob job = PrintJob.builder().document(file).jobName("file").build();
+            PrintRequestResult result = client.print(printer, job).get(10, TimeUnit.SECONDS);
+            assertTrue(result.isSuccessfulResult());
+            String body = getBody(1);
+            assertTrue(body.endsWith("Hello File!"), body);
+            // the length of a file is known, so the request is not chunked
+            assertNull(server.getRequest(1).getTransferEncoding());
+        }
+    }
+
+    @Test
+    public void testResponseLimits() throws Exception {
+        IppTransportConfig spilled = IppTransportConfig.builder().responseHeapThreshold(1024).build();
+        try (CupsAsyncClient client = CupsAsyncClient.builder().host("localhost")
+                .port(server.getPort()).transportConfig(spilled).build()) {
+            assertFalse(client.getPrinters().get(10, TimeUnit.SECONDS).isEmpty());
+        }
+        IppTransportConfig capped = IppTransportConfig.builder().maxResponseSize(1024).build();
+        try (CupsAsyncClient client = CupsAsyncClient.builder().host("localhost")
+                .port(server.getPort()).transportConfig(capped).build()) {
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    () -> client.getPrinters().get(10, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof IOException, ex.toString());
+        }
+    }
+
+}
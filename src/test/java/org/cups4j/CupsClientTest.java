@@ -16,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -48,7 +49,7 @@ public class CupsClientTest {
     public void setUpMocks() throws IOException {
         ippHttpMockedStatic.when(IppHttp::createHttpClient).thenReturn(closeableHttpClientMocked);
         InputStream stream = getClass().getResourceAsStream("/ipp/IppResponsePrinters.bin");
-        doReturn(IOUtils.toByteArray(stream))
+        doReturn(ByteBuffer.wrap(IOUtils.toByteArray(stream)))
                 .when(closeableHttpClientMocked).execute(any(HttpPost.class), any(HttpClientResponseHandler.class));
     }
 
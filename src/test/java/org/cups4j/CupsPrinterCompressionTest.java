@@ -0,0 +1,125 @@
+package org.cups4j;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import org.apache.commons.io.IOUtils;
+import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.operations.IppAsyncTransport;
+import org.cups4j.operations.IppTransportConfig;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the document compression of {@link CupsPrinter}. A local
+ * HTTP server plays the CUPS server.
+ */
+public class CupsPrinterCompressionTest {
+
+    private static final String DOCUMENT = "Hello compressed World!";
+
+    private String compressionSupported;
+    private LocalIppServer server;
+    private CupsPrinter printer;
+
+    private static String getCompression(LocalIppServer.Request request) throws IOException {
+        Attribute attr = request.getIppResult().getAttributeGroup("operation-attributes-tag")
+                .getAttributes("compression");
+        return attr.getAttributeValues().isEmpty() ? null : attr.getValue();
+    }
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.start(request -> {
+            ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, request.getRequestId());
+            if (request.getOperationId() == 0x000b) {
+                ippBuf = IppTag.getPrinterAttributesTag(ippBuf);
+                String[] values = compressionSupported.split(",");
+                ippBuf = IppTag.getKeyword(ippBuf, "compression-supported", values[0]);
+                for (int i = 1; i < values.length; i++) {
+                    ippBuf = IppTag.getKeyword(ippBuf, null, values[i]);
+                }
+            } else {
+                ippBuf = IppTag.getJobAttributesTag(ippBuf);
+                ippBuf = IppTag.getInteger(ippBuf, "job-id", 7);
+            }
+            return LocalIppServer.toBytes(ippBuf);
+        });
+        printer = new CupsPrinter(null, server.getURL("/printers/test"), "test");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private PrintJob createPrintJob(CompressionEnum compression) {
+        return PrintJob.builder().document(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.US_ASCII)))
+                .jobName("compressed").compression(compression).build();
+    }
+
+    @Test
+    public void testPrintCompressed() throws Exception {
+        compressionSupported = "none,gzip";
+        assertEquals(7, printer.print(createPrintJob(CompressionEnum.GZIP)).getJobId());
+        assertEquals(7, printer.print(createPrintJob(CompressionEnum.GZIP)).getJobId());
+        // compression-supported is requested only once
+        assertEquals(3, server.getRequests().size());
+        assertEquals(Arrays.asList("none", "gzip"), printer.getCompressionSupported());
+
+        assertEquals("gzip", getCompression(server.getRequest(2)));
+        byte[] request = server.getRequest(2).getBody();
+        int start = 0;
+        while (!(request[start] == 0x1f && request[start + 1] == (byte) 0x8b)) {
+            start++;
+        }
+        byte[] document = IOUtils.toByteArray(new GZIPInputStream(
+                new ByteArrayInputStream(request, start, request.length - start)));
+        assertEquals(DOCUMENT, new String(document, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testPrintAsyncCompressed() throws Exception {
+        compressionSupported = "none,gzip";
+        try (IppAsyncTransport transport = new IppAsyncTransport(IppTransportConfig.builder().build())) {
+            assertEquals(7, printer.printAsync(createPrintJob(CompressionEnum.GZIP), transport)
+                    .get(10, TimeUnit.SECONDS).getJobId());
+            assertEquals(7, printer.printAsync(createPrintJob(CompressionEnum.GZIP), transport)
+                    .get(10, TimeUnit.SECONDS).getJobId());
+        }
+        // compression-supported is requested only once
+        assertEquals(3, server.getRequests().size());
+        assertEquals(0x000b, server.getRequest(0).getOperationId());
+        assertEquals("gzip", getCompression(server.getRequest(1)));
+        assertEquals("gzip", getCompression(server.getRequest(2)));
+    }
+
+    @Test
+    public void testPrintUnsupportedCompression() throws Exception {
+        compressionSupported = "none";
+        assertEquals(7, printer.print(createPrintJob(CompressionEnum.DEFLATE)).getJobId());
+        assertNull(getCompression(server.getRequest(1)));
+        assertTrue(new String(server.getRequest(1).getBody(), StandardCharsets.US_ASCII).endsWith(DOCUMENT));
+    }
+
+    @Test
+    public void testPrintUncompressed() throws Exception {
+        printer.print(createPrintJob(CompressionEnum.NONE));
+        // no Get-Printer-Attributes without compression
+        assertEquals(1, server.getRequests().size());
+        assertTrue(new String(server.getRequest(0).getBody(), StandardCharsets.US_ASCII).endsWith(DOCUMENT));
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.cups4j;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for class {@link JobTracker}.
+ */
+public class JobTrackerTest {
+
+    private final JobTracker tracker = new JobTracker("tester", TimeValue.ofMilliseconds(10),
+            TimeValue.ofMilliseconds(40));
+
+    @AfterEach
+    public void closeTracker() {
+        tracker.close();
+    }
+
+    private static PrintJobAttributes job(int jobID) {
+        PrintJobAttributes job = new PrintJobAttributes();
+        job.setJobID(jobID);
+        return job;
+    }
+
+    private static CupsPrinter mockPrinter(AtomicReference<List<PrintJobAttributes>> notCompleted) throws Exception {
+        CupsPrinter printer = mock(CupsPrinter.class);
+        when(printer.getPrinterURL()).thenReturn(new URL("http://localhost:631/printers/test"));
+        when(printer.getJobs(eq(WhichJobsEnum.NOT_COMPLETED), anyString(), anyBoolean()))
+                .thenAnswer(invocation -> notCompleted.get());
+        return printer;
+    }
+
+    @Test
+    public void testTrackJobs() throws Exception {
+        AtomicReference<List<PrintJobAttributes>> notCompleted = new AtomicReference<>(
+                Arrays.asList(job(1), job(2)));
+        CupsPrinter printer = mockPrinter(notCompleted);
+        when(printer.getJobStatus("tester", 1)).thenReturn(JobStateEnum.COMPLETED);
+        when(printer.getJobStatus("tester", 2)).thenReturn(JobStateEnum.CANCELED);
+
+        CompletableFuture<JobStateEnum> first = tracker.track(printer, 1);
+        CompletableFuture<JobStateEnum> second = tracker.track(printer, 2);
+        assertEquals(2, tracker.getTrackedJobCount());
+        Thread.sleep(100);
+        assertFalse(first.isDone());
+        // both jobs are polled together: one Get-Jobs per poll, no Get-Job-Attributes
+        verify(printer, never()).getJobStatus(anyString(), anyInt());
+
+        notCompleted.set(Collections.singletonList(job(2)));
+        assertEquals(JobStateEnum.COMPLETED, first.get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        verify(printer, never()).getJobStatus("tester", 2);
+
+        notCompleted.set(Collections.emptyList());
+        assertEquals(JobStateEnum.CANCELED, second.get(5, TimeUnit.SECONDS));
+        verify(printer, times(1)).getJobStatus("tester", 1);
+    }
+
+    @Test
+    public void testKeepsPollingOnErrors() throws Exception {
+        CupsPrinter printer = mockPrinter(new AtomicReference<>(Collections.emptyList()));
+        when(printer.getJobStatus("tester", 1)).thenThrow(new IOException("server-error-internal-error"))
+                .thenReturn(JobStateEnum.ABORTED);
+        assertEquals(JobStateEnum.ABORTED, tracker.track(printer, 1).get(5, TimeUnit.SECONDS));
+        verify(printer, times(2)).getJobStatus("tester", 1);
+    }
+
+    @Test
+    public void testPurgedJob() throws Exception {
+        CupsPrinter printer = mockPrinter(new AtomicReference<>(Collections.emptyList()));
+        when(printer.getJobStatus("tester", 1)).thenReturn(null);
+        assertNull(tracker.track(printer, 1).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPollsBackOff() throws Exception {
+        CupsPrinter printer = mockPrinter(new AtomicReference<>(Collections.singletonList(job(1))));
+        tracker.track(printer, 1);
+        Thread.sleep(400);
+        // with a fixed interval of 10 ms there would be about 40 polls
+        verify(printer, atMost(15)).getJobs(eq(WhichJobsEnum.NOT_COMPLETED), anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CupsPrinter printer = mockPrinter(new AtomicReference<>(Collections.singletonList(job(1))));
+        CompletableFuture<JobStateEnum> future = tracker.track(printer, 1);
+        tracker.close();
+        assertTrue(future.isCancelled());
+        assertThrows(IllegalStateException.class, () -> tracker.track(printer, 2));
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.cups4j;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for class {@link PrinterRegistry}.
+ */
+public class PrinterRegistryTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<CupsPrinter> printers = new ArrayList<>();
+
+    private List<CupsPrinter> load() {
+        loads.incrementAndGet();
+        return new ArrayList<>(printers);
+    }
+
+    private CupsPrinter addPrinter(String name) throws Exception {
+        CupsPrinter printer = new CupsPrinter(null, new URL("http://localhost:631/printers/" + name), name);
+        printers.add(printer);
+        return printer;
+    }
+
+    @Test
+    public void testLookupByNameAndUrl() throws Exception {
+        CupsPrinter one = addPrinter("one");
+        CupsPrinter two = addPrinter("two");
+        try (PrinterRegistry registry = new PrinterRegistry(this::load, TimeValue.ofMinutes(5), null)) {
+            assertSame(one, registry.getPrinter("one"));
+            assertSame(two, registry.getPrinter(new URL("http://localhost:631/printers/two")));
+            assertEquals(2, registry.getPrinters().size());
+            assertEquals(1, loads.get());
+        }
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        addPrinter("one");
+        try (PrinterRegistry registry = new PrinterRegistry(this::load, TimeValue.ofMinutes(5), null)) {
+            registry.getPrinter("one");
+            registry.invalidate();
+            registry.getPrinter("one");
+            assertEquals(2, loads.get());
+        }
+    }
+
+    @Test
+    public void testExpiredTtl() throws Exception {
+        addPrinter("one");
+        try (PrinterRegistry registry = new PrinterRegistry(this::load, TimeValue.ZERO_MILLISECONDS, null)) {
+            registry.getPrinter("one");
+            registry.getPrinter("one");
+            assertEquals(2, loads.get());
+        }
+    }
+
+    @Test
+    public void testMissDoesNotReloadFreshPrinters() throws Exception {
+        addPrinter("one");
+        try (PrinterRegistry registry = new PrinterRegistry(this::load, TimeValue.ofMinutes(5), null)) {
+            assertNull(registry.getPrinter("unknown"));
+            assertNull(registry.getPrinter("unknown"));
+            assertEquals(1, loads.get());
+        }
+    }
+
+}
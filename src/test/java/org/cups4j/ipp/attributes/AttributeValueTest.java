@@ -0,0 +1,25 @@
+package org.cups4j.ipp.attributes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class AttributeValueTest {
+
+    @Test
+    public void testGetTag() {
+        AttributeValue attributeValue = new AttributeValue((byte) 0x21, "integer");
+        assertEquals(0x21, attributeValue.getTagCode());
+        assertEquals("0x21", attributeValue.getTag());
+        assertEquals("integer", attributeValue.getTagName());
+    }
+
+    @Test
+    public void testSetTag() {
+        AttributeValue attributeValue = new AttributeValue((byte) 0x21, "integer");
+        attributeValue.setTag("0x44");
+        assertEquals("0x44", attributeValue.getTag());
+        assertEquals(-1, attributeValue.getTagCode());
+    }
+
+}
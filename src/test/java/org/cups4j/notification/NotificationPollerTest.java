@@ -0,0 +1,121 @@
+package org.cups4j.notification;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.cups4j.CupsClient;
+import org.cups4j.CupsPrinter;
+import org.cups4j.JobStateEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for class {@link NotificationPoller}.
+ */
+public class NotificationPollerTest {
+
+    private static Notification notification(int subscriptionId, int sequenceNumber) {
+        Notification notification = new Notification();
+        notification.setSubscriptionId(subscriptionId);
+        notification.setSequenceNumber(sequenceNumber);
+        notification.setEvent(NotificationEventEnum.PRINTER_STATE_CHANGED);
+        return notification;
+    }
+
+    @Test
+    public void testDeliverNotifications() throws Exception {
+        CupsClient client = mock(CupsClient.class);
+        CupsPrinter printer = mock(CupsPrinter.class);
+        when(client.createPrinterSubscription(printer, 3600, NotificationEventEnum.PRINTER_STATE_CHANGED))
+                .thenReturn(42);
+        List<Map<Integer, Integer>> requests = Collections.synchronizedList(new ArrayList<>());
+        when(client.getNotifications(anyMap(), eq(true))).thenAnswer(invocation -> {
+            Map<Integer, Integer> sequenceNumbers = new HashMap<>(invocation.getArgument(0));
+            requests.add(sequenceNumbers);
+            List<Notification> notifications = (requests.size() == 1)
+                    ? Arrays.asList(notification(42, 1), notification(42, 2)) : Collections.emptyList();
+            return new NotificationResult(true, notifications, 1);
+        });
+
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        try (NotificationPoller poller = new NotificationPoller(client, TimeValue.ofMilliseconds(20))) {
+            poller.addListener(received::add);
+            assertEquals(42, poller.subscribePrinter(printer, 3600, NotificationEventEnum.PRINTER_STATE_CHANGED));
+            assertEquals(1, received.poll(5, TimeUnit.SECONDS).getSequenceNumber());
+            assertEquals(2, received.poll(5, TimeUnit.SECONDS).getSequenceNumber());
+            verify(client, timeout(5000).atLeast(2)).getNotifications(anyMap(), eq(true));
+        }
+        assertEquals(Collections.singletonMap(42, 1), requests.get(0));
+        assertEquals(Collections.singletonMap(42, 3), requests.get(1));
+        verify(client).cancelSubscription(42);
+    }
+
+    @Test
+    public void testDropStaleSubscription() throws Exception {
+        CupsClient client = mock(CupsClient.class);
+        CupsPrinter printer = mock(CupsPrinter.class);
+        when(client.createPrinterSubscription(printer, 0, NotificationEventEnum.PRINTER_STATE_CHANGED))
+                .thenReturn(42, 43);
+        List<Map<Integer, Integer>> requests = Collections.synchronizedList(new ArrayList<>());
+        when(client.getNotifications(anyMap(), anyBoolean())).thenAnswer(invocation -> {
+            Map<Integer, Integer> sequenceNumbers = new HashMap<>(invocation.getArgument(0));
+            requests.add(sequenceNumbers);
+            if (sequenceNumbers.containsKey(43)) {
+                // the server rejects the whole request for the expired subscription 43
+                return new NotificationResult(false, NotificationResult.NOT_FOUND, Collections.emptyList(), -1);
+            }
+            return new NotificationResult(true, Collections.singletonList(notification(42, 1)), 1);
+        });
+
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        try (NotificationPoller poller = new NotificationPoller(client, TimeValue.ofMilliseconds(20))) {
+            poller.addListener(received::add);
+            poller.subscribePrinter(printer, 0, NotificationEventEnum.PRINTER_STATE_CHANGED);
+            poller.subscribePrinter(printer, 0, NotificationEventEnum.PRINTER_STATE_CHANGED);
+            assertEquals(42, received.poll(5, TimeUnit.SECONDS).getSubscriptionId());
+            verify(client, timeout(5000)).getNotifications(Collections.singletonMap(43, 1), false);
+            verify(client, timeout(5000).atLeastOnce()).getNotifications(Collections.singletonMap(42, 2), true);
+        }
+        verify(client).cancelSubscription(42);
+        verify(client, never()).cancelSubscription(43);
+    }
+
+    @Test
+    public void testDropFinishedJobSubscription() throws Exception {
+        CupsClient client = mock(CupsClient.class);
+        CupsPrinter printer = mock(CupsPrinter.class);
+        when(client.createJobSubscription(printer, 7, NotificationEventEnum.JOB_STATE_CHANGED)).thenReturn(42);
+        Notification canceled = notification(42, 1);
+        canceled.setEvent(NotificationEventEnum.JOB_STATE_CHANGED);
+        canceled.setJobID(7);
+        canceled.setJobState(JobStateEnum.CANCELED);
+        when(client.getNotifications(anyMap(), eq(true)))
+                .thenReturn(new NotificationResult(true, Collections.singletonList(canceled), 1));
+
+        BlockingQueue<Notification> received = new LinkedBlockingQueue<>();
+        try (NotificationPoller poller = new NotificationPoller(client, TimeValue.ofMilliseconds(20))) {
+            poller.addListener(received::add);
+            poller.subscribeJob(printer, 7, NotificationEventEnum.JOB_STATE_CHANGED);
+            assertEquals(JobStateEnum.CANCELED, received.poll(5, TimeUnit.SECONDS).getJobState());
+            Thread.sleep(100);
+        }
+        verify(client, times(1)).getNotifications(anyMap(), anyBoolean());
+        verify(client, never()).cancelSubscription(42);
+    }
+
+    @Test
+    public void testNoRequestWithoutSubscription() throws Exception {
+        CupsClient client = mock(CupsClient.class);
+        NotificationPoller poller = new NotificationPoller(client, TimeValue.ofMilliseconds(20));
+        Thread.sleep(100);
+        poller.close();
+        verify(client, never()).getNotifications(anyMap(), anyBoolean());
+    }
+
+}
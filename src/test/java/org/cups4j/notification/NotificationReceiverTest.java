@@ -0,0 +1,117 @@
+package org.cups4j.notification;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import org.apache.commons.io.IOUtils;
+import org.cups4j.JobStateEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for class {@link NotificationReceiver}. The test plays the CUPS
+ * server which pushes the notifications.
+ */
+public class NotificationReceiverTest {
+
+    private final List<Notification> all = new ArrayList<>();
+    private final List<Notification> forJob = new ArrayList<>();
+    private final List<Notification> forPrinter = new ArrayList<>();
+    private NotificationReceiver receiver;
+
+    @BeforeEach
+    public void startReceiver() throws IOException {
+        receiver = new NotificationReceiver(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        receiver.addListener(all::add);
+        receiver.addJobListener(7, forJob::add);
+        receiver.addPrinterListener("test", forPrinter::add);
+    }
+
+    @AfterEach
+    public void stopReceiver() {
+        receiver.close();
+    }
+
+    private static byte[] createNotification(int sequenceNumber, String event, int jobID) throws IOException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(512), (short) 0x001D, 99);
+        ippBuf = IppTag.getEventNotificationAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id", 42);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-sequence-number", sequenceNumber);
+        ippBuf = IppTag.getKeyword(ippBuf, "notify-subscribed-event", event);
+        ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "printer-name", "test");
+        ippBuf = IppTag.getInteger(ippBuf, "notify-job-id", jobID);
+        ippBuf = IppTag.getEnum(ippBuf, "job-state", JobStateEnum.COMPLETED.getValue());
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        byte[] bytes = new byte[ippBuf.remaining()];
+        ippBuf.get(bytes);
+        return bytes;
+    }
+
+    private byte[] push(byte[] notification) throws IOException {
+        InetSocketAddress address = receiver.getAddress();
+        URL url = new URL("http://localhost:" + address.getPort() + NotificationReceiver.PATH);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/ipp");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(notification);
+        }
+        assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Test
+    public void testReceiveNotifications() throws IOException {
+        byte[] response = push(createNotification(1, "job-completed", 7));
+        assertEquals(0, ByteBuffer.wrap(response).getShort(2));
+        assertEquals(99, ByteBuffer.wrap(response).getInt(4));
+        push(createNotification(2, "job-completed", 7));
+        push(createNotification(3, "job-state-changed", 8));
+
+        assertEquals(3, all.size());
+        assertEquals(NotificationEventEnum.JOB_COMPLETED, all.get(0).getEvent());
+        assertEquals(JobStateEnum.COMPLETED, all.get(0).getJobState());
+        // the job listeners are dropped after job-completed
+        assertEquals(1, forJob.size());
+        assertEquals(3, forPrinter.size());
+    }
+
+    @Test
+    public void testReceiveBrokenNotification() throws IOException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(512), (short) 0x001D, 5);
+        ippBuf = IppTag.getEventNotificationAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id", 42);
+        ippBuf = IppTag.getUri(ippBuf, "notify-printer-uri", "no uri");
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        byte[] response = push(Arrays.copyOf(ippBuf.array(), ippBuf.limit()));
+        assertEquals(0x0400, ByteBuffer.wrap(response).getShort(2));
+        assertEquals(5, ByteBuffer.wrap(response).getInt(4));
+        assertTrue(all.isEmpty());
+    }
+
+    @Test
+    public void testRecipientURI() throws IOException {
+        assertTrue(receiver.getRecipientURI().startsWith("ipp://127.0.0.1:"));
+        assertTrue(receiver.getRecipientURI().endsWith(NotificationReceiver.PATH));
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.cups4j.operations;
+
+import org.apache.commons.io.IOUtils;
+import org.cups4j.CompressionEnum;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for class {@link CompressingInputStream}.
+ */
+public class CompressingInputStreamTest {
+
+    private static byte[] createDocument() {
+        byte[] document = new byte[1 << 20];
+        Random random = new Random(4711);
+        for (int i = 0; i < document.length; i++) {
+            // compressible, but not trivially
+            document[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return document;
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        byte[] document = createDocument();
+        byte[] compressed;
+        try (InputStream in = new CompressingInputStream(new ByteArrayInputStream(document), CompressionEnum.GZIP)) {
+            compressed = IOUtils.toByteArray(in);
+        }
+        assertTrue(compressed.length < document.length / 2);
+        assertArrayEquals(document, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+        byte[] document = createDocument();
+        byte[] compressed;
+        try (InputStream in = new CompressingInputStream(new ByteArrayInputStream(document),
+                CompressionEnum.DEFLATE)) {
+            compressed = IOUtils.toByteArray(in);
+        }
+        InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(compressed), new Inflater(true));
+        assertArrayEquals(document, IOUtils.toByteArray(inflated));
+    }
+
+    @Test
+    public void testReadSingleBytes() throws IOException {
+        byte[] document = "Hello World!".getBytes();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (InputStream in = new CompressingInputStream(new ByteArrayInputStream(document), CompressionEnum.GZIP)) {
+            for (int b = in.read(); b >= 0; b = in.read()) {
+                compressed.write(b);
+            }
+        }
+        InputStream gunzipped = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()));
+        assertEquals("Hello World!", new String(IOUtils.toByteArray(gunzipped)));
+    }
+
+    @Test
+    public void testNone() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompressingInputStream(new ByteArrayInputStream(new byte[0]), CompressionEnum.NONE));
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.cups4j.operations;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Unit tests for class {@link FileDocumentEntity} and
+ * {@link FileDocumentStream}.
+ */
+public class FileDocumentEntityTest {
+
+    private static final byte[] HEADER = "IPP-HEADER".getBytes(StandardCharsets.US_ASCII);
+
+    private static Path createFile(Path dir) throws IOException {
+        Path file = dir.resolve("document.txt");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    @Test
+    public void testWriteTo(@TempDir Path tempDir) throws IOException {
+        FileDocumentStream document = new FileDocumentStream(createFile(tempDir));
+        FileDocumentEntity entity = new FileDocumentEntity(HEADER, 4, 6, document);
+        assertEquals(16, entity.getContentLength());
+        assertFalse(entity.isChunked());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        assertEquals("HEADER0123456789", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+        assertFalse(document.getChannel().isOpen());
+    }
+
+    @Test
+    public void testChannelFromPosition(@TempDir Path tempDir) throws IOException {
+        FileChannel channel = FileChannel.open(createFile(tempDir), StandardOpenOption.READ);
+        channel.position(4);
+        try (FileDocumentStream document = new FileDocumentStream(channel)) {
+            assertEquals(6, document.getLength());
+            assertEquals("456789", new String(IOUtils.toByteArray(document), StandardCharsets.US_ASCII));
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.cups4j.operations;
+
+import ch.ethz.vppserver.ippclient.IppResult;
+import org.cups4j.CupsClient;
+import org.cups4j.CupsPrinter;
+import org.cups4j.PrinterQuery;
+import org.cups4j.operations.ipp.IppGetPrinterAttributesOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for class {@link IppTransport}. A local HTTP server plays the
+ * CUPS server.
+ */
+public class IppTransportTest {
+
+    private LocalIppServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.startWithResource("/ipp/IppResponsePrinters.bin");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testGetPrintersWithOwnTransport() throws Exception {
+        IppTransportConfig config = IppTransportConfig.builder()
+                .maxConnectionsPerRoute(2)
+                .maxConnectionsTotal(2)
+                .build();
+        try (CupsClient client = CupsClient.builder()
+                .host("localhost")
+                .port(server.getPort())
+                .transportConfig(config)
+                .build()) {
+            List<CupsPrinter> printers = client.getPrinters();
+            assertFalse(printers.isEmpty());
+            assertEquals(1, server.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testGetPrintersSpilledToFile() throws Exception {
+        IppTransportConfig config = IppTransportConfig.builder().responseHeapThreshold(1024).build();
+        try (CupsClient client = CupsClient.builder()
+                .host("localhost")
+                .port(server.getPort())
+                .transportConfig(config)
+                .build()) {
+            assertFalse(client.getPrinters().isEmpty());
+        }
+    }
+
+    @Test
+    public void testResponseTooLarge() throws Exception {
+        IppTransportConfig config = IppTransportConfig.builder().maxResponseSize(1024).build();
+        try (CupsClient client = CupsClient.builder()
+                .host("localhost")
+                .port(server.getPort())
+                .transportConfig(config)
+                .build()) {
+            assertThrows(IOException.class, client::getPrinters);
+        }
+    }
+
+    /**
+     * Responses decoded while they arrive must be capped as well, also if
+     * they are sent without Content-Length.
+     *
+     * @throws Exception in case of errors
+     */
+    @Test
+    public void testStreamedResponseTooLarge() throws Exception {
+        IppTransportConfig config = IppTransportConfig.builder().maxResponseSize(1024).build();
+        try (CupsClient client = CupsClient.builder()
+                .host("localhost")
+                .port(server.getPort())
+                .transportConfig(config)
+                .build()) {
+            for (boolean chunked : new boolean[]{false, true}) {
+                server.setChunked(chunked);
+                IllegalStateException ex = assertThrows(IllegalStateException.class,
+                        () -> client.streamPrinters(PrinterQuery.builder().build()).count());
+                assertInstanceOf(IOException.class, ex.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void testResponseEchoesRequestId() throws Exception {
+        IppGetPrinterAttributesOperation operation = new IppGetPrinterAttributesOperation(server.getPort());
+        IppResult first = operation.request(null, server.getURL("/printers/test"), null, null);
+        IppResult second = operation.request(null, server.getURL("/printers/test"), null, null);
+        assertEquals(server.getRequest(0).getRequestId(), first.getRequestId());
+        assertEquals(server.getRequest(1).getRequestId(), second.getRequestId());
+        assertNotEquals(first.getRequestId(), second.getRequestId());
+    }
+
+    @Test
+    public void testDefaults() {
+        IppTransportConfig config = IppTransportConfig.builder().build();
+        assertEquals(IppHttp.MAX_CONNECTIONS_PER_ROUTE, config.getMaxConnectionsPerRoute());
+        assertEquals(IppHttp.CUPS_TIMEOUT, config.getResponseTimeout());
+        assertEquals(IppHttp.MAX_RESPONSE_SIZE, config.getMaxResponseSize());
+    }
+
+}
@@ -0,0 +1,232 @@
+package org.cups4j.operations;
+
+import ch.ethz.vppserver.ippclient.IppResponse;
+import ch.ethz.vppserver.ippclient.IppResult;
+import ch.ethz.vppserver.ippclient.IppTag;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.io.IOUtils;
+import org.cups4j.ipp.attributes.Attribute;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.ipp.attributes.AttributeValue;
+import org.cups4j.ipp.attributes.EnumValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server which plays the CUPS server in the unit tests. It records
+ * every request and answers with the IPP response of the given handler. Like
+ * a real server it echoes the request id of the request in the response.
+ * <pre>
+ * try (LocalIppServer server = LocalIppServer.start(request -&gt; response)) {
+ *     ... server.getPort() ...
+ *     assertEquals("tester", server.getRequest(0).getAttributes().get("requesting-user-name"));
+ * }
+ * </pre>
+ */
+public class LocalIppServer implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+    // if set the responses are sent chunked, without Content-Length
+    @Setter
+    private volatile boolean chunked = false;
+
+    private LocalIppServer(Handler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            Request request = new Request(exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders().getFirst("Transfer-Encoding"),
+                    IOUtils.toByteArray(exchange.getRequestBody()));
+            requests.add(request);
+            byte[] response = echoRequestId(request, handler.respond(request));
+            exchange.getResponseHeaders().add("Content-Type", "application/ipp");
+            exchange.sendResponseHeaders(200, chunked ? 0 : response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @param handler creates the response for a request
+     * @return started server on a free port
+     * @throws IOException if the server cannot be started
+     */
+    public static LocalIppServer start(Handler handler) throws IOException {
+        return new LocalIppServer(handler);
+    }
+
+    /**
+     * @param response response to every request
+     * @return started server on a free port
+     * @throws IOException if the server cannot be started
+     */
+    public static LocalIppServer start(byte[] response) throws IOException {
+        return start(request -> response);
+    }
+
+    /**
+     * @param resource test resource with the response to every request, e.g.
+     *                 "/ipp/IppResponsePrinters.bin"
+     * @return started server on a free port
+     * @throws IOException if the resource cannot be read
+     */
+    public static LocalIppServer startWithResource(String resource) throws IOException {
+        try (InputStream stream = LocalIppServer.class.getResourceAsStream(resource)) {
+            return start(IOUtils.toByteArray(stream));
+        }
+    }
+
+    /**
+     * Ends the given IPP message and returns it as byte array.
+     *
+     * @param ippBuf IPP message built with {@link IppTag}
+     * @return encoded message
+     */
+    public static byte[] toBytes(ByteBuffer ippBuf) {
+        ippBuf = IppTag.getEnd(ippBuf);
+        ippBuf.flip();
+        byte[] bytes = new byte[ippBuf.remaining()];
+        ippBuf.get(bytes);
+        return bytes;
+    }
+
+    // the handler may return the same response for every request
+    private static byte[] echoRequestId(Request request, byte[] response) {
+        if (response.length < 8 || request.getBody().length < 8) {
+            return response;
+        }
+        byte[] copy = response.clone();
+        ByteBuffer.wrap(copy).putInt(4, request.getRequestId());
+        return copy;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @param path path on the server, e.g. "/printers/test"
+     * @return URL of the path
+     * @throws MalformedURLException should not happen
+     */
+    public URL getURL(String path) throws MalformedURLException {
+        return new URL("http://localhost:" + getPort() + path);
+    }
+
+    /**
+     * @return the requests received so far, in the order of arrival
+     */
+    public List<Request> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    public Request getRequest(int index) {
+        return requests.get(index);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the IPP response for a request.
+     */
+    public interface Handler {
+        byte[] respond(Request request) throws IOException;
+    }
+
+    /**
+     * Request as received by the server.
+     */
+    @Getter
+    public static final class Request {
+
+        private final String path;
+        // null if the request was not chunked
+        private final String transferEncoding;
+        private final byte[] body;
+
+        private Request(String path, String transferEncoding, byte[] body) {
+            this.path = path;
+            this.transferEncoding = transferEncoding;
+            this.body = body;
+        }
+
+        public short getOperationId() {
+            return ByteBuffer.wrap(body).getShort(2);
+        }
+
+        public int getRequestId() {
+            return ByteBuffer.wrap(body).getInt(4);
+        }
+
+        /**
+         * @return the request decoded like a response
+         * @throws IOException if the request is no IPP message
+         */
+        public IppResult getIppResult() throws IOException {
+            return IppResponse.getInstance().getResponse(ByteBuffer.wrap(body));
+        }
+
+        /**
+         * @return the attributes of all groups by name
+         * @throws IOException if the request is no IPP message
+         */
+        public Map<String, String> getAttributes() throws IOException {
+            return getAttributes(null);
+        }
+
+        /**
+         * Returns the attributes by name. Enums are given as numbers, other
+         * attributes with multiple values as comma separated list.
+         *
+         * @param tagName group, e.g. "subscription-attributes-tag", null for
+         *                all groups
+         * @return attributes by name
+         * @throws IOException if the request is no IPP message
+         */
+        public Map<String, String> getAttributes(String tagName) throws IOException {
+            Map<String, String> map = new HashMap<>();
+            for (AttributeGroup group : getIppResult().getAttributeGroupList()) {
+                if (tagName != null && !tagName.equals(group.getTagName())) {
+                    continue;
+                }
+                for (Attribute attr : group.getAttributes()) {
+                    if (attr.getAttributeValues() == null || attr.getAttributeValues().isEmpty()) {
+                        continue;
+                    }
+                    AttributeValue value = attr.getAttributeValues().get(0);
+                    map.put(attr.getName(),
+                            (value instanceof EnumValue) ? Integer.toString(value.asInt()) : attr.getValue());
+                }
+            }
+            return map;
+        }
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.cups4j.operations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for class {@link RequestIdGenerator}.
+ */
+public class RequestIdGeneratorTest {
+
+    @Test
+    public void testNextRequestId() {
+        RequestIdGenerator generator = new RequestIdGenerator();
+        assertEquals(1, generator.nextRequestId());
+        assertEquals(2, generator.nextRequestId());
+    }
+
+    @Test
+    public void testNextRequestIdConcurrent() throws InterruptedException {
+        RequestIdGenerator generator = new RequestIdGenerator();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int n = 0; n < 1000; n++) {
+                    ids.add(generator.nextRequestId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(8000, ids.size());
+    }
+
+}
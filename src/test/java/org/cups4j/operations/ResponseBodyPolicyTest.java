@@ -0,0 +1,102 @@
+package org.cups4j.operations;
+
+import ch.ethz.vppserver.ippclient.IppResponse;
+import ch.ethz.vppserver.ippclient.IppResult;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for class {@link ResponseBodyPolicy}.
+ */
+public class ResponseBodyPolicyTest {
+
+    private static byte[] createBody(int length) {
+        byte[] body = new byte[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) i;
+        }
+        return body;
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testReadOnHeap() throws IOException {
+        ResponseBodyPolicy policy = new ResponseBodyPolicy(4096, 1024, null);
+        byte[] body = createBody(1000);
+        ByteBuffer buffer = policy.read(new InputStreamEntity(new ByteArrayInputStream(body), -1,
+                ContentType.APPLICATION_OCTET_STREAM));
+        assertTrue(buffer.hasArray());
+        assertEquals(ByteBuffer.wrap(body), buffer);
+    }
+
+    /**
+     * A chunked error page (e.g. 401 from CUPS or a proxy) must come back as
+     * an exact-size buffer, so that it is decoded into a status text.
+     *
+     * @throws IOException in case of read errors
+     */
+    @Test
+    public void testChunkedErrorPage() throws IOException {
+        byte[] page = "<html><body>Unauthorized</body></html>\r\n".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ResponseBodyPolicy.DEFAULT.read(new InputStreamEntity(new ByteArrayInputStream(page),
+                -1, ContentType.TEXT_HTML));
+        assertEquals(page.length, buffer.capacity());
+        IppResult result = IppResponse.getInstance().getResponse(buffer);
+        assertEquals("client-error-not-authorized (0x403)", result.getIppStatusResponse());
+    }
+
+    @Test
+    public void testSpillToFile(@TempDir Path tempDir) throws IOException {
+        ResponseBodyPolicy policy = new ResponseBodyPolicy(1 << 20, 1024, tempDir);
+        byte[] body = createBody(100_000);
+        ByteBuffer buffer = policy.read(new InputStreamEntity(new ByteArrayInputStream(body), -1,
+                ContentType.APPLICATION_OCTET_STREAM));
+        assertFalse(buffer.hasArray());
+        assertEquals(ByteBuffer.wrap(body), ByteBuffer.wrap(toBytes(buffer)));
+        // the temporary file is deleted as soon as it is mapped
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testTooLarge() {
+        ResponseBodyPolicy policy = new ResponseBodyPolicy(4096, 1024, null);
+        assertThrows(IOException.class, () -> policy.read(new InputStreamEntity(
+                new ByteArrayInputStream(createBody(5000)), -1, ContentType.APPLICATION_OCTET_STREAM)));
+    }
+
+    @Test
+    public void testAnnouncedLengthTooLarge() {
+        ResponseBodyPolicy policy = new ResponseBodyPolicy(4096, 1024, null);
+        assertThrows(IOException.class,
+                () -> policy.read(new ByteArrayEntity(createBody(5000), ContentType.APPLICATION_OCTET_STREAM)));
+    }
+
+    @Test
+    public void testNoEntity() throws IOException {
+        assertEquals(0, ResponseBodyPolicy.DEFAULT.read(null).remaining());
+    }
+
+}
@@ -0,0 +1,149 @@
+package org.cups4j.operations.cups;
+
+import ch.ethz.vppserver.ippclient.IppResponse;
+import ch.ethz.vppserver.ippclient.IppResult;
+import ch.ethz.vppserver.ippclient.IppTag;
+import org.apache.commons.io.IOUtils;
+import org.cups4j.CupsPrinter;
+import org.cups4j.PrinterFieldEnum;
+import org.cups4j.PrinterQuery;
+import org.cups4j.ipp.attributes.AttributeGroup;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the paging of {@link CupsGetPrintersOperation}. A local HTTP
+ * server plays a CUPS server which evaluates first-printer-name and limit.
+ */
+public class CupsGetPrintersOperationTest {
+
+    private static final List<String> PRINTERS = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+
+    private LocalIppServer server;
+    private boolean ignoreFirstPrinterName;
+    private boolean ignoreLimit;
+
+    private static byte[] createResponse(List<String> printers) throws IOException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, 1);
+        for (String name : printers) {
+            ippBuf = IppTag.getPrinterAttributesTag(ippBuf);
+            ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "printer-name", name);
+            ippBuf = IppTag.getUri(ippBuf, "printer-uri-supported", "ipp://localhost/printers/" + name);
+        }
+        return LocalIppServer.toBytes(ippBuf);
+    }
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.start(request -> {
+            Map<String, String> attributes = request.getAttributes();
+            int first = (attributes.containsKey("first-printer-name") && !ignoreFirstPrinterName)
+                    ? PRINTERS.indexOf(attributes.get("first-printer-name")) : 0;
+            int limit = ignoreLimit ? PRINTERS.size() : Integer.parseInt(attributes.get("limit"));
+            return createResponse(PRINTERS.subList(first, Math.min(PRINTERS.size(), first + limit)));
+        });
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private Map<String, String> getRequest(int index) throws IOException {
+        return server.getRequest(index).getAttributes();
+    }
+
+    private List<String> streamPrinterNames(PrinterQuery query) {
+        CupsGetPrintersOperation operation = new CupsGetPrintersOperation();
+        return operation.streamPrinters("localhost", server.getPort(), null, query)
+                .map(CupsPrinter::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testStreamPrintersInPages() throws IOException {
+        assertEquals(PRINTERS, streamPrinterNames(PrinterQuery.builder().pageSize(3).build()));
+        assertEquals(3, server.getRequests().size());
+        assertEquals("c", getRequest(1).get("first-printer-name"));
+    }
+
+    @Test
+    public void testStreamPrintersWithLimit() throws IOException {
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"),
+                streamPrinterNames(PrinterQuery.builder().pageSize(3).limit(5).build()));
+        assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void testStreamPrintersWithoutFirstPrinterName() {
+        ignoreFirstPrinterName = true;
+        assertEquals(Arrays.asList("a", "b", "c"), streamPrinterNames(PrinterQuery.builder().pageSize(3).build()));
+        assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void testStreamPrintersWithoutLimit() {
+        ignoreLimit = true;
+        assertEquals(PRINTERS, streamPrinterNames(PrinterQuery.builder().pageSize(3).build()));
+        assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void testStreamPrintersWithoutPaging() {
+        ignoreFirstPrinterName = true;
+        ignoreLimit = true;
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"),
+                streamPrinterNames(PrinterQuery.builder().pageSize(3).limit(5).build()));
+        assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void testStreamPrintersWithTypeFilter() throws IOException {
+        streamPrinterNames(PrinterQuery.localQueues());
+        assertEquals("0", getRequest(0).get("printer-type"));
+        assertEquals("2", getRequest(0).get("printer-type-mask"));
+    }
+
+    @Test
+    public void testStreamPrintersWithProjection() throws IOException {
+        streamPrinterNames(PrinterQuery.builder().fields(EnumSet.of(PrinterFieldEnum.STATE)).build());
+        assertEquals("printer-name,printer-uri-supported,printer-state", getRequest(0).get("requested-attributes"));
+    }
+
+    @Test
+    public void testToPrinterWithProjection() throws Exception {
+        IppResult result = new IppResponse().getResponse(ByteBuffer.wrap(
+                IOUtils.toByteArray(getClass().getResourceAsStream("/ipp/IppResponsePrinters.bin"))));
+        AttributeGroup group = result.getAttributeGroup("printer-attributes-tag");
+        CupsGetPrintersOperation operation = new CupsGetPrintersOperation();
+        CupsPrinter full = operation.toPrinter(group, "localhost", 631, null);
+        CupsPrinter projected = operation.toPrinter(group, "localhost", 631, null, EnumSet.of(PrinterFieldEnum.STATE));
+        assertEquals(full.getName(), projected.getName());
+        assertEquals(full.getPrinterURL(), projected.getPrinterURL());
+        assertEquals(full.getState(), projected.getState());
+        assertFalse(full.getMimeTypesSupported().isEmpty());
+        assertTrue(projected.getMimeTypesSupported().isEmpty());
+    }
+
+    @Test
+    public void testToPrinterWithoutStateValue() throws Exception {
+        IppResult result = new IppResponse().getResponse(ByteBuffer.wrap(
+                IOUtils.toByteArray(getClass().getResourceAsStream("/ipp/IppResponsePrinters.bin"))));
+        AttributeGroup group = result.getAttributeGroup("printer-attributes-tag");
+        group.getAttributes("printer-state").getAttributeValues().clear();
+        CupsPrinter printer = new CupsGetPrintersOperation().toPrinter(group, "localhost", 631, null);
+        assertNull(printer.getState());
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import org.apache.hc.core5.util.Timeout;
+import org.cups4j.JobFieldEnum;
+import org.cups4j.JobStateEnum;
+import org.cups4j.PrintJobAttributes;
+import org.cups4j.operations.IppTransport;
+import org.cups4j.operations.IppTransportConfig;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the projected and batch lookups of {@link IppGetJobAttributesOperation}. A
+ * local HTTP server plays a CUPS server which knows the jobs 1 to 10.
+ */
+public class IppGetJobAttributesOperationTest {
+
+    private LocalIppServer server;
+
+    private static byte[] createResponse(int jobID) throws IOException {
+        if (jobID == 98) {
+            // server-error-internal-error
+            return LocalIppServer.toBytes(IppTag.getOperation(ByteBuffer.allocate(256), (short) 0x0500, 1));
+        }
+        if (jobID > 10) {
+            return LocalIppServer.toBytes(IppTag.getOperation(ByteBuffer.allocate(256), (short) 0x0406, 1));
+        }
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, 1);
+        ippBuf = IppTag.getJobAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "job-id", jobID);
+        ippBuf = IppTag.getEnum(ippBuf, "job-state", JobStateEnum.COMPLETED.getValue());
+        return LocalIppServer.toBytes(ippBuf);
+    }
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.start(request -> {
+            int jobID = Integer.parseInt(request.getPath().substring(request.getPath().lastIndexOf('/') + 1));
+            if (jobID == 99) {
+                // hung job
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return createResponse(jobID);
+        });
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private String getRequestedAttributes() throws IOException {
+        return server.getRequest(0).getAttributes().get("requested-attributes");
+    }
+
+    private Map<Integer, PrintJobAttributes> getPrintJobAttributes(Collection<Integer> jobIDs,
+                                                                   Set<JobFieldEnum> fields) throws Exception {
+        IppGetJobAttributesOperation operation = new IppGetJobAttributesOperation(server.getPort());
+        return operation.getPrintJobAttributes("localhost", "tester", jobIDs, null, fields);
+    }
+
+    @Test
+    public void testGetPrintJobAttributes() throws Exception {
+        Map<Integer, PrintJobAttributes> jobs = getPrintJobAttributes(Arrays.asList(3, 1, 2, 3), null);
+        assertEquals(Arrays.asList(3, 1, 2), new ArrayList<>(jobs.keySet()));
+        assertEquals(3, server.getRequests().size());
+        for (Map.Entry<Integer, PrintJobAttributes> entry : jobs.entrySet()) {
+            assertEquals(entry.getKey().intValue(), entry.getValue().getJobID());
+            assertEquals(JobStateEnum.COMPLETED, entry.getValue().getJobState());
+        }
+        assertEquals("all", getRequestedAttributes());
+    }
+
+    @Test
+    public void testGetPrintJobAttributesWithUnknownJob() throws Exception {
+        Map<Integer, PrintJobAttributes> jobs = getPrintJobAttributes(Arrays.asList(1, 42), null);
+        assertEquals(Collections.singleton(1), jobs.keySet());
+    }
+
+    @Test
+    public void testGetPrintJobAttributesWithHungJob() throws Exception {
+        Timeout timeout = Timeout.ofMilliseconds(300);
+        try (IppTransport transport = new IppTransport(IppTransportConfig.builder().connectTimeout(timeout)
+                .socketTimeout(timeout).responseTimeout(timeout).build())) {
+            IppGetJobAttributesOperation operation = new IppGetJobAttributesOperation(server.getPort());
+            operation.setTransport(transport);
+            long start = System.currentTimeMillis();
+            Map<Integer, PrintJobAttributes> jobs = operation.getPrintJobAttributes("localhost", "tester",
+                    Arrays.asList(1, 99, 2), null, null);
+            assertTrue(System.currentTimeMillis() - start < 3000);
+            assertEquals(Arrays.asList(1, 2), new ArrayList<>(jobs.keySet()));
+        }
+    }
+
+    @Test
+    public void testGetPrintJobAttributesWithProjection() throws Exception {
+        getPrintJobAttributes(Collections.singleton(1), EnumSet.of(JobFieldEnum.STATE));
+        assertEquals("job-id,job-state", getRequestedAttributes());
+    }
+
+    @Test
+    public void testGetSinglePrintJobAttributesWithProjection() throws Exception {
+        IppGetJobAttributesOperation operation = new IppGetJobAttributesOperation(server.getPort());
+        PrintJobAttributes job = operation.getPrintJobAttributes("localhost", "tester", 7, null,
+                EnumSet.of(JobFieldEnum.STATE));
+        assertEquals(JobStateEnum.COMPLETED, job.getJobState());
+        assertEquals("job-id,job-state", getRequestedAttributes());
+    }
+
+    @Test
+    public void testGetJobState() throws Exception {
+        IppGetJobAttributesOperation operation = new IppGetJobAttributesOperation(server.getPort());
+        assertEquals(JobStateEnum.COMPLETED, operation.getJobState("localhost", "tester", 1, null));
+        assertEquals("job-id,job-state", getRequestedAttributes());
+        // purged job
+        assertNull(operation.getJobState("localhost", "tester", 11, null));
+        assertThrows(IOException.class, () -> operation.getJobState("localhost", "tester", 98, null));
+    }
+
+}
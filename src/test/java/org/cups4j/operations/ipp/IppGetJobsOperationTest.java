@@ -0,0 +1,86 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import org.cups4j.CupsPrinter;
+import org.cups4j.PrintJobAttributes;
+import org.cups4j.WhichJobsEnum;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the paging of {@link IppGetJobsOperation}. A local HTTP
+ * server plays a CUPS server with 10 jobs which evaluates first-index and
+ * limit.
+ */
+public class IppGetJobsOperationTest {
+
+    private boolean firstIndexSupported = true;
+    private LocalIppServer server;
+
+    private byte[] createResponse(int first, int limit) throws IOException {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, 1);
+        if (!firstIndexSupported) {
+            ippBuf = IppTag.getUnsupportedAttributesTag(ippBuf);
+            ippBuf = IppTag.getInteger(ippBuf, "first-index", first);
+        }
+        for (int id = first; id < Math.min(11, first + limit); id++) {
+            ippBuf = IppTag.getJobAttributesTag(ippBuf);
+            ippBuf = IppTag.getInteger(ippBuf, "job-id", id);
+            ippBuf = IppTag.getNameWithoutLanguage(ippBuf, "job-name", "job" + id);
+        }
+        return LocalIppServer.toBytes(ippBuf);
+    }
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.start(request -> {
+            Map<String, String> attributes = request.getAttributes();
+            int first = firstIndexSupported ? Integer.parseInt(attributes.get("first-index")) : 1;
+            return createResponse(first, Integer.parseInt(attributes.get("limit")));
+        });
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private List<PrintJobAttributes> streamPrintJobs(int pageSize, int maxJobs) throws IOException {
+        CupsPrinter printer = new CupsPrinter(null, server.getURL("/printers/test"), "test");
+        return new IppGetJobsOperation(server.getPort()).streamPrintJobs(printer, WhichJobsEnum.ALL, "tester", false, pageSize, null)
+                .limit(maxJobs).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testStreamPrintJobsInPages() throws IOException {
+        List<PrintJobAttributes> jobs = streamPrintJobs(4, Integer.MAX_VALUE);
+        assertEquals(IntStream.rangeClosed(1, 10).boxed().collect(Collectors.toList()),
+                jobs.stream().map(PrintJobAttributes::getJobID).collect(Collectors.toList()));
+        assertEquals(3, server.getRequests().size());
+        assertEquals("9", server.getRequest(2).getAttributes().get("first-index"));
+    }
+
+    @Test
+    public void testStopEarly() throws IOException {
+        assertEquals(3, streamPrintJobs(3, 3).size());
+        assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void testFirstIndexUnsupported() throws IOException {
+        firstIndexSupported = false;
+        assertEquals(4, streamPrintJobs(4, Integer.MAX_VALUE).size());
+        assertEquals(1, server.getRequests().size());
+    }
+
+}
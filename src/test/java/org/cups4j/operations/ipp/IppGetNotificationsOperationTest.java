@@ -0,0 +1,138 @@
+package org.cups4j.operations.ipp;
+
+import ch.ethz.vppserver.ippclient.IppTag;
+import org.cups4j.JobStateEnum;
+import org.cups4j.notification.Notification;
+import org.cups4j.notification.NotificationEventEnum;
+import org.cups4j.notification.NotificationResult;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the subscription operations. A local HTTP server plays the
+ * CUPS server.
+ */
+public class IppGetNotificationsOperationTest {
+
+    private byte[] response;
+    private LocalIppServer server;
+    private URL serverURL;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.start(request -> response);
+        serverURL = server.getURL("/");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    private Map<String, String> getRequest(String tagName) throws IOException {
+        return server.getRequest(0).getAttributes(tagName);
+    }
+
+    @Test
+    public void testCreatePrinterSubscription() throws Exception {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, 1);
+        ippBuf = IppTag.getSubscriptionAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id", 42);
+        response = LocalIppServer.toBytes(ippBuf);
+
+        int id = new IppCreatePrinterSubscriptionsOperation(server.getPort()).createPrinterSubscription(
+                serverURL, "tester", 3600, EnumSet.of(NotificationEventEnum.PRINTER_STATE_CHANGED,
+                        NotificationEventEnum.JOB_COMPLETED), null);
+        assertEquals(42, id);
+        Map<String, String> subscription = getRequest("subscription-attributes-tag");
+        assertEquals("ippget", subscription.get("notify-pull-method"));
+        assertEquals("job-completed,printer-state-changed", subscription.get("notify-events"));
+        assertEquals("3600", subscription.get("notify-lease-duration"));
+    }
+
+    @Test
+    public void testCreatePushSubscription() throws Exception {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, 1);
+        ippBuf = IppTag.getSubscriptionAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id", 43);
+        response = LocalIppServer.toBytes(ippBuf);
+
+        new IppCreatePrinterSubscriptionsOperation(server.getPort()).createPrinterSubscription(
+                serverURL, "tester", 60, EnumSet.of(NotificationEventEnum.JOB_COMPLETED),
+                "ipp://127.0.0.1:8631/notify", null);
+        Map<String, String> subscription = getRequest("subscription-attributes-tag");
+        assertEquals("ipp://127.0.0.1:8631/notify", subscription.get("notify-recipient-uri"));
+        assertFalse(subscription.containsKey("notify-pull-method"));
+    }
+
+    @Test
+    public void testCreateSubscriptionWithoutEvents() throws Exception {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(256), (short) 0, 1);
+        ippBuf = IppTag.getSubscriptionAttributesTag(ippBuf);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id", 44);
+        response = LocalIppServer.toBytes(ippBuf);
+
+        int id = new IppCreateJobSubscriptionsOperation(server.getPort()).createJobSubscription(
+                serverURL, "tester", 7, NotificationEventEnum.toSet(), null);
+        assertEquals(44, id);
+        Map<String, String> subscription = getRequest("subscription-attributes-tag");
+        assertFalse(subscription.containsKey("notify-events"));
+        assertEquals("7", subscription.get("notify-job-id"));
+    }
+
+    @Test
+    public void testCreateSubscriptionRefused() throws Exception {
+        response = LocalIppServer.toBytes(IppTag.getOperation(ByteBuffer.allocate(256), (short) 0x0400, 1));
+        int id = new IppCreateJobSubscriptionsOperation(server.getPort()).createJobSubscription(
+                serverURL, "tester", 7, EnumSet.of(NotificationEventEnum.JOB_COMPLETED), null);
+        assertEquals(-1, id);
+        assertEquals("7", getRequest("subscription-attributes-tag").get("notify-job-id"));
+    }
+
+    @Test
+    public void testGetNotifications() throws Exception {
+        ByteBuffer ippBuf = IppTag.getOperation(ByteBuffer.allocate(512), (short) 0, 1);
+        ippBuf = IppTag.getInteger(ippBuf, "notify-get-interval", 30);
+        for (int seq = 5; seq <= 6; seq++) {
+            ippBuf = IppTag.getEventNotificationAttributesTag(ippBuf);
+            ippBuf = IppTag.getInteger(ippBuf, "notify-subscription-id", 42);
+            ippBuf = IppTag.getInteger(ippBuf, "notify-sequence-number", seq);
+            ippBuf = IppTag.getKeyword(ippBuf, "notify-subscribed-event", "job-completed");
+            ippBuf = IppTag.getInteger(ippBuf, "notify-job-id", 7);
+            ippBuf = IppTag.getEnum(ippBuf, "job-state", JobStateEnum.COMPLETED.getValue());
+        }
+        response = LocalIppServer.toBytes(ippBuf);
+
+        Map<Integer, Integer> sequenceNumbers = new LinkedHashMap<>();
+        sequenceNumbers.put(42, 5);
+        sequenceNumbers.put(43, 1);
+        NotificationResult result = new IppGetNotificationsOperation(server.getPort())
+                .getNotifications(serverURL, "tester", sequenceNumbers, true, null);
+        assertTrue(result.isSuccessful());
+        assertEquals(30, result.getInterval());
+        assertEquals(2, result.getNotifications().size());
+        Notification notification = result.getNotifications().get(1);
+        assertEquals(42, notification.getSubscriptionId());
+        assertEquals(6, notification.getSequenceNumber());
+        assertEquals(NotificationEventEnum.JOB_COMPLETED, notification.getEvent());
+        assertEquals(7, notification.getJobID());
+        assertEquals(JobStateEnum.COMPLETED, notification.getJobState());
+
+        Map<String, String> request = getRequest("operation-attributes-tag");
+        assertEquals("42,43", request.get("notify-subscription-ids"));
+        assertEquals("5,1", request.get("notify-sequence-numbers"));
+        assertEquals("true", request.get("notify-wait"));
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.cups4j.operations.ipp;
+
+import org.cups4j.CupsPrinter;
+import org.cups4j.operations.LocalIppServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Unit tests for class {@link IppGetPrinterAttributesOperation}. A local HTTP
+ * server plays the CUPS server.
+ */
+public class IppGetPrinterAttributesOperationTest extends AbstractIppOperationTest {
+
+    private LocalIppServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = LocalIppServer.startWithResource("/ipp/IppResponsePrinters.bin");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testGetPrinter() throws Exception {
+        IppGetPrinterAttributesOperation operation = new IppGetPrinterAttributesOperation();
+        CupsPrinter printer = operation.getPrinter("localhost", server.getPort(), "test-printer",
+                "tester", null, "printer-state");
+        assertNotNull(printer);
+        assertEquals("/printers/test-printer", server.getRequest(0).getPath());
+        ByteBuffer request = ByteBuffer.wrap(server.getRequest(0).getBody());
+        assertEquals(0x000b, request.getShort(2));
+        checkAttribute(request, "requested-attributes", "printer-name,printer-uri-supported,printer-state");
+    }
+
+}